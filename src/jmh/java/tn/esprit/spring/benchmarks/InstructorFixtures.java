@@ -0,0 +1,44 @@
+package tn.esprit.spring.benchmarks;
+
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.entities.Instructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic instructor data sets shared by the benchmarks.
+ */
+final class InstructorFixtures {
+
+    private static final LocalDate OLDEST_HIRE = LocalDate.of(1980, 1, 1);
+    private static final int HIRE_DAYS = 16_000;
+
+    private InstructorFixtures() {
+    }
+
+    static List<Instructor> instructors(int size) {
+        Random random = new Random(42);
+        List<Instructor> instructors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Instructor instructor = new Instructor();
+            instructor.setNumInstructor((long) i + 1);
+            instructor.setFirstName("First" + i);
+            instructor.setLastName("Last" + i);
+            instructor.setDateOfHire(OLDEST_HIRE.plusDays(random.nextInt(HIRE_DAYS)));
+            instructors.add(instructor);
+        }
+        return instructors;
+    }
+
+    static List<InstructorDTO> dtos(int size) {
+        List<InstructorDTO> dtos = new ArrayList<>(size);
+        for (Instructor instructor : instructors(size)) {
+            dtos.add(new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                    instructor.getLastName(), instructor.getDateOfHire()));
+        }
+        return dtos;
+    }
+}
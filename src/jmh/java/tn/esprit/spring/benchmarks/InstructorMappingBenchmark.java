@@ -0,0 +1,96 @@
+package tn.esprit.spring.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.esprit.spring.controllers.InstructorRestController;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.services.InstructorServicesImpl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of the entity/DTO converters, both the service ones and the private
+ * duplicates of InstructorRestController, and of building an InstructorDTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructorMappingBenchmark {
+
+    private InstructorServicesImpl instructorServices;
+    private InstructorRestController instructorRestController;
+    private MethodHandle controllerToDTO;
+    private MethodHandle controllerToEntity;
+    private Instructor instructor;
+    private InstructorDTO instructorDTO;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        // The converters never touch the collaborators
+        instructorServices = new InstructorServicesImpl(null, null, null, null, null, null);
+        instructorRestController = new InstructorRestController(null, null, null, null, null);
+        controllerToDTO = privateConverter("convertToDTO", Instructor.class);
+        controllerToEntity = privateConverter("convertToEntity", InstructorDTO.class);
+        instructor = InstructorFixtures.instructors(1).get(0);
+        instructorDTO = InstructorFixtures.dtos(1).get(0);
+    }
+
+    private static MethodHandle privateConverter(String name, Class<?> argument) throws ReflectiveOperationException {
+        Method method = InstructorRestController.class.getDeclaredMethod(name, argument);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+
+    @Benchmark
+    public InstructorDTO serviceConvertToDTO() {
+        return instructorServices.convertToDTO(instructor);
+    }
+
+    @Benchmark
+    public Instructor serviceConvertToEntity() {
+        return instructorServices.convertToEntity(instructorDTO);
+    }
+
+    @Benchmark
+    public Object controllerConvertToDTO() throws Throwable {
+        return controllerToDTO.invoke(instructorRestController, instructor);
+    }
+
+    @Benchmark
+    public Object controllerConvertToEntity() throws Throwable {
+        return controllerToEntity.invoke(instructorRestController, instructorDTO);
+    }
+
+    // Computes yearsOfService against the day held by Seniority
+    @Benchmark
+    public InstructorDTO constructDTO() {
+        return new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                instructor.getLastName(), instructor.getDateOfHire());
+    }
+
+    @Benchmark
+    public int entityYearsOfService() {
+        return instructor.getYearsOfService();
+    }
+
+    @Benchmark
+    public LocalDate clockRead() {
+        return LocalDate.now();
+    }
+}
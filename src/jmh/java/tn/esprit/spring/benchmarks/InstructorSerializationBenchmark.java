@@ -0,0 +1,98 @@
+package tn.esprit.spring.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tn.esprit.spring.dto.InstructorDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the List&lt;InstructorDTO&gt; bodies returned by the listing endpoints, in JSON
+ * and in the Smile and CBOR formats clients can negotiate, with the same date settings as the
+ * application's mappers. The payload size of each format is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InstructorSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<InstructorDTO> instructors;
+    private ObjectWriter writer;
+    private ObjectWriter smileWriter;
+    private ObjectWriter cborWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        instructors = InstructorFixtures.dtos(size);
+        writer = listWriter(Jackson2ObjectMapperBuilder.json());
+        smileWriter = listWriter(Jackson2ObjectMapperBuilder.smile());
+        cborWriter = listWriter(Jackson2ObjectMapperBuilder.cbor());
+        System.out.printf("%n%d instructors: JSON %d bytes, Smile %d bytes, CBOR %d bytes%n",
+                size, serialize(writer), serialize(smileWriter), serialize(cborWriter));
+    }
+
+    private static ObjectWriter listWriter(Jackson2ObjectMapperBuilder builder) {
+        return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(TypeFactory.defaultInstance().constructCollectionType(List.class, InstructorDTO.class));
+    }
+
+    @Benchmark
+    public long serializeJson() throws IOException {
+        return serialize(writer);
+    }
+
+    @Benchmark
+    public long serializeSmile() throws IOException {
+        return serialize(smileWriter);
+    }
+
+    @Benchmark
+    public long serializeCbor() throws IOException {
+        return serialize(cborWriter);
+    }
+
+    private long serialize(ObjectWriter listWriter) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        listWriter.writeValue(out, instructors);
+        return out.count;
+    }
+
+    // Discards the bytes, the network write is not what is measured
+    static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package tn.esprit.spring.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.services.SeniorityLeaderboard;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory seniority sorts: the former Period based comparator against a plain
+ * dateOfHire ordering, the one the database now applies, and the awards page top 10
+ * read from the SeniorityLeaderboard instead of a full sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SenioritySortBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Instructor> instructors;
+    private SeniorityLeaderboard leaderboard;
+
+    @Setup
+    public void setUp() {
+        instructors = InstructorFixtures.instructors(size);
+        leaderboard = new SeniorityLeaderboard(null);
+        InstructorFixtures.dtos(size).forEach(leaderboard::put);
+    }
+
+    @Benchmark
+    public List<Instructor> sortByYearsOfService() {
+        return instructors.stream()
+                .sorted(Comparator.comparing(Instructor::getYearsOfService).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Instructor> sortByDateOfHire() {
+        return instructors.stream()
+                .sorted(Comparator.comparing(Instructor::getDateOfHire))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Instructor> sortThenTop10() {
+        return instructors.stream()
+                .sorted(Comparator.comparing(Instructor::getDateOfHire))
+                .limit(10)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<InstructorDTO> leaderboardTop10() {
+        return leaderboard.top(10);
+    }
+}
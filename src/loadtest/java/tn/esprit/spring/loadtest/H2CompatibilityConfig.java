@@ -0,0 +1,51 @@
+package tn.esprit.spring.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * MySQL Connector/J streams rows when the fetch size is Integer.MIN_VALUE (see
+ * IInstructorRepository.streamAllDTOs), H2 rejects any negative fetch size. Statements of the
+ * load test data source ignore it, so the streaming endpoint runs unchanged.
+ * <p>
+ * Registered explicitly by LoadTestMain, not an annotated configuration: component scanning
+ * must not pick it up when the load test sources are on the test class path.
+ */
+class H2CompatibilityConfig {
+
+    @Bean
+    static BeanPostProcessor negativeFetchSizeFilter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? wrap(bean, DataSource.class, Closeable.class) : bean;
+            }
+        };
+    }
+
+    private static Object wrap(Object target, Class<?>... types) {
+        return Proxy.newProxyInstance(H2CompatibilityConfig.class.getClassLoader(), types, (proxy, method, args) -> {
+            if ("setFetchSize".equals(method.getName()) && (Integer) args[0] < 0) {
+                return null;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return wrap(result, returnType);
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package tn.esprit.spring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver: requests are released at a fixed rate whatever the response times, and each
+ * latency is measured from the moment its request was due. A slow server therefore shows up as
+ * queueing in the percentiles instead of silently lowering the offered load.
+ */
+final class LoadDriver {
+
+    // Latencies are recorded in microseconds, anything above a minute is clamped
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final List<TrafficMix.Operation> operations;
+    private final double[] cumulativeWeights;
+    private final double rate;
+    private final int workers;
+
+    LoadDriver(List<TrafficMix.Operation> operations, double rate, int workers) {
+        this.operations = operations;
+        this.cumulativeWeights = new double[operations.size()];
+        double total = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            total += operations.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+        this.rate = rate;
+        this.workers = workers;
+    }
+
+    LoadReport run(Duration duration) throws InterruptedException {
+        Map<TrafficMix.Operation, Stats> stats = new LinkedHashMap<>();
+        for (TrafficMix.Operation operation : operations) {
+            stats.put(operation, new Stats());
+        }
+        ExecutorService pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("load-"));
+        Random random = new Random(7);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            TrafficMix.Operation operation = pick(random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1]);
+            long dueAt = due;
+            pool.execute(() -> stats.get(operation).record(operation, dueAt));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<LoadReport.EndpointResult> results = new ArrayList<>();
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<TrafficMix.Operation, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            if (operationStats.latencies.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(operationStats.latencies);
+            totalErrors += operationStats.errors.sum();
+            results.add(LoadReport.EndpointResult.of(entry.getKey().getName(), operationStats.latencies,
+                    operationStats.errors.sum(), seconds));
+        }
+        return new LoadReport(rate, seconds, LoadReport.EndpointResult.of("TOTAL", total, totalErrors, seconds), results);
+    }
+
+    private TrafficMix.Operation pick(double point) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static final class Stats {
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(TrafficMix.Operation operation, long dueAt) {
+            boolean ok;
+            try {
+                ok = operation.execute();
+            } catch (Exception e) {
+                ok = false;
+            }
+            latencies.recordValue(Math.min(HIGHEST_LATENCY_MICROS, (System.nanoTime() - dueAt) / 1000));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+    }
+}
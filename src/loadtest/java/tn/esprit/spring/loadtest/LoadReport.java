@@ -0,0 +1,73 @@
+package tn.esprit.spring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Throughput and latency percentiles per endpoint of one measured run. The JSON form is meant to
+ * be kept next to the build it measured and compared with the next one.
+ */
+@Getter
+@AllArgsConstructor
+final class LoadReport {
+
+    private final double targetRate;
+    private final double seconds;
+    private final EndpointResult total;
+    private final List<EndpointResult> endpoints;
+
+    void print(PrintStream out) {
+        out.printf("%nTarget rate %.0f req/s, measured over %.1f s%n", targetRate, seconds);
+        out.printf("%-34s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (EndpointResult endpoint : endpoints) {
+            print(out, endpoint);
+        }
+        print(out, total);
+    }
+
+    private static void print(PrintStream out, EndpointResult endpoint) {
+        out.printf("%-34s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.getName(), endpoint.getRequests(),
+                endpoint.getErrors(), endpoint.getThroughput(), endpoint.getP50Millis(), endpoint.getP99Millis(),
+                endpoint.getP999Millis(), endpoint.getMaxMillis());
+    }
+
+    void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, this);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class EndpointResult {
+        private final String name;
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+
+        static EndpointResult of(String name, Histogram latencies, long errors, double seconds) {
+            return new EndpointResult(name, latencies.getTotalCount(), errors, latencies.getTotalCount() / seconds,
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package tn.esprit.spring.loadtest;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import tn.esprit.spring.GestionStationSkiApplication;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * End-to-end load test of the whole application in a single JVM, without any external service:
+ * boots GestionStationSkiApplication with the loadtest profile (H2 in MySQL mode), seeds it,
+ * drives the request mix of TrafficMix at a fixed rate, then prints and stores the throughput
+ * and latency percentiles per endpoint.
+ * <p>
+ * {@code mvn -Ploadtest verify -DskipTests}. Any setting of application-loadtest.properties can be
+ * overridden from the command line, e.g. {@code -Dloadtest.args="--loadtest.rate=800 --loadtest.duration=2m"}.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // DevTools is on the test class path and would relaunch this method in a restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Each run starts from empty logs: segments of an earlier run name rows that no longer exist
+        String walDirectory = "target/loadtest-wal/" + System.currentTimeMillis();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GestionStationSkiApplication.class, H2CompatibilityConfig.class)
+                .profiles("loadtest")
+                .properties("excursion.ingest.wal-directory=" + walDirectory,
+                        "registration.intake.wal-directory=" + walDirectory)
+                .run(args);
+        try {
+            Environment environment = context.getEnvironment();
+            LoadTestSeeder.Seeded seeded = new LoadTestSeeder(context, environment.getProperty("loadtest.seed.random-seed", Long.class, 42L))
+                    .seed(environment.getProperty("loadtest.seed.instructors", Integer.class, 5000),
+                            environment.getProperty("loadtest.seed.courses", Integer.class, 2000),
+                            environment.getProperty("loadtest.seed.pistes", Integer.class, 200),
+                            environment.getProperty("loadtest.seed.skiers", Integer.class, 10_000),
+                            environment.getProperty("loadtest.seed.registrations", Integer.class, 30_000));
+
+            int workers = environment.getProperty("loadtest.workers", Integer.class, 64);
+            PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+            connections.setMaxTotal(workers);
+            connections.setDefaultMaxPerRoute(workers);
+            RequestConfig timeouts = RequestConfig.custom()
+                    .setConnectTimeout(5_000)
+                    .setSocketTimeout(60_000)
+                    .build();
+            try (CloseableHttpClient client = HttpClients.custom()
+                    .setConnectionManager(connections)
+                    .setDefaultRequestConfig(timeouts)
+                    .build()) {
+                String baseUrl = "http://localhost:" + environment.getProperty("local.server.port")
+                        + environment.getProperty("server.servlet.context-path", "");
+                LoadDriver driver = new LoadDriver(new TrafficMix(client, baseUrl, seeded).operations(),
+                        environment.getProperty("loadtest.rate", Double.class, 400.0), workers);
+
+                // The warm-up lets the JIT, the pools and the caches settle, its numbers are dropped
+                driver.run(environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(20)));
+                LoadReport report = driver.run(environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60)));
+
+                report.print(System.out);
+                File resultFile = new File(environment.getProperty("loadtest.result-file", "target/loadtest-result.json"));
+                report.write(resultFile);
+                System.out.println("Results written to " + resultFile.getAbsolutePath());
+            }
+        } finally {
+            context.close();
+        }
+    }
+}
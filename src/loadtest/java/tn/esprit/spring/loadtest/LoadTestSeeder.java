@@ -0,0 +1,174 @@
+package tn.esprit.spring.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.dto.InstructorCourseAssignmentDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Piste;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.services.CourseCapacityLedger;
+import tn.esprit.spring.services.IInstructorBulkServices;
+import tn.esprit.spring.services.IPisteServices;
+import tn.esprit.spring.services.SkierNameIndex;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Fills the empty database through the application's own components, so that the in-memory
+ * structures built at startup (capacity ledger, piste index, revenue and expiry indexes) agree
+ * with the rows. The same random seed always produces the same data set.
+ */
+@Slf4j
+final class LoadTestSeeder {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final LocalDate OLDEST_HIRE = LocalDate.of(1990, 1, 1);
+
+    private final ApplicationContext context;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    LoadTestSeeder(ApplicationContext context, long randomSeed) {
+        this.context = context;
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.random = new Random(randomSeed);
+    }
+
+    Seeded seed(int instructors, int courses, int pistes, int skiers, int registrations) {
+        long started = System.nanoTime();
+        CourseCapacityLedger ledger = context.getBean(CourseCapacityLedger.class);
+        persistInChunks(courses, i -> new Course(null, 1 + random.nextInt(5), pick(TypeCourse.values()),
+                pick(Support.values()), 30f + random.nextInt(120), 1 + random.nextInt(6), null));
+        for (Course course : entityManager.createQuery("select c from Course c", Course.class).getResultList()) {
+            ledger.track(course);
+        }
+        long[] courseIds = ids("select num_course from course");
+
+        IPisteServices pisteServices = context.getBean(IPisteServices.class);
+        for (int i = 0; i < pistes; i++) {
+            pisteServices.addPiste(new Piste(null, "Piste" + i, pick(Color.values()),
+                    200 + random.nextInt(4000), 5 + random.nextInt(60), null));
+        }
+        long[] pisteIds = ids("select num_piste from piste");
+
+        LocalDate today = LocalDate.now();
+        persistInChunks(skiers, i -> {
+            LocalDate start = today.minusDays(random.nextInt(365));
+            Subscription subscription = new Subscription(null, start, start.plusDays(30 + random.nextInt(365)),
+                    50f + random.nextInt(500), pick(TypeSubscription.values()));
+            return new Skier(null, "Skier" + i, "Last" + i, LocalDate.of(1960, 1, 1).plusDays(random.nextInt(20_000)),
+                    "City" + random.nextInt(50), subscription, null, null);
+        });
+        long[] skierIds = ids("select num_skier from skier");
+        // Persisted behind the skier service's back
+        context.getBean(SkierNameIndex.class).rebuild();
+
+        // A full course week is skipped, as the registration service would refuse it
+        List<long[]> accepted = new ArrayList<>(registrations);
+        for (int attempt = 0; attempt < registrations * 2 && accepted.size() < registrations; attempt++) {
+            long numCourse = courseIds[random.nextInt(courseIds.length)];
+            int numWeek = 1 + random.nextInt(CourseCapacityLedger.MAX_WEEK);
+            if (ledger.tryReserve(numCourse, numWeek)) {
+                accepted.add(new long[]{skierIds[random.nextInt(skierIds.length)], numCourse, numWeek});
+            }
+        }
+        persistInChunks(accepted.size(), i -> {
+            long[] registration = accepted.get(i);
+            return new Registration(null, (int) registration[2], null,
+                    entityManager.getReference(Skier.class, registration[0]),
+                    entityManager.getReference(Course.class, registration[1]));
+        });
+
+        IInstructorBulkServices bulkServices = context.getBean(IInstructorBulkServices.class);
+        bulkServices.importInstructors(new Iterator<Instructor>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < instructors;
+            }
+
+            @Override
+            public Instructor next() {
+                Instructor instructor = new Instructor();
+                instructor.setFirstName("First" + next);
+                instructor.setLastName("Last" + next);
+                instructor.setDateOfHire(OLDEST_HIRE.plusDays(random.nextInt(12_000)));
+                next++;
+                return instructor;
+            }
+        });
+        long[] instructorIds = ids("select num_instructor from instructor");
+        List<InstructorCourseAssignmentDTO> assignments = new ArrayList<>(CHUNK_SIZE);
+        for (long numCourse : courseIds) {
+            assignments.add(new InstructorCourseAssignmentDTO(instructorIds[random.nextInt(instructorIds.length)], numCourse));
+            if (assignments.size() == CHUNK_SIZE) {
+                bulkServices.assignInstructorsToCourses(assignments);
+                assignments = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!assignments.isEmpty()) {
+            bulkServices.assignInstructorsToCourses(assignments);
+        }
+
+        log.info("Seeded {} instructors, {} courses, {} pistes, {} skiers and {} registrations in {} ms",
+                instructorIds.length, courseIds.length, pisteIds.length, skierIds.length, accepted.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return new Seeded(instructorIds, courseIds, pisteIds, skierIds);
+    }
+
+    private void persistInChunks(int count, IntFunction<Object> entity) {
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int to = Math.min(count, from + CHUNK_SIZE);
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < to; i++) {
+                    entityManager.persist(entity.apply(i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private long[] ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Seeded {
+        private final long[] instructorIds;
+        private final long[] courseIds;
+        private final long[] pisteIds;
+        private final long[] skierIds;
+    }
+}
@@ -0,0 +1,321 @@
+package tn.esprit.spring.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The request mix: every endpoint of the application with a weight close to its share of
+ * production traffic. Instructor reads dominate, as the kiosks poll them; administrative
+ * endpoints are kept rare. Writes only modify or delete instructors the load test created
+ * itself, so the seeded data set keeps its shape for the whole run.
+ */
+final class TrafficMix {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+    private static final String[] COLORS = {"GREEN", "BLUE", "RED", "BLACK"};
+    private static final String[] TYPE_COURSES = {"COLLECTIVE_CHILDREN", "COLLECTIVE_ADULT", "INDIVIDUAL"};
+    private static final int MAX_CREATED = 10_000;
+
+    private final CloseableHttpClient client;
+    private final String baseUrl;
+    private final LoadTestSeeder.Seeded seeded;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedDeque<Long> createdInstructors = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<Long> createdPistes = new ConcurrentLinkedDeque<>();
+    private final AtomicReference<String> allInstructorsETag = new AtomicReference<>();
+
+    TrafficMix(CloseableHttpClient client, String baseUrl, LoadTestSeeder.Seeded seeded) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.seeded = seeded;
+    }
+
+    List<Operation> operations() {
+        List<Operation> operations = new ArrayList<>();
+        // Instructor reads
+        operations.add(new Operation("GET /instructor/{id}", 20, () -> ok(get("/instructor/" + instructor()))));
+        operations.add(new Operation("GET /instructor/all (poll)", 6, this::pollAllInstructors));
+        operations.add(new Operation("GET /instructor/page", 8, () -> ok(get("/instructor/page?size=50&cursor=" + cursor()))));
+        operations.add(new Operation("GET /instructor/withCourses", 5, () -> ok(get("/instructor/withCourses?size=20&cursor=" + cursor()))));
+        operations.add(new Operation("GET /instructor/sortedBySeniority", 8, () -> ok(get("/instructor/sortedBySeniority?hiredFrom="
+                + LocalDate.of(1990 + random().nextInt(30), 1, 1) + "&page=" + random().nextInt(5) + "&size=50"))));
+        operations.add(new Operation("GET /instructor/sortedBySeniority?name", 3, () -> ok(get("/instructor/sortedBySeniority?name=Last"
+                + random().nextInt(100) + "&size=50"))));
+        operations.add(new Operation("GET /instructor/top", 4, () -> ok(get("/instructor/top?k=" + (1 + random().nextInt(50))))));
+        operations.add(new Operation("GET /instructor/search", 6, () -> ok(get("/instructor/search?q=" + nameQuery("last")))));
+        operations.add(new Operation("GET /instructor/timeSlotConflicts", 0.2, () -> ok(get("/instructor/timeSlotConflicts"))));
+        operations.add(new Operation("GET /instructor/yearsOfService/{id}", 8, () -> ok(get("/instructor/yearsOfService/" + instructor()))));
+        operations.add(new Operation("GET /instructor/all/stream", 1, () -> ok(get("/instructor/all/stream"))));
+        // Instructor writes
+        operations.add(new Operation("POST /instructor/add", 4, this::addInstructor));
+        operations.add(new Operation("PUT /instructor/update", 3, this::updateInstructor));
+        operations.add(new Operation("PATCH /instructor/{id}", 3, this::patchInstructor));
+        operations.add(new Operation("PUT /instructor/addAndAssignToCourse/{course}", 2, () -> created(send("PUT",
+                "/instructor/addAndAssignToCourse/" + course(), json(newInstructor())), createdInstructors)));
+        operations.add(new Operation("POST /instructor/{id}/assign/{course}", 1, () -> {
+            Long numInstructor = createdInstructors.peekLast();
+            return numInstructor == null || ok(send("POST", "/instructor/" + numInstructor + "/assign/" + course(), null));
+        }));
+        operations.add(new Operation("POST /instructor/assignments", 1, () -> {
+            Long numInstructor = createdInstructors.peekLast();
+            return numInstructor == null || ok(send("POST", "/instructor/assignments", json("[{\"numInstructor\":"
+                    + numInstructor + ",\"numCourse\":" + course() + "}]")));
+        }));
+        operations.add(new Operation("POST /instructor/batch", 1, this::importInstructors));
+        operations.add(new Operation("DELETE /instructor/remove/{id}", 2, () -> {
+            Long numInstructor = createdInstructors.pollFirst();
+            return numInstructor == null || ok(send("DELETE", "/instructor/remove/" + numInstructor, null));
+        }));
+        operations.add(new Operation("DELETE /instructor", 0.5, () -> {
+            Long first = createdInstructors.pollFirst();
+            Long second = createdInstructors.pollFirst();
+            return first == null || ok(send("DELETE", "/instructor", json("{\"ids\":[" + first
+                    + (second == null ? "" : "," + second) + "]}")));
+        }));
+        // Registrations: a full course week answers 409, which is an expected outcome
+        operations.add(new Operation("PUT /registration/addAndAssignToSkierAndCourse", 4, () -> {
+            Response response = send("PUT", "/registration/addAndAssignToSkierAndCourse/" + skier() + "/" + course(),
+                    json("{\"numWeek\":" + (1 + random().nextInt(53)) + "}"));
+            return response.isSuccess() || response.getStatus() == 409;
+        }));
+        operations.add(new Operation("POST /registration/intake", 4, () -> {
+            Response response = send("POST", "/registration/intake/" + skier() + "/" + course(),
+                    json("{\"numWeek\":" + (1 + random().nextInt(53)) + "}"));
+            return response.isSuccess() || response.getStatus() == 409;
+        }));
+        operations.add(new Operation("GET /registration/intake/pending", 0.5, () -> ok(get("/registration/intake/pending"))));
+        operations.add(new Operation("GET /registration/remainingSeats", 4, () -> ok(get("/registration/remainingSeats/"
+                + course() + "/" + (1 + random().nextInt(53))))));
+        // Skiers
+        operations.add(new Operation("GET /skier/search", 6, () -> ok(get("/skier/search?q=" + nameQuery("skier")))));
+        operations.add(new Operation("GET /skier/get/{id}", 1, () -> ok(get("/skier/get/" + skier()))));
+        // Pistes
+        operations.add(new Operation("GET /piste/search", 4, () -> ok(get("/piste/search?color=" + COLORS[random().nextInt(COLORS.length)]
+                + "&minLength=" + random().nextInt(2000) + "&maxSlope=" + (20 + random().nextInt(40))))));
+        operations.add(new Operation("GET /piste/get/{id}", 2, () -> ok(get("/piste/get/" + pick(seeded.getPisteIds())))));
+        operations.add(new Operation("GET /piste/all", 1, () -> ok(get("/piste/all"))));
+        operations.add(new Operation("POST /piste/add", 0.5, () -> created(send("POST", "/piste/add",
+                json("{\"namePiste\":\"Load\",\"color\":\"BLUE\",\"length\":" + (200 + random().nextInt(4000))
+                        + ",\"slope\":" + (5 + random().nextInt(60)) + "}")), createdPistes, "numPiste")));
+        operations.add(new Operation("PUT /piste/update", 0.5, () -> {
+            Long numPiste = createdPistes.peekLast();
+            return numPiste == null || ok(send("PUT", "/piste/update", json("{\"numPiste\":" + numPiste
+                    + ",\"namePiste\":\"Load\",\"color\":\"RED\",\"length\":1500,\"slope\":30}")));
+        }));
+        operations.add(new Operation("DELETE /piste/delete/{id}", 0.5, () -> {
+            Long numPiste = createdPistes.pollFirst();
+            return numPiste == null || ok(send("DELETE", "/piste/delete/" + numPiste, null));
+        }));
+        // Lift-gate scans, revenue and administration
+        operations.add(new Operation("POST /excursion/scans", 4, this::recordScans));
+        operations.add(new Operation("GET /excursion/scans/pending", 0.5, () -> ok(get("/excursion/scans/pending"))));
+        operations.add(new Operation("GET /revenue/registrations", 2, () -> ok(get("/revenue/registrations?typeCourse="
+                + TYPE_COURSES[random().nextInt(TYPE_COURSES.length)]))));
+        operations.add(new Operation("GET /revenue/subscriptions", 1, () -> ok(get("/revenue/subscriptions"))));
+        operations.add(new Operation("POST /revenue/check", 0.05, () -> ok(send("POST", "/revenue/check", null))));
+        operations.add(new Operation("POST /revenue/rebuild", 0.05, () -> ok(send("POST", "/revenue/rebuild", null))));
+        operations.add(new Operation("POST /subscription/expiries/run", 0.05, () -> ok(send("POST",
+                "/subscription/expiries/run?day=" + LocalDate.now(), null))));
+        operations.add(new Operation("GET /cache/stats", 0.2, () -> ok(get("/cache/stats"))));
+        return operations;
+    }
+
+    // The kiosk behaviour: send back the last tag seen, most polls end with a 304
+    private boolean pollAllInstructors() throws IOException {
+        RequestBuilder request = RequestBuilder.get(baseUrl + "/instructor/all");
+        String eTag = allInstructorsETag.get();
+        if (eTag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        }
+        Response response = execute(request);
+        if (response.getETag() != null) {
+            allInstructorsETag.set(response.getETag());
+        }
+        return response.isSuccess() || response.getStatus() == 304;
+    }
+
+    private boolean addInstructor() throws IOException {
+        return created(send("POST", "/instructor/add", json(newInstructor())), createdInstructors);
+    }
+
+    private boolean updateInstructor() throws IOException {
+        Long numInstructor = createdInstructors.peekLast();
+        if (numInstructor == null) {
+            return addInstructor();
+        }
+        return ok(send("PUT", "/instructor/update", json("{\"numInstructor\":" + numInstructor
+                + ",\"firstName\":\"Load\",\"lastName\":\"Updated\",\"dateOfHire\":\"" + hireDate() + "\"}")));
+    }
+
+    // A desk edit: read the instructor, then send only the changed field with the version read.
+    // Losing the race to another edit is an expected 409, not an error
+    private boolean patchInstructor() throws IOException {
+        Long numInstructor = createdInstructors.peekFirst();
+        if (numInstructor == null) {
+            return addInstructor();
+        }
+        Response read = get("/instructor/" + numInstructor);
+        if (!read.isSuccess()) {
+            return read.getStatus() == 404;
+        }
+        long version = objectMapper.readTree(read.getBody()).path("version").asLong();
+        Response response = send("PATCH", "/instructor/" + numInstructor,
+                json("{\"lastName\":\"Patched" + random().nextInt(1000) + "\",\"version\":" + version + "}"));
+        return response.isSuccess() || response.getStatus() == 409;
+    }
+
+    private boolean importInstructors() throws IOException {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            rows.append(newInstructor()).append('\n');
+        }
+        RequestBuilder request = RequestBuilder.post(baseUrl + "/instructor/batch")
+                .setEntity(new ByteArrayEntity(rows.toString().getBytes(StandardCharsets.UTF_8), NDJSON));
+        return execute(request).isSuccess();
+    }
+
+    private boolean recordScans() throws IOException {
+        StringBuilder scans = new StringBuilder("[");
+        for (int i = 0; i < 10; i++) {
+            scans.append(i == 0 ? "" : ",").append("{\"numSkier\":").append(skier())
+                    .append(",\"numPiste\":").append(pick(seeded.getPisteIds())).append('}');
+        }
+        return ok(send("POST", "/excursion/scans", json(scans.append(']').toString())));
+    }
+
+    // What a user types into an autocomplete box: a name prefix, now and then with two letters swapped
+    private static String nameQuery(String name) {
+        String typed = name + random().nextInt(1000);
+        typed = typed.substring(0, 3 + random().nextInt(typed.length() - 2));
+        if (random().nextInt(5) == 0) {
+            typed = typed.charAt(1) + "" + typed.charAt(0) + typed.substring(2);
+        }
+        return typed;
+    }
+
+    private String newInstructor() {
+        return "{\"firstName\":\"Load\",\"lastName\":\"Test" + random().nextInt(1_000_000)
+                + "\",\"dateOfHire\":\"" + hireDate() + "\"}";
+    }
+
+    private boolean created(Response response, ConcurrentLinkedDeque<Long> created) throws IOException {
+        return created(response, created, "numInstructor");
+    }
+
+    // Keeps the id of a created row for the later updates and deletes, up to a bounded backlog
+    private boolean created(Response response, ConcurrentLinkedDeque<Long> created, String idField) throws IOException {
+        if (!response.isSuccess()) {
+            return false;
+        }
+        JsonNode id = objectMapper.readTree(response.getBody()).get(idField);
+        if (id != null && id.canConvertToLong() && created.size() < MAX_CREATED) {
+            created.addLast(id.asLong());
+        }
+        return true;
+    }
+
+    private Response get(String path) throws IOException {
+        return execute(RequestBuilder.get(baseUrl + path));
+    }
+
+    private Response send(String method, String path, ByteArrayEntity body) throws IOException {
+        RequestBuilder request = RequestBuilder.create(method).setUri(baseUrl + path);
+        if (body != null) {
+            request.setEntity(body);
+        }
+        return execute(request);
+    }
+
+    private Response execute(RequestBuilder request) throws IOException {
+        try (CloseableHttpResponse response = client.execute(request.build())) {
+            byte[] body = response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+            Header eTag = response.getFirstHeader(HttpHeaders.ETAG);
+            return new Response(response.getStatusLine().getStatusCode(), body, eTag == null ? null : eTag.getValue());
+        }
+    }
+
+    private static boolean ok(Response response) {
+        return response.isSuccess();
+    }
+
+    private static ByteArrayEntity json(String body) {
+        return new ByteArrayEntity(body.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+    }
+
+    private String cursor() {
+        String after = String.valueOf(pick(seeded.getInstructorIds()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(after.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long instructor() {
+        return pick(seeded.getInstructorIds());
+    }
+
+    private long course() {
+        return pick(seeded.getCourseIds());
+    }
+
+    private long skier() {
+        return pick(seeded.getSkierIds());
+    }
+
+    private static LocalDate hireDate() {
+        return LocalDate.of(1990, 1, 1).plusDays(random().nextInt(12_000));
+    }
+
+    private static long pick(long[] ids) {
+        return ids[random().nextInt(ids.length)];
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+
+    interface Call {
+        boolean execute() throws IOException;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Operation {
+        private final String name;
+        private final double weight;
+        private final Call call;
+
+        boolean execute() throws IOException {
+            return call.execute();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Response {
+        private final int status;
+        private final byte[] body;
+        private final String eTag;
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tn.esprit.spring.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size pools with bounded queues and an abort policy: a saturated pool answers 503
+ * right away instead of queueing without limit. Queue depth and queue wait time are published
+ * as executor.queued and executor.idle, tagged with the pool name.
+ */
+@Configuration
+public class AsyncExecutionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public RequestExecutors requestExecutors(MeterRegistry meterRegistry,
+                                             @Value("${instructor.async.bulk-reads.pool-size:4}") int bulkReadsPoolSize,
+                                             @Value("${instructor.async.bulk-reads.queue-capacity:16}") int bulkReadsQueueCapacity,
+                                             @Value("${instructor.async.point-lookups.pool-size:16}") int pointLookupsPoolSize,
+                                             @Value("${instructor.async.point-lookups.queue-capacity:512}") int pointLookupsQueueCapacity) {
+        return new RequestExecutors(
+                monitored(meterRegistry, "bulkReads", bulkReadsPoolSize, bulkReadsQueueCapacity),
+                monitored(meterRegistry, "pointLookups", pointLookupsPoolSize, pointLookupsQueueCapacity));
+    }
+
+    private static ExecutorService monitored(MeterRegistry meterRegistry, String name, int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+}
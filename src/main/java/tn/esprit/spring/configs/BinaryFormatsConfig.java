@@ -0,0 +1,36 @@
+package tn.esprit.spring.configs;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Smile and CBOR bodies for clients that ask for them in Accept, JSON stays the default. Smile
+ * writes each repeated property name as a one-byte back reference, small numbers such as
+ * yearsOfService as a single byte, and dates stay ISO strings.
+ * Spring MVC would register both formats by itself with a bare ObjectMapper; these converters
+ * replace them with mappers built from the application's Jackson settings, so dates and
+ * property inclusion are the same in every format.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // The builder bean is a prototype, each converter gets its own mapper. A mapper keeps the
+    // serializers it resolved and its factory recycles the encoding buffers per thread
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,41 @@
+package tn.esprit.spring.configs;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Enables the in-process caches. Size and TTL come from spring.cache.caffeine.spec,
+ * the cache names below must stay in sync with spring.cache.cache-names.
+ * <p>
+ * Puts and evictions made inside a transaction wait for its commit: an eviction that ran before the
+ * commit would let a concurrent reader cache the old row again for the whole TTL.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String INSTRUCTOR_VIEWS = "instructorViews";
+    public static final String YEARS_OF_SERVICE = "instructorYearsOfService";
+
+    // Replaces the auto-configured manager, which Caffeine cannot make transaction-aware by itself
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        if (StringUtils.hasText(cacheProperties.getCaffeine().getSpec())) {
+            caffeine.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        if (!CollectionUtils.isEmpty(cacheProperties.getCacheNames())) {
+            caffeine.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,28 @@
+package tn.esprit.spring.configs;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tomcat leaves responses carrying a strong ETag uncompressed by default. The instructor
+ * listings put the content coding in their tags, so compression can stay on for them.
+ */
+@Configuration
+public class CompressionConfig {
+
+    // Deprecated in Tomcat 9, still honoured by the 9.0 line shipped with Boot 2.6
+    @Bean
+    @SuppressWarnings("deprecation")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> strongETagCompression() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler handler = connector.getProtocolHandler();
+            if (handler instanceof AbstractHttp11Protocol) {
+                ((AbstractHttp11Protocol<?>) handler).setNoCompressionStrongETag(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Configuration;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Keeps the time slot of every course in the schedule index up to date, so a course moved to another
+ * slot is checked, and listed as a conflict, in its new slot. The listeners run after commit.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class InstructorScheduleConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final InstructorScheduleIndex scheduleIndex;
+
+    @PostConstruct
+    public void registerCourseListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        CourseWriteListener listener = new CourseWriteListener(scheduleIndex);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @RequiredArgsConstructor
+    static class CourseWriteListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final transient InstructorScheduleIndex scheduleIndex;
+
+        // Called for every entity another listener asked post-commit events for, not only courses
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Course) {
+                scheduleIndex.courseChanged((Course) event.getEntity());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Course) {
+                scheduleIndex.courseChanged((Course) event.getEntity());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (isCourse(event.getPersister())) {
+                scheduleIndex.courseRemoved((Long) event.getId());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return isCourse(persister);
+        }
+
+        // Still abstract in Hibernate 5.6, which only calls the method above
+        @Override
+        @Deprecated
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+
+        private static boolean isCourse(EntityPersister persister) {
+            return Course.class.equals(persister.getMappedClass());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Instructor ids used to be IDENTITY columns. On a database created back then, the instructor_seq table
+ * Hibernate adds starts at 1 and would hand out ids already taken: at startup its next_val is raised
+ * above the highest id. It is only ever raised, ids reserved by another running instance stay valid.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class InstructorSequenceConfig {
+
+    static final String MAX_ID_SQL = "select coalesce(max(num_instructor), 0) + 1 from instructor";
+    static final String RAISE_SQL = "update instructor_seq set next_val = ? where next_val < ?";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void raiseInstructorSequence() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        // Native sequences cannot be raised portably, nor only when behind; none was deployed with IDENTITY ids
+        if (dialect.supportsSequences()) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        if (jdbcTemplate.update(RAISE_SQL, next, next) > 0) {
+            log.info("Raised instructor_seq.next_val to {}, above the existing instructor ids", next);
+        }
+    }
+}
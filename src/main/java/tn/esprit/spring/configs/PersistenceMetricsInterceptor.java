@@ -0,0 +1,58 @@
+package tn.esprit.spring.configs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records, per endpoint, how many statements, entity loads and flushes a request caused.
+ * The counters are kept on the request, so an async request that is dispatched again once its
+ * worker is done reports what the worker did.
+ */
+@RequiredArgsConstructor
+public class PersistenceMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTERS_ATTRIBUTE = PersistenceMetricsInterceptor.class.getName() + ".counters";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object counters = request.getAttribute(COUNTERS_ATTRIBUTE);
+        if (counters instanceof AtomicLongArray) {
+            PersistenceRequestCounters.bind((AtomicLongArray) counters);
+        } else {
+            request.setAttribute(COUNTERS_ATTRIBUTE, PersistenceRequestCounters.open());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PersistenceRequestCounters.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = (pattern != null) ? pattern.toString() : "UNKNOWN";
+        record("persistence.request.statements", request, uri, PersistenceRequestCounters.STATEMENTS);
+        record("persistence.request.entities.loaded", request, uri, PersistenceRequestCounters.ENTITIES_LOADED);
+        record("persistence.request.flushes", request, uri, PersistenceRequestCounters.FLUSHES);
+        PersistenceRequestCounters.unbind();
+    }
+
+    private void record(String name, HttpServletRequest request, String uri, int counter) {
+        DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(PersistenceRequestCounters.get(counter));
+    }
+}
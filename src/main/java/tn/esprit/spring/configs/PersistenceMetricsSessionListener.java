@@ -0,0 +1,19 @@
+package tn.esprit.spring.configs;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Instantiated by Hibernate for every session (hibernate.session.events.auto).
+ */
+public class PersistenceMetricsSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        PersistenceRequestCounters.increment(PersistenceRequestCounters.STATEMENTS);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        PersistenceRequestCounters.increment(PersistenceRequestCounters.FLUSHES);
+    }
+}
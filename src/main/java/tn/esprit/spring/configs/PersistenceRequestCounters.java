@@ -0,0 +1,62 @@
+package tn.esprit.spring.configs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of the persistence work done while serving the current request.
+ * Fed by Hibernate listeners, opened and read by {@link PersistenceMetricsInterceptor}.
+ * The counters belong to the request, not the thread: {@link #propagate(Runnable)} lends them
+ * to the worker that runs the request's task (see {@link RequestExecutors}).
+ */
+public final class PersistenceRequestCounters {
+
+    static final int STATEMENTS = 0;
+    static final int ENTITIES_LOADED = 1;
+    static final int FLUSHES = 2;
+
+    // Outside any request the listeners count into a throwaway per-thread array
+    private static final ThreadLocal<AtomicLongArray> CURRENT = ThreadLocal.withInitial(() -> new AtomicLongArray(3));
+
+    private PersistenceRequestCounters() {
+    }
+
+    static void increment(int counter) {
+        CURRENT.get().incrementAndGet(counter);
+    }
+
+    static long get(int counter) {
+        return CURRENT.get().get(counter);
+    }
+
+    // Fresh counters for a new request, bound to the calling thread
+    static AtomicLongArray open() {
+        AtomicLongArray counters = new AtomicLongArray(3);
+        CURRENT.set(counters);
+        return counters;
+    }
+
+    static void bind(AtomicLongArray counters) {
+        CURRENT.set(counters);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task so that it counts into the counters of the request that submitted it,
+     * whichever thread ends up running it.
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicLongArray counters = CURRENT.get();
+        return () -> {
+            AtomicLongArray previous = CURRENT.get();
+            CURRENT.set(counters);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
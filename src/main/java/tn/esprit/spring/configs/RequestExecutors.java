@@ -0,0 +1,40 @@
+package tn.esprit.spring.configs;
+
+import lombok.Getter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Worker pools the controllers hand their work to, so a slow listing cannot starve cheap lookups.
+ * Both are bounded and reject with a {@link java.util.concurrent.RejectedExecutionException} when full.
+ * Submitted tasks carry the submitting request's {@link PersistenceRequestCounters}.
+ */
+public class RequestExecutors {
+
+    private final Executor bulkReadPool;
+    private final Executor pointLookupPool;
+
+    // Listings and other requests whose cost grows with the data set
+    @Getter
+    private final Executor bulkReads;
+
+    // Single-row lookups
+    @Getter
+    private final Executor pointLookups;
+
+    public RequestExecutors(Executor bulkReads, Executor pointLookups) {
+        this.bulkReadPool = bulkReads;
+        this.pointLookupPool = pointLookups;
+        this.bulkReads = task -> bulkReads.execute(PersistenceRequestCounters.propagate(task));
+        this.pointLookups = task -> pointLookups.execute(PersistenceRequestCounters.propagate(task));
+    }
+
+    public void shutdown() {
+        for (Executor executor : new Executor[]{bulkReadPool, pointLookupPool}) {
+            if (executor instanceof ExecutorService) {
+                ((ExecutorService) executor).shutdown();
+            }
+        }
+    }
+}
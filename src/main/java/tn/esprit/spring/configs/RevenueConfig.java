@@ -0,0 +1,128 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Configuration;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.services.RevenueAggregates;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Feeds every committed course, registration and subscription change to the revenue aggregates.
+ * Updates and deletes are applied as the difference between the previous and the new state.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RevenueConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final RevenueAggregates revenueAggregates;
+
+    @PostConstruct
+    public void registerRevenueListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        RevenueListener listener = new RevenueListener(revenueAggregates);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @RequiredArgsConstructor
+    static class RevenueListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final transient RevenueAggregates revenueAggregates;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            addNew(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            Object entity = event.getEntity();
+            if (entity instanceof Course) {
+                revenueAggregates.courseChanged((Course) entity);
+                return;
+            }
+            // Entities updated without being loaded first have no previous state
+            if (event.getOldState() == null) {
+                revenueAggregates.markStale();
+                return;
+            }
+            removeOld(event.getPersister(), event.getOldState());
+            addNew(entity);
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Course) {
+                revenueAggregates.courseRemoved((Long) event.getId());
+            } else if (event.getDeletedState() != null) {
+                removeOld(event.getPersister(), event.getDeletedState());
+            } else {
+                revenueAggregates.markStale();
+            }
+        }
+
+        private void addNew(Object entity) {
+            if (entity instanceof Registration) {
+                Registration registration = (Registration) entity;
+                revenueAggregates.registrationAdded(courseId(registration.getCourse()), registration.getNumWeek());
+            } else if (entity instanceof Subscription) {
+                Subscription subscription = (Subscription) entity;
+                revenueAggregates.subscriptionAdded(subscription.getTypeSub(), subscription.getPrice());
+            } else if (entity instanceof Course) {
+                revenueAggregates.courseChanged((Course) entity);
+            }
+        }
+
+        private void removeOld(EntityPersister persister, Object[] state) {
+            Class<?> type = persister.getMappedClass();
+            if (Registration.class.equals(type)) {
+                revenueAggregates.registrationRemoved(courseId((Course) property(persister, state, "course")),
+                        (Integer) property(persister, state, "numWeek"));
+            } else if (Subscription.class.equals(type)) {
+                revenueAggregates.subscriptionRemoved((TypeSubscription) property(persister, state, "typeSub"),
+                        (Float) property(persister, state, "price"));
+            }
+        }
+
+        private static Object property(EntityPersister persister, Object[] state, String name) {
+            return state[persister.getEntityMetamodel().getPropertyIndex(name)];
+        }
+
+        // Reading the id of an uninitialized proxy does not load it
+        private static Long courseId(Course course) {
+            return (course != null) ? course.getNumCourse() : null;
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            Class<?> type = persister.getMappedClass();
+            return Registration.class.equals(type) || Subscription.class.equals(type) || Course.class.equals(type);
+        }
+
+        // Still abstract in Hibernate 5.6, which only calls the method above
+        @Override
+        @Deprecated
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+    }
+}
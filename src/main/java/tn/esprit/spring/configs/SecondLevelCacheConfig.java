@@ -0,0 +1,75 @@
+package tn.esprit.spring.configs;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache, held in Caffeine through JCache. Each region is
+ * bounded by l2cache.&lt;region&gt;.maximum-size and expires l2cache.&lt;region&gt;.expire-after-write
+ * after it was written (0 keeps entries until they are evicted by size). The update timestamps
+ * region is never bounded: the query cache relies on it to tell stale results apart.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Region names of the @Cache mappings
+    public static final String COURSES = "course";
+    public static final String PISTES = "piste";
+    public static final String INSTRUCTOR_COURSES = "instructor.courses";
+
+    public static final String INSTRUCTOR_COURSES_ROLE = "tn.esprit.spring.entities.Instructor.courses";
+
+    private static final String[] BOUNDED_REGIONS = {COURSES, PISTES, INSTRUCTOR_COURSES,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME};
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+    // A manager of its own: the provider's default one is shared by everything in the JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-l2:" + UUID.randomUUID()),
+                SecondLevelCacheConfig.class.getClassLoader());
+        for (String region : BOUNDED_REGIONS) {
+            cacheManager.createCache(region, regionConfiguration(environment, region));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unboundedConfiguration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(Environment environment, String region) {
+        CaffeineConfiguration<Object, Object> configuration = unboundedConfiguration();
+        long maximumSize = environment.getProperty("l2cache." + region + ".maximum-size", Long.class, DEFAULT_MAXIMUM_SIZE);
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        Duration expireAfterWrite = environment.getProperty("l2cache." + region + ".expire-after-write", Duration.class, Duration.ZERO);
+        if (!expireAfterWrite.isZero()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        }
+        return configuration;
+    }
+
+    // Hibernate never mutates what it caches, copying every entry on the way in and out buys nothing
+    private static CaffeineConfiguration<Object, Object> unboundedConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
@@ -0,0 +1,90 @@
+package tn.esprit.spring.configs;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Configuration;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.services.SubscriptionExpiryIndex;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Keeps the expiry index in step with every subscription write, including the ones cascaded from
+ * {@link tn.esprit.spring.entities.Skier}. The listeners run after commit, so rolled back changes never
+ * reach the index.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SubscriptionExpiryConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SubscriptionExpiryIndex expiryIndex;
+
+    @PostConstruct
+    public void registerSubscriptionListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        SubscriptionWriteListener listener = new SubscriptionWriteListener(expiryIndex);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @RequiredArgsConstructor
+    static class SubscriptionWriteListener
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final transient SubscriptionExpiryIndex expiryIndex;
+
+        // Called for every entity another listener asked post-commit events for, not only subscriptions
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Subscription) {
+                Subscription subscription = (Subscription) event.getEntity();
+                expiryIndex.schedule(subscription.getNumSub(), subscription.getEndDate());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Subscription) {
+                Subscription subscription = (Subscription) event.getEntity();
+                expiryIndex.schedule(subscription.getNumSub(), subscription.getEndDate());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (isSubscription(event.getPersister())) {
+                expiryIndex.unschedule((Long) event.getId());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return isSubscription(persister);
+        }
+
+        // Still abstract in Hibernate 5.6, which only calls the method above
+        @Override
+        @Deprecated
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+
+        private static boolean isSubscription(EntityPersister persister) {
+            return Subscription.class.equals(persister.getMappedClass());
+        }
+    }
+}
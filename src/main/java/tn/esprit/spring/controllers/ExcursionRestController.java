@@ -0,0 +1,36 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.ExcursionScanDTO;
+import tn.esprit.spring.services.IExcursionServices;
+
+import java.util.List;
+
+@Tag(name = "\uD83D\uDEA1 Excursion Management")
+@RestController
+@RequestMapping("/excursion")
+@RequiredArgsConstructor
+public class ExcursionRestController {
+
+    private final IExcursionServices excursionServices;
+
+    @Operation(description = "Record lift-gate scans; answers once they are durably logged, they reach the database shortly after")
+    @PostMapping("/scans")
+    public ResponseEntity<Integer> recordScans(@RequestBody List<ExcursionScanDTO> scans) {
+        if (scans == null || scans.stream().anyMatch(s -> s == null || s.getNumSkier() == null || s.getNumPiste() == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(excursionServices.recordScans(scans));
+    }
+
+    @Operation(description = "Number of scans waiting to be written to the database")
+    @GetMapping("/scans/pending")
+    public int getPendingScans() {
+        return excursionServices.getPendingScans();
+    }
+}
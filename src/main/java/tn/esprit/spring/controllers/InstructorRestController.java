@@ -1,16 +1,57 @@
 package tn.esprit.spring.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.spring.configs.BinaryFormatsConfig;
+import tn.esprit.spring.configs.RequestExecutors;
+import tn.esprit.spring.dto.BulkAssignmentResultDTO;
+import tn.esprit.spring.dto.BulkDeleteRequestDTO;
+import tn.esprit.spring.dto.ImportChunkResultDTO;
+import tn.esprit.spring.dto.InstructorCourseAssignmentDTO;
 import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPageDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesPageDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
 import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.services.IInstructorBulkServices;
 import tn.esprit.spring.services.IInstructorServices;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorDoubleBookedException;
 
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Tag(name = "\uD83D\uDC69\u200D\uD83C\uDFEB Instructor Management")
 @RestController
@@ -18,7 +59,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class InstructorRestController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Autocomplete lists are short; larger requests are capped
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final IInstructorServices instructorServices;
+    private final IInstructorBulkServices instructorBulkServices;
+    private final RequestExecutors requestExecutors;
+    private final ObjectMapper objectMapper;
+    private final InstructorDataVersion dataVersion;
 
     @Operation(description = "Add Instructor")
     @PostMapping("/add")
@@ -42,14 +92,121 @@ public class InstructorRestController {
         return ResponseEntity.ok(convertToDTO(assignedInstructor));
     }
 
+    @Operation(description = "Bulk import Instructors from a JSON array or an NDJSON stream")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<ImportChunkResultDTO>> importInstructors(HttpServletRequest request) throws IOException {
+        // Rows are parsed one at a time while the service inserts them, the body is never buffered
+        try (MappingIterator<InstructorDTO> rows = objectMapper.readerFor(InstructorDTO.class)
+                .readValues(request.getInputStream())) {
+            Iterator<Instructor> instructors = new Iterator<Instructor>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public Instructor next() {
+                    return convertToEntity(rows.next());
+                }
+            };
+            return ResponseEntity.ok(instructorBulkServices.importInstructors(instructors));
+        }
+    }
+
     @Operation(description = "Retrieve all Instructors")
     @GetMapping("/all")
-    public ResponseEntity<List<InstructorDTO>> getAllInstructors() {
-        List<InstructorDTO> instructorDTOList = instructorServices.retrieveAllInstructors()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(instructorDTOList);
+    public CompletableFuture<ResponseEntity<List<InstructorDTO>>> getAllInstructors(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String eTag = listingETag(accept, acceptEncoding);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(instructorServices.retrieveAllInstructorDTOs()),
+                requestExecutors.getBulkReads());
+    }
+
+    @Operation(description = "Retrieve Instructor")
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<InstructorDTO>> getInstructor(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            InstructorDTO instructorDTO = instructorServices.retrieveInstructorDTO(id);
+            return instructorDTO == null ? ResponseEntity.notFound().<InstructorDTO>build() : ResponseEntity.ok(instructorDTO);
+        }, requestExecutors.getPointLookups());
+    }
+
+    @Operation(description = "Retrieve Instructors page by page using a keyset cursor")
+    @GetMapping("/page")
+    public CompletableFuture<ResponseEntity<InstructorPageDTO>> getInstructorsPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                   @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Long after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(null));
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String eTag = listingETag(accept, acceptEncoding);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            List<InstructorDTO> content = instructorServices.retrieveInstructorsAfter(after, pageSize);
+            String nextCursor = content.size() < pageSize ? null
+                    : encodeCursor(content.get(content.size() - 1).getNumInstructor());
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(new InstructorPageDTO(content, nextCursor));
+        }, requestExecutors.getBulkReads());
+    }
+
+    @Operation(description = "Retrieve Instructors with their Courses page by page using a keyset cursor")
+    @GetMapping("/withCourses")
+    public CompletableFuture<ResponseEntity<InstructorWithCoursesPageDTO>> getInstructorsWithCourses(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                                                     @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Long after;
+        try {
+            after = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(null));
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String eTag = listingETag(accept, acceptEncoding);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            List<InstructorWithCoursesDTO> content = instructorServices.retrieveInstructorsWithCoursesAfter(after, pageSize);
+            String nextCursor = content.size() < pageSize ? null
+                    : encodeCursor(content.get(content.size() - 1).getNumInstructor());
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(new InstructorWithCoursesPageDTO(content, nextCursor));
+        }, requestExecutors.getBulkReads());
+    }
+
+    @Operation(description = "Stream all Instructors without loading them all in memory")
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllInstructors() {
+        ObjectWriter rowWriter = objectMapper.writerFor(InstructorDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                instructorServices.streamAllInstructors(instructorDTO -> {
+                    try {
+                        rowWriter.writeValue(generator, instructorDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @Operation(description = "Update Instructor")
@@ -63,31 +220,98 @@ public class InstructorRestController {
         return ResponseEntity.ok(convertToDTO(updatedInstructor));
     }
 
+    @Operation(description = "Partially update Instructor: only the fields sent are changed, provided the version still matches")
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchInstructor(@PathVariable Long id, @RequestBody InstructorPatchDTO patch) {
+        if (patch == null || patch.getVersion() == null || isBlank(patch.getFirstName()) || isBlank(patch.getLastName())) {
+            return ResponseEntity.badRequest().build();
+        }
+        long version = instructorServices.patchInstructor(id, patch);
+        return ResponseEntity.noContent().eTag("\"" + version + "\"").build();
+    }
+
     @Operation(description = "Assign Instructor to Course")
     @PostMapping("/{instructorId}/assign/{courseId}")
     public ResponseEntity<InstructorDTO> assignInstructorToCourse(@PathVariable("instructorId") Long instructorId, @PathVariable("courseId") Long courseId) {
-        Instructor instructor = instructorServices.retrieveInstructor(instructorId);
-        if (instructor == null) {
+        if (instructorServices.retrieveInstructorDTO(instructorId) == null) {
             return ResponseEntity.notFound().build();
         }
+        // Only the id: the service adds the course to the stored instructor
+        Instructor instructor = new Instructor();
+        instructor.setNumInstructor(instructorId);
         Instructor assignedInstructor = instructorServices.addInstructorAndAssignToCourse(instructor, courseId);
         return ResponseEntity.ok(convertToDTO(assignedInstructor));
     }
 
-    @Operation(description = "Get Instructors sorted by Seniority")
+    @Operation(description = "Assign many Instructors to Courses in one call")
+    @PostMapping("/assignments")
+    public ResponseEntity<BulkAssignmentResultDTO> assignInstructorsToCourses(@RequestBody List<InstructorCourseAssignmentDTO> assignments) {
+        if (assignments == null || assignments.stream().anyMatch(assignment -> assignment == null
+                || assignment.getNumInstructor() == null || assignment.getNumCourse() == null)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        BulkAssignmentResultDTO result = instructorBulkServices.assignInstructorsToCourses(assignments);
+        return result.isRejected() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+    }
+
+    @Operation(description = "Get Instructors with a hire date sorted by Seniority, optionally filtered and paged")
     @GetMapping("/sortedBySeniority")
-    public ResponseEntity<List<InstructorDTO>> getInstructorsSortedBySeniority() {
-        List<InstructorDTO> sortedInstructors = instructorServices.getInstructorsSortedBySeniority()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(sortedInstructors);
+    public CompletableFuture<ResponseEntity<List<InstructorDTO>>> getInstructorsSortedBySeniority(
+            @RequestParam(value = "hiredFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+            @RequestParam(value = "hiredTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Without paging parameters the whole (filtered) list is returned, as before
+        Pageable pageable = (page == null && size == null) ? Pageable.unpaged()
+                : PageRequest.of(page == null ? 0 : Math.max(page, 0),
+                Math.max(1, Math.min(size == null ? DEFAULT_PAGE_SIZE : size, MAX_PAGE_SIZE)));
+        String eTag = listingETag(accept, acceptEncoding);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Page<InstructorDTO> sortedPage = instructorServices.getInstructorsSortedBySeniority(hiredFrom, hiredTo, name, pageable);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header("X-Total-Count", String.valueOf(sortedPage.getTotalElements()))
+                    .body(sortedPage.getContent());
+        }, requestExecutors.getBulkReads());
+    }
+
+    @Operation(description = "Get the k most senior Instructors")
+    @GetMapping("/top")
+    public ResponseEntity<List<InstructorDTO>> getMostSeniorInstructors(@RequestParam(value = "k", defaultValue = "10") int k) {
+        if (k < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(instructorServices.getMostSeniorInstructors(Math.min(k, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(description = "Autocomplete Instructors by partial first or last name, accents and one typo ignored")
+    @GetMapping("/search")
+    public ResponseEntity<List<NameMatchDTO>> searchInstructors(@RequestParam("q") String query,
+                                                                @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(instructorServices.searchInstructors(query, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @Operation(description = "Instructors teaching more than one Course in the same time slot")
+    @GetMapping("/timeSlotConflicts")
+    public List<TimeSlotConflictDTO> findTimeSlotConflicts() {
+        return instructorServices.findTimeSlotConflicts();
     }
 
     @GetMapping("/yearsOfService/{id}")
-    public ResponseEntity<Integer> getYearsOfService(@PathVariable Long id) {
-        int yearsOfService = instructorServices.getYearsOfService(id);
-        return ResponseEntity.ok(yearsOfService);
+    public CompletableFuture<ResponseEntity<Integer>> getYearsOfService(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(instructorServices.getYearsOfService(id)),
+                requestExecutors.getPointLookups());
     }
 
     @DeleteMapping("/remove/{id}")
@@ -96,6 +320,122 @@ public class InstructorRestController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(description = "Remove Instructors by ids or by hire-date range")
+    @DeleteMapping
+    public ResponseEntity<Integer> removeInstructors(@RequestBody BulkDeleteRequestDTO request) {
+        if (request == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        boolean byIds = request.getIds() != null;
+        boolean byRange = request.getHiredFrom() != null || request.getHiredTo() != null;
+        if (byIds == byRange || (byIds && request.getIds().contains(null))) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        int deleted = byIds ? instructorBulkServices.removeInstructors(request.getIds())
+                : instructorBulkServices.removeInstructorsHiredBetween(request.getHiredFrom(), request.getHiredTo());
+        return ResponseEntity.ok(deleted);
+    }
+
+    // A full worker pool sheds load immediately instead of queueing requests without bound
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleRejectedExecution() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    // The instructor already teaches in that time slot: nothing was changed
+    @ExceptionHandler(InstructorDoubleBookedException.class)
+    public ResponseEntity<String> handleDoubleBooked(InstructorDoubleBookedException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    // A concurrent edit won: the client has to read the instructor again before retrying
+    @ExceptionHandler({OptimisticLockException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<String> handleConflict(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    // A field sent in a PATCH may not be blanked, a missing one is left as is
+    private static boolean isBlank(String value) {
+        return value != null && value.trim().isEmpty();
+    }
+
+    // Listings are tagged with the data set version, read before the query runs so that a write
+    // committed meanwhile only costs one more full response. Tomcat gzips large bodies, the
+    // coding is part of the tag to keep it a strong validator of the bytes sent, and so is the
+    // body format.
+    private String listingETag(String accept, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        return "\"" + dataVersion.current() + bodyFormat(accept) + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    // The format content negotiation will pick: the preferred of the accepted types, JSON for a wildcard
+    private static String bodyFormat(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (mediaType.isCompatibleWith(BinaryFormatsConfig.APPLICATION_SMILE)) {
+                return "-smile";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "-cbor";
+            }
+        }
+        return "";
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<T>> notModified(String eTag) {
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT).<T>build());
+    }
+
+    // Cursor tokens are the last seen id, Base64 encoded so clients treat them as opaque
+    private static String encodeCursor(Long numInstructor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(numInstructor).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    }
+
     // Convert InstructorDTO to Instructor entity
     private Instructor convertToEntity(InstructorDTO instructorDTO) {
         if (instructorDTO == null) {
@@ -119,6 +459,7 @@ public class InstructorRestController {
         dto.setFirstName(instructor.getFirstName());
         dto.setLastName(instructor.getLastName());
         dto.setDateOfHire(instructor.getDateOfHire());
+        dto.setVersion(instructor.getVersion());
         return dto;
     }
 }
@@ -0,0 +1,87 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Piste;
+import tn.esprit.spring.services.IPisteServices;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Tag(name = "\u26F7\uFE0F Piste Management")
+@RestController
+@RequestMapping("/piste")
+@RequiredArgsConstructor
+public class PisteRestController {
+
+    private final IPisteServices pisteServices;
+
+    @Operation(description = "Add Piste")
+    @PostMapping("/add")
+    public PisteDTO addPiste(@RequestBody PisteDTO pisteDTO) {
+        return toDTO(pisteServices.addPiste(toEntity(pisteDTO)));
+    }
+
+    @Operation(description = "Update Piste")
+    @PutMapping("/update")
+    public PisteDTO updatePiste(@RequestBody PisteDTO pisteDTO) {
+        return toDTO(pisteServices.updatePiste(toEntity(pisteDTO)));
+    }
+
+    @Operation(description = "Retrieve all Pistes")
+    @GetMapping("/all")
+    public List<PisteDTO> getAllPistes() {
+        return pisteServices.retrieveAllPistes().stream()
+                .map(PisteRestController::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Operation(description = "Retrieve Piste by Id")
+    @GetMapping("/get/{id-piste}")
+    public ResponseEntity<PisteDTO> getById(@PathVariable("id-piste") Long numPiste) {
+        Piste piste = pisteServices.retrievePiste(numPiste);
+        return piste == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(toDTO(piste));
+    }
+
+    @Operation(description = "Search Pistes by color, length and slope, served from memory. Bounds are inclusive")
+    @GetMapping("/search")
+    public List<PisteDTO> searchPistes(@RequestParam(required = false) Color color,
+                                       @RequestParam(required = false) Integer minLength,
+                                       @RequestParam(required = false) Integer maxLength,
+                                       @RequestParam(required = false) Integer minSlope,
+                                       @RequestParam(required = false) Integer maxSlope) {
+        return pisteServices.findPistes(color, minLength, maxLength, minSlope, maxSlope);
+    }
+
+    @Operation(description = "Delete Piste by Id")
+    @DeleteMapping("/delete/{id-piste}")
+    public void deleteById(@PathVariable("id-piste") Long numPiste) {
+        pisteServices.removePiste(numPiste);
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    private static Piste toEntity(PisteDTO dto) {
+        Piste piste = new Piste();
+        piste.setNumPiste(dto.getNumPiste());
+        piste.setNamePiste(dto.getNamePiste());
+        piste.setColor(dto.getColor());
+        piste.setLength(dto.getLength());
+        piste.setSlope(dto.getSlope());
+        return piste;
+    }
+
+    private static PisteDTO toDTO(Piste piste) {
+        return new PisteDTO(piste.getNumPiste(), piste.getNamePiste(), piste.getColor(), piste.getLength(), piste.getSlope());
+    }
+}
@@ -0,0 +1,89 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.RegistrationDTO;
+import tn.esprit.spring.dto.RegistrationIntakeDTO;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.services.CourseFullException;
+import tn.esprit.spring.services.IRegistrationIntakeServices;
+import tn.esprit.spring.services.IRegistrationServices;
+
+import javax.persistence.EntityNotFoundException;
+
+@Tag(name = "\uD83D\uDDD3\uFE0F Registration Management")
+@RestController
+@RequestMapping("/registration")
+@RequiredArgsConstructor
+public class RegistrationRestController {
+
+    private final IRegistrationServices registrationServices;
+    private final IRegistrationIntakeServices registrationIntakeServices;
+
+    @Operation(description = "Add Registration and Assign to Skier and Course")
+    @PutMapping("/addAndAssignToSkierAndCourse/{numSkier}/{numCourse}")
+    public ResponseEntity<RegistrationDTO> addAndAssignToSkierAndCourse(@RequestBody RegistrationDTO registrationDTO,
+                                                                        @PathVariable("numSkier") Long numSkier,
+                                                                        @PathVariable("numCourse") Long numCourse) {
+        if (registrationDTO == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Registration registration = new Registration();
+        registration.setNumWeek(registrationDTO.getNumWeek());
+        Registration saved = registrationServices.addRegistrationAndAssignToSkierAndCourse(registration, numSkier, numCourse);
+        return ResponseEntity.ok(new RegistrationDTO(saved.getNumRegistration(), saved.getNumWeek(), numSkier, numCourse));
+    }
+
+    @Operation(description = "Remaining seats of a Course in a given week")
+    @GetMapping("/remainingSeats/{numCourse}/{numWeek}")
+    public int getRemainingSeats(@PathVariable("numCourse") Long numCourse, @PathVariable("numWeek") int numWeek) {
+        return registrationServices.getRemainingSeats(numCourse, numWeek);
+    }
+
+    @Operation(description = "Submit a Registration, acknowledged once logged and stored with the next batch")
+    @PostMapping("/intake/{numSkier}/{numCourse}")
+    public ResponseEntity<RegistrationIntakeDTO> submitRegistration(@RequestBody RegistrationDTO registrationDTO,
+                                                                    @PathVariable("numSkier") Long numSkier,
+                                                                    @PathVariable("numCourse") Long numCourse) {
+        if (registrationDTO == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(registrationIntakeServices.submitRegistration(numSkier, numCourse, registrationDTO.getNumWeek()));
+    }
+
+    @Operation(description = "Status of a submitted Registration")
+    @GetMapping("/intake/{requestId}")
+    public ResponseEntity<RegistrationIntakeDTO> getRegistrationStatus(@PathVariable("requestId") String requestId) {
+        RegistrationIntakeDTO status = registrationIntakeServices.getRegistrationStatus(requestId);
+        if (status.getStatus() == RegistrationIntakeDTO.Status.UNKNOWN) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(status);
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @Operation(description = "Number of submitted Registrations not written yet")
+    @GetMapping("/intake/pending")
+    public int getPendingRegistrations() {
+        return registrationIntakeServices.getPendingRegistrations();
+    }
+
+    @ExceptionHandler(CourseFullException.class)
+    public ResponseEntity<String> handleCourseFull(CourseFullException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
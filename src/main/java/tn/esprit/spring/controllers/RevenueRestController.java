@@ -0,0 +1,49 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.RevenueCellDTO;
+import tn.esprit.spring.dto.RevenueCheckDTO;
+import tn.esprit.spring.dto.SubscriptionRevenueDTO;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.services.IRevenueServices;
+
+import java.util.List;
+
+@Tag(name = "\uD83D\uDCB0 Revenue Reports")
+@RestController
+@RequestMapping("/revenue")
+@RequiredArgsConstructor
+public class RevenueRestController {
+
+    private final IRevenueServices revenueServices;
+
+    @Operation(description = "Registration revenue by week, course type and support, optionally filtered")
+    @GetMapping("/registrations")
+    public List<RevenueCellDTO> getRegistrationRevenue(@RequestParam(required = false) Integer numWeek,
+                                                       @RequestParam(required = false) TypeCourse typeCourse,
+                                                       @RequestParam(required = false) Support support) {
+        return revenueServices.getRegistrationRevenue(numWeek, typeCourse, support);
+    }
+
+    @Operation(description = "Subscription revenue by subscription type")
+    @GetMapping("/subscriptions")
+    public List<SubscriptionRevenueDTO> getSubscriptionRevenue() {
+        return revenueServices.getSubscriptionRevenue();
+    }
+
+    @Operation(description = "Recompute the revenue aggregates from the database")
+    @PostMapping("/rebuild")
+    public void rebuildRevenue() {
+        revenueServices.rebuildRevenue();
+    }
+
+    @Operation(description = "Compare the revenue aggregates with the database, and repair them when asked")
+    @PostMapping("/check")
+    public RevenueCheckDTO checkRevenue(@RequestParam(defaultValue = "false") boolean repair) {
+        return revenueServices.checkRevenue(repair);
+    }
+}
@@ -0,0 +1,84 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.SkierDTO;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.services.ISkierServices;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+@Tag(name = "\uD83C\uDFBF Skier Management")
+@RestController
+@RequestMapping("/skier")
+@RequiredArgsConstructor
+public class SkierRestController {
+
+    // Autocomplete lists are short; larger requests are capped
+    static final int MAX_SEARCH_RESULTS = 50;
+
+    private final ISkierServices skierServices;
+
+    @Operation(description = "Add Skier")
+    @PostMapping("/add")
+    public ResponseEntity<SkierDTO> addSkier(@RequestBody SkierDTO skierDTO) {
+        if (skierDTO == null || skierDTO.getFirstName() == null || skierDTO.getLastName() == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        Skier skier = toEntity(skierDTO);
+        skier.setNumSkier(null);
+        return ResponseEntity.ok(toDTO(skierServices.addSkier(skier)));
+    }
+
+    @Operation(description = "Update the personal details of a Skier")
+    @PutMapping("/update")
+    public ResponseEntity<SkierDTO> updateSkier(@RequestBody SkierDTO skierDTO) {
+        if (skierDTO == null || skierDTO.getNumSkier() == null
+                || skierDTO.getFirstName() == null || skierDTO.getLastName() == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(toDTO(skierServices.updateSkier(toEntity(skierDTO))));
+    }
+
+    @Operation(description = "Retrieve Skier by Id")
+    @GetMapping("/get/{id-skier}")
+    public ResponseEntity<SkierDTO> getById(@PathVariable("id-skier") Long numSkier) {
+        Skier skier = skierServices.retrieveSkier(numSkier);
+        return skier == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(toDTO(skier));
+    }
+
+    @Operation(description = "Autocomplete Skiers by partial first or last name, accents and one typo ignored")
+    @GetMapping("/search")
+    public ResponseEntity<List<NameMatchDTO>> searchSkiers(@RequestParam("q") String query,
+                                                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(skierServices.searchSkiers(query, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleNotFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    private static Skier toEntity(SkierDTO dto) {
+        Skier skier = new Skier();
+        skier.setNumSkier(dto.getNumSkier());
+        skier.setFirstName(dto.getFirstName());
+        skier.setLastName(dto.getLastName());
+        skier.setDateOfBirth(dto.getDateOfBirth());
+        skier.setCity(dto.getCity());
+        return skier;
+    }
+
+    private static SkierDTO toDTO(Skier skier) {
+        return new SkierDTO(skier.getNumSkier(), skier.getFirstName(), skier.getLastName(), skier.getDateOfBirth(), skier.getCity());
+    }
+}
@@ -0,0 +1,27 @@
+package tn.esprit.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.spring.dto.SubscriptionExpiryRunDTO;
+import tn.esprit.spring.services.ISubscriptionServices;
+
+import java.time.LocalDate;
+
+@Tag(name = "\uD83C\uDFAB Subscription Management")
+@RestController
+@RequestMapping("/subscription")
+@RequiredArgsConstructor
+public class SubscriptionRestController {
+
+    private final ISubscriptionServices subscriptionServices;
+
+    @Operation(description = "Run the subscription expiry up to a day (today by default); days already processed are skipped")
+    @PostMapping("/expiries/run")
+    public SubscriptionExpiryRunDTO runExpiries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return subscriptionServices.processExpiries(day != null ? day : LocalDate.now());
+    }
+}
@@ -0,0 +1,34 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAssignmentResultDTO implements Serializable {
+
+    private int requested;
+
+    private int assigned;
+
+    private List<Long> unknownInstructors;
+
+    private List<Long> unknownCourses;
+
+    // Courses given to more than one instructor in the same request
+    private List<Long> conflictingCourses;
+
+    // Courses whose time slot is already taken by their new instructor, or given twice in the request
+    private List<Long> doubleBookedCourses;
+
+    public boolean isRejected() {
+        return !unknownInstructors.isEmpty() || !unknownCourses.isEmpty() || !conflictingCourses.isEmpty()
+                || !doubleBookedCourses.isEmpty();
+    }
+}
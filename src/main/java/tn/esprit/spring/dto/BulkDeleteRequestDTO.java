@@ -0,0 +1,25 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Either a list of ids or a hire-date range (one bound may be left open), not both.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteRequestDTO implements Serializable {
+
+    private List<Long> ids;
+
+    private LocalDate hiredFrom;
+
+    private LocalDate hiredTo;
+}
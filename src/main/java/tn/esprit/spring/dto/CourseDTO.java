@@ -0,0 +1,23 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CourseDTO implements Serializable {
+
+    private Long numCourse;
+    private int level;
+    private TypeCourse typeCourse;
+    private Support support;
+    private Float price;
+    private int timeSlot;
+}
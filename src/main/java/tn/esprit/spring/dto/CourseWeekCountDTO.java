@@ -0,0 +1,18 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CourseWeekCountDTO implements Serializable {
+
+    private Long numCourse;
+    private int numWeek;
+    private long count;
+}
@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExcursionScanDTO implements Serializable {
+
+    @NotNull(message = "Skier ID cannot be null")
+    private Long numSkier;
+
+    @NotNull(message = "Piste ID cannot be null")
+    private Long numPiste;
+}
@@ -0,0 +1,26 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportChunkResultDTO implements Serializable {
+
+    private int chunk;
+
+    private int received;
+
+    private int inserted;
+
+    // Rows skipped because they miss a first or last name, or because the whole chunk failed
+    private int rejected;
+
+    // Null when the chunk was committed
+    private String error;
+}
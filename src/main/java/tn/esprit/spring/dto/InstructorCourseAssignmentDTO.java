@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstructorCourseAssignmentDTO implements Serializable {
+
+    @NotNull(message = "Instructor ID cannot be null")
+    private Long numInstructor;
+
+    @NotNull(message = "Course ID cannot be null")
+    private Long numCourse;
+}
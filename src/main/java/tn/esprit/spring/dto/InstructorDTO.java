@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import tn.esprit.spring.entities.Seniority;
 
 @Getter
 @Setter
@@ -29,26 +30,26 @@ public class InstructorDTO implements Serializable {
 
     private int yearsOfService;
 
+    // Version to send back with a PATCH
+    private Long version;
+
     // Constructor to initialize and set yearsOfService
     public InstructorDTO(Long numInstructor, String firstName, String lastName, LocalDate dateOfHire) {
+        this(numInstructor, firstName, lastName, dateOfHire, null);
+    }
+
+    public InstructorDTO(Long numInstructor, String firstName, String lastName, LocalDate dateOfHire, Long version) {
         this.numInstructor = numInstructor;
         this.firstName = firstName;
         this.lastName = lastName;
         this.dateOfHire = dateOfHire;
-        this.yearsOfService = calculateYearsOfService();
-    }
-
-    // Method to calculate years of service based on the current date and date of hire
-    private int calculateYearsOfService() {
-        if (dateOfHire != null) {
-            return LocalDate.now().getYear() - this.dateOfHire.getYear();
-        }
-        return 0; // Return 0 if dateOfHire is null to avoid errors
+        this.yearsOfService = Seniority.yearsOfService(dateOfHire);
+        this.version = version;
     }
 
     // Set yearsOfService whenever dateOfHire is set
     public void setDateOfHire(LocalDate dateOfHire) {
         this.dateOfHire = dateOfHire;
-        this.yearsOfService = calculateYearsOfService();
+        this.yearsOfService = Seniority.yearsOfService(dateOfHire);
     }
 }
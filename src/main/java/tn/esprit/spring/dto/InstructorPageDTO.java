@@ -0,0 +1,20 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstructorPageDTO implements Serializable {
+
+    private List<InstructorDTO> content;
+
+    // Opaque token to pass back as "cursor" for the next page, null on the last page
+    private String nextCursor;
+}
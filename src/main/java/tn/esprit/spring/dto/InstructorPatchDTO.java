@@ -0,0 +1,29 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Body of {@code PATCH /instructor/{id}}: only the fields present are changed, a missing (null)
+ * field keeps its stored value. The version is the one last read by the client.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstructorPatchDTO implements Serializable {
+
+    private String firstName;
+
+    private String lastName;
+
+    private LocalDate dateOfHire;
+
+    @NotNull(message = "Version cannot be null")
+    private Long version;
+}
@@ -0,0 +1,22 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InstructorWithCoursesDTO implements Serializable {
+
+    private Long numInstructor;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfHire;
+    private List<CourseDTO> courses;
+}
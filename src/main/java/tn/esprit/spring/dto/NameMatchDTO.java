@@ -0,0 +1,19 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NameMatchDTO implements Serializable {
+
+    // numInstructor or numSkier, depending on the search
+    private Long id;
+    private String firstName;
+    private String lastName;
+}
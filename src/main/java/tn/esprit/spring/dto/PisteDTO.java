@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tn.esprit.spring.entities.Color;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PisteDTO implements Serializable {
+
+    private Long numPiste;
+    private String namePiste;
+    private Color color;
+    private int length;
+    private int slope;
+}
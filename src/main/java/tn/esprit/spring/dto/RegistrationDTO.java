@@ -0,0 +1,19 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegistrationDTO implements Serializable {
+
+    private Long numRegistration;
+    private int numWeek;
+    private Long numSkier;
+    private Long numCourse;
+}
@@ -0,0 +1,27 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegistrationIntakeDTO implements Serializable {
+
+    public enum Status {
+        // Durably logged, waiting for its batch
+        PENDING,
+        COMMITTED,
+        // Dropped when its batch was written, e.g. the skier was deleted meanwhile; the seat is given back
+        REJECTED,
+        // Never seen, or finished too long ago to be remembered and not in the registrations table
+        UNKNOWN
+    }
+
+    private String requestId;
+    private Status status;
+}
@@ -0,0 +1,23 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueCellDTO implements Serializable {
+
+    private int numWeek;
+    private TypeCourse typeCourse;
+    private Support support;
+    private long registrations;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,17 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueCheckDTO implements Serializable {
+
+    private int mismatchedCells;
+    private boolean repaired;
+}
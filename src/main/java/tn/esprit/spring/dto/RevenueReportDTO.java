@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueReportDTO implements Serializable {
+
+    // When the aggregates were copied; later writes show up in the next snapshot
+    private Instant takenAt;
+    private List<RevenueCellDTO> registrations;
+    private List<SubscriptionRevenueDTO> subscriptions;
+}
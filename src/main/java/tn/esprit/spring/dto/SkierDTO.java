@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SkierDTO implements Serializable {
+
+    private Long numSkier;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String city;
+}
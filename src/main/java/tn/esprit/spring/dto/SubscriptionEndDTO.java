@@ -0,0 +1,18 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionEndDTO implements Serializable {
+
+    private Long numSub;
+    private LocalDate endDate;
+}
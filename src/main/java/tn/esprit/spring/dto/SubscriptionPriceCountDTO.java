@@ -0,0 +1,19 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tn.esprit.spring.entities.TypeSubscription;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionPriceCountDTO implements Serializable {
+
+    private TypeSubscription typeSub;
+    private Float price;
+    private long count;
+}
@@ -0,0 +1,20 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tn.esprit.spring.entities.TypeSubscription;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionRevenueDTO implements Serializable {
+
+    private TypeSubscription typeSub;
+    private long subscriptions;
+    private BigDecimal revenue;
+}
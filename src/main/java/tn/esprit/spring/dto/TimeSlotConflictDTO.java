@@ -0,0 +1,21 @@
+package tn.esprit.spring.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimeSlotConflictDTO implements Serializable {
+
+    private Long numInstructor;
+    private int timeSlot;
+
+    // Two or more, in id order
+    private List<Long> courses;
+}
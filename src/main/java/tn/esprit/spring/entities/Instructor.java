@@ -2,19 +2,26 @@ package tn.esprit.spring.entities;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.time.Period;
 import java.util.Set;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Getter
 @Setter
@@ -22,25 +29,42 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor // Enables an all-args constructor for full initialization
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = @Index(name = "idx_instructor_date_of_hire", columnList = "dateOfHire")) // Backs the seniority ordering
 public class Instructor implements Serializable {
 
+	// Pooled ids (a table emulated sequence on MySQL) let Hibernate batch inserts, IDENTITY cannot
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "instructor_seq")
+	@GenericGenerator(name = "instructor_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+			parameters = {
+					@Parameter(name = "sequence_name", value = "instructor_seq"),
+					@Parameter(name = "increment_size", value = "50"),
+					@Parameter(name = "optimizer", value = "pooled-lo")
+			})
 	Long numInstructor;
 	String firstName;
 	String lastName;
 	LocalDate dateOfHire;
 
-	// Making "courses" private and transient
-	@OneToMany // Assuming Course has a field named 'instructor'
-	transient Set<Course> courses;
+	// Optimistic locking: every update is conditional on the version read by the client
+	@Version
+	long version;
+
+	// Unidirectional: the instructor_courses join table is also written in bulk by InstructorBulkServicesImpl,
+	// which evicts the cached collections itself
+	@OneToMany
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "instructor.courses")
+	@JoinTable(
+			name = "instructor_courses",
+			joinColumns = @JoinColumn(name = "numInstructor"),
+			inverseJoinColumns = @JoinColumn(name = "numCourse"))
+	Set<Course> courses;
 
 	/**
 	 * Calculates the years of service based on the date of hire.
 	 * Returns 0 if the date of hire is null.
-	 *  Returns 0 if the date of hire .
 	 */
 	public int getYearsOfService() {
-		return (dateOfHire != null) ? Period.between(dateOfHire, LocalDate.now()).getYears() : 0;
+		return Seniority.yearsOfService(dateOfHire);
 	}
 }
@@ -2,6 +2,7 @@ package tn.esprit.spring.entities;
 
 import java.io.Serializable;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -30,6 +31,11 @@ public class Registration implements Serializable {
 	Long numRegistration;
 	int numWeek;
 
+	// Request id of a registration written by the intake pipeline, replays insert it at most once
+	@JsonIgnore
+	@Column(length = 36, unique = true)
+	String intakeId;
+
 	@JsonIgnore
 	@ManyToOne
     Skier skier;
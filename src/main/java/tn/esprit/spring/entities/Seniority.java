@@ -0,0 +1,29 @@
+package tn.esprit.spring.entities;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * The one seniority rule: completed years between the hire date and today. Today is read from the
+ * system clock once per day, by SeniorityClock at midnight, not on every computation.
+ */
+public final class Seniority {
+
+    private static volatile LocalDate today = LocalDate.now();
+
+    private Seniority() {
+    }
+
+    public static LocalDate today() {
+        return today;
+    }
+
+    public static void advanceTo(LocalDate day) {
+        today = day;
+    }
+
+    // 0 without a hire date
+    public static int yearsOfService(LocalDate dateOfHire) {
+        return (dateOfHire != null) ? Period.between(dateOfHire, today).getYears() : 0;
+    }
+}
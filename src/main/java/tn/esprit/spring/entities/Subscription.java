@@ -19,6 +19,7 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @FieldDefaults(level=AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = @Index(name = "idx_subscription_end_date", columnList = "endDate"))
 public class Subscription implements Serializable {
 
 	@Id
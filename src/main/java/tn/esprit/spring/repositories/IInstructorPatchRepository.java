@@ -0,0 +1,13 @@
+package tn.esprit.spring.repositories;
+
+import tn.esprit.spring.dto.InstructorPatchDTO;
+
+public interface IInstructorPatchRepository {
+
+    /**
+     * Applies the fields present in the patch with a single UPDATE, conditional on the version.
+     *
+     * @return the number of rows updated: 0 when the instructor is gone or its version has moved on
+     */
+    int patch(Long numInstructor, InstructorPatchDTO patch);
+}
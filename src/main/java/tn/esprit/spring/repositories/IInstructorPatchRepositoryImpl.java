@@ -0,0 +1,42 @@
+package tn.esprit.spring.repositories;
+
+import lombok.RequiredArgsConstructor;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.entities.Instructor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+
+// Picked up by Spring Data as the implementation of the IInstructorPatchRepository fragment
+@RequiredArgsConstructor
+public class IInstructorPatchRepositoryImpl implements IInstructorPatchRepository {
+
+    private final EntityManager entityManager;
+
+    // The SET clause only lists the fields sent: no SELECT beforehand, no column rewritten with its old value,
+    // and a stale version simply matches no row
+    @Override
+    public int patch(Long numInstructor, InstructorPatchDTO patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Instructor> update = builder.createCriteriaUpdate(Instructor.class);
+        Root<Instructor> instructor = update.from(Instructor.class);
+        if (patch.getFirstName() != null) {
+            update.set(instructor.<String>get("firstName"), patch.getFirstName());
+        }
+        if (patch.getLastName() != null) {
+            update.set(instructor.<String>get("lastName"), patch.getLastName());
+        }
+        if (patch.getDateOfHire() != null) {
+            update.set(instructor.<LocalDate>get("dateOfHire"), patch.getDateOfHire());
+        }
+        Path<Long> version = instructor.get("version");
+        update.set(version, builder.sum(version, 1L));
+        update.where(builder.equal(instructor.get("numInstructor"), numInstructor),
+                builder.equal(version, patch.getVersion()));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
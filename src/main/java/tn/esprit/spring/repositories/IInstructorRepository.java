@@ -1,11 +1,137 @@
 package tn.esprit.spring.repositories;
 
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorTimeSlotDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
 import tn.esprit.spring.entities.Instructor;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
 
-public interface IInstructorRepository extends JpaRepository<Instructor, Long> {
 
+public interface IInstructorRepository extends JpaRepository<Instructor, Long>, IInstructorPatchRepository {
+
+    // Read paths select straight into the DTO: no managed entity, no dirty-checking snapshot
+    String INSTRUCTOR_DTO = "new tn.esprit.spring.dto.InstructorDTO(i.numInstructor, i.firstName, i.lastName, i.dateOfHire, i.version)";
+
+    // No seniority without a hire date: those instructors are left out rather than sorted last, since the
+    // dialect can only emulate NULLS LAST with an expression that defeats idx_instructor_date_of_hire
+    String SENIORITY_FILTER = " where i.dateOfHire is not null"
+            + " and (:hiredFrom is null or i.dateOfHire >= :hiredFrom)"
+            + " and (:hiredTo is null or i.dateOfHire <= :hiredTo)"
+            + " and (:name is null or lower(i.firstName) like :name or lower(i.lastName) like :name)";
+
+    String SENIORITY_ORDER = " order by i.dateOfHire asc, i.numInstructor asc";
+
+    // Most senior first, in index order
+    @Query(value = "select i from Instructor i" + SENIORITY_FILTER + SENIORITY_ORDER,
+            countQuery = "select count(i) from Instructor i" + SENIORITY_FILTER)
+    Page<Instructor> findBySeniority(@Param("hiredFrom") LocalDate hiredFrom,
+                                     @Param("hiredTo") LocalDate hiredTo,
+                                     @Param("name") String name,
+                                     Pageable pageable);
+
+    @Query(value = "select " + INSTRUCTOR_DTO + " from Instructor i" + SENIORITY_FILTER + SENIORITY_ORDER,
+            countQuery = "select count(i) from Instructor i" + SENIORITY_FILTER)
+    Page<InstructorDTO> findDTOsBySeniority(@Param("hiredFrom") LocalDate hiredFrom,
+                                            @Param("hiredTo") LocalDate hiredTo,
+                                            @Param("name") String name,
+                                            Pageable pageable);
+
+    @Query("select " + INSTRUCTOR_DTO + " from Instructor i")
+    List<InstructorDTO> findAllDTOs();
+
+    @Query("select new tn.esprit.spring.dto.NameMatchDTO(i.numInstructor, i.firstName, i.lastName) from Instructor i")
+    List<NameMatchDTO> findAllNames();
+
+    @Query("select " + INSTRUCTOR_DTO + " from Instructor i where i.numInstructor = :id")
+    Optional<InstructorDTO> findDTOById(@Param("id") Long numInstructor);
+
+    @Query("select i.numInstructor from Instructor i where i.numInstructor in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset (seek) page: the next instructors strictly after the given id
+    @Query("select " + INSTRUCTOR_DTO + " from Instructor i where i.numInstructor > :after order by i.numInstructor")
+    List<InstructorDTO> findDTOsAfter(@Param("after") Long numInstructor, Pageable pageable);
+
+    @Query("select i.numInstructor from Instructor i where i.numInstructor > :after order by i.numInstructor")
+    List<Long> findIdsAfter(@Param("after") Long numInstructor, Pageable pageable);
+
+    // Instructors and all their courses in one join; paging happens on the ids, a collection fetch cannot be limited.
+    // The distinct only collapses the joined rows in memory, it is not sent to the database
+    @EntityGraph(attributePaths = "courses")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct i from Instructor i where i.numInstructor in :ids order by i.numInstructor")
+    List<Instructor> findWithCoursesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Every row of instructor_courses with the time slot of its course, for the schedule index
+    @Query("select new tn.esprit.spring.dto.InstructorTimeSlotDTO(i.numInstructor, c.numCourse, c.timeSlot)"
+            + " from Instructor i join i.courses c")
+    List<InstructorTimeSlotDTO> findAllTimeSlots();
+
+    @Query("select i.numInstructor from Instructor i join i.courses c where c.numCourse = :course")
+    List<Long> findIdsByCourse(@Param("course") Long numCourse);
+
+    @Query("select i.numInstructor from Instructor i where i.dateOfHire between :hiredFrom and :hiredTo")
+    List<Long> findIdsHiredBetween(@Param("hiredFrom") LocalDate hiredFrom, @Param("hiredTo") LocalDate hiredTo);
+
+    // MySQL Connector/J only streams rows when the fetch size is Integer.MIN_VALUE
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select " + INSTRUCTOR_DTO + " from Instructor i order by i.numInstructor")
+    Stream<InstructorDTO> streamAllDTOs();
+
+    // Deletes bypass the entity lifecycle: the instructor_courses rows have to go first.
+    // The native ones name the table they touch, otherwise Hibernate empties every second-level cache region
+
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "instructor_courses"))
+    @Query(value = "delete from instructor_courses where num_instructor = :id", nativeQuery = true)
+    int deleteCourseLinks(@Param("id") Long numInstructor);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "instructor_courses"))
+    @Query(value = "delete from instructor_courses where num_course = :course", nativeQuery = true)
+    int deleteCourseLink(@Param("course") Long numCourse);
+
+    @Modifying
+    @Query("delete from Instructor i where i.numInstructor = :id")
+    int deleteByNumInstructor(@Param("id") Long numInstructor);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "instructor_courses"))
+    @Query(value = "delete from instructor_courses where num_instructor in (:ids)", nativeQuery = true)
+    int deleteCourseLinksByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Instructor i where i.numInstructor in :ids")
+    int deleteByNumInstructorIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "instructor_courses"))
+    @Query(value = "delete from instructor_courses where num_instructor in"
+            + " (select i.num_instructor from instructor i where i.date_of_hire between :hiredFrom and :hiredTo)",
+            nativeQuery = true)
+    int deleteCourseLinksHiredBetween(@Param("hiredFrom") LocalDate hiredFrom, @Param("hiredTo") LocalDate hiredTo);
+
+    @Modifying
+    @Query("delete from Instructor i where i.dateOfHire between :hiredFrom and :hiredTo")
+    int deleteHiredBetween(@Param("hiredFrom") LocalDate hiredFrom, @Param("hiredTo") LocalDate hiredTo);
 }
@@ -0,0 +1,22 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Piste;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+public interface IPisteRepository extends JpaRepository<Piste, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Piste> findAll();
+
+    @Query("select new tn.esprit.spring.dto.PisteDTO(p.numPiste, p.namePiste, p.color, p.length, p.slope) from Piste p")
+    List<PisteDTO> findAllDTOs();
+}
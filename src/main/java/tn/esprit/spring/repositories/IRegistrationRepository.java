@@ -0,0 +1,15 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.entities.Registration;
+
+import java.util.List;
+
+public interface IRegistrationRepository extends JpaRepository<Registration, Long> {
+
+    @Query("select new tn.esprit.spring.dto.CourseWeekCountDTO(r.course.numCourse, r.numWeek, count(r))"
+            + " from Registration r group by r.course.numCourse, r.numWeek")
+    List<CourseWeekCountDTO> countByCourseAndWeek();
+}
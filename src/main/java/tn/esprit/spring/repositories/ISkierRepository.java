@@ -0,0 +1,14 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Skier;
+
+import java.util.List;
+
+public interface ISkierRepository extends JpaRepository<Skier, Long> {
+
+    @Query("select new tn.esprit.spring.dto.NameMatchDTO(s.numSkier, s.firstName, s.lastName) from Skier s")
+    List<NameMatchDTO> findAllNames();
+}
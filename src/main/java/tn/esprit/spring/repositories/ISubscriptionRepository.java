@@ -0,0 +1,21 @@
+package tn.esprit.spring.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import tn.esprit.spring.dto.SubscriptionEndDTO;
+import tn.esprit.spring.dto.SubscriptionPriceCountDTO;
+import tn.esprit.spring.entities.Subscription;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ISubscriptionRepository extends JpaRepository<Subscription, Long> {
+
+    @Query("select new tn.esprit.spring.dto.SubscriptionEndDTO(s.numSub, s.endDate) from Subscription s where s.endDate >= :from")
+    List<SubscriptionEndDTO> findEndingFrom(@Param("from") LocalDate from);
+
+    @Query("select new tn.esprit.spring.dto.SubscriptionPriceCountDTO(s.typeSub, s.price, count(s))"
+            + " from Subscription s group by s.typeSub, s.price")
+    List<SubscriptionPriceCountDTO> countByTypeAndPrice();
+}
@@ -0,0 +1,123 @@
+package tn.esprit.spring.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory count of the seats taken per (course, week), seeded from the registrations table at startup.
+ * Each pair has its own counter, reserved with a compare-and-set, so signups for different courses
+ * or weeks never contend and signups for the same pair only retry a CAS instead of queueing on a lock.
+ * The counts are local to this instance: running several instances needs a shared store instead.
+ */
+@Component
+public class CourseCapacityLedger {
+
+    public static final int MAX_WEEK = 53;
+
+    // Weeks take the low 6 bits of a counter key, the course id the 57 bits above
+    private static final int WEEK_BITS = 6;
+    private static final long MAX_COURSE = Long.MAX_VALUE >>> WEEK_BITS;
+
+    private final ICourseRepository courseRepository;
+    private final IRegistrationRepository registrationRepository;
+    private final int collectiveCapacity;
+    private final int individualCapacity;
+
+    private final ConcurrentMap<Long, Integer> capacities = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicInteger> seatsTaken = new ConcurrentHashMap<>();
+
+    public CourseCapacityLedger(ICourseRepository courseRepository,
+                                IRegistrationRepository registrationRepository,
+                                @Value("${registration.capacity.collective:6}") int collectiveCapacity,
+                                @Value("${registration.capacity.individual:1}") int individualCapacity) {
+        this.courseRepository = courseRepository;
+        this.registrationRepository = registrationRepository;
+        this.collectiveCapacity = collectiveCapacity;
+        this.individualCapacity = individualCapacity;
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (Course course : courseRepository.findAll()) {
+            track(course);
+        }
+        for (CourseWeekCountDTO count : registrationRepository.countByCourseAndWeek()) {
+            // Rows no signup can create any more hold no seat a signup could compete for
+            if (fitsKey(count.getNumCourse(), count.getNumWeek())) {
+                counter(count.getNumCourse(), count.getNumWeek()).set((int) count.getCount());
+            }
+        }
+    }
+
+    public boolean isTracked(Long numCourse) {
+        return capacities.containsKey(numCourse);
+    }
+
+    // Courses created after startup have no registrations yet, their counters start at zero
+    public void track(Course course) {
+        capacities.put(course.getNumCourse(), capacityOf(course.getTypeCourse()));
+    }
+
+    public boolean tryReserve(Long numCourse, int numWeek) {
+        Integer capacity = capacities.get(numCourse);
+        if (capacity == null) {
+            return false;
+        }
+        AtomicInteger taken = counter(numCourse, numWeek);
+        int current;
+        do {
+            current = taken.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!taken.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release(Long numCourse, int numWeek) {
+        AtomicInteger taken = seatsTaken.get(key(numCourse, numWeek));
+        if (taken != null) {
+            taken.updateAndGet(current -> Math.max(0, current - 1));
+        }
+    }
+
+    public int remaining(Long numCourse, int numWeek) {
+        Integer capacity = capacities.get(numCourse);
+        if (capacity == null) {
+            return 0;
+        }
+        AtomicInteger taken = seatsTaken.get(key(numCourse, numWeek));
+        return Math.max(0, capacity - (taken == null ? 0 : taken.get()));
+    }
+
+    private int capacityOf(TypeCourse typeCourse) {
+        return typeCourse == TypeCourse.INDIVIDUAL ? individualCapacity : collectiveCapacity;
+    }
+
+    private AtomicInteger counter(Long numCourse, int numWeek) {
+        return seatsTaken.computeIfAbsent(key(numCourse, numWeek), k -> new AtomicInteger());
+    }
+
+    // Packs the pair into one long; out of range values would collide with another pair's counter
+    private static long key(Long numCourse, int numWeek) {
+        if (!fitsKey(numCourse, numWeek)) {
+            throw new IllegalArgumentException("No seat count for course " + numCourse + " in week " + numWeek
+                    + ", weeks go from 1 to " + MAX_WEEK);
+        }
+        return (numCourse << WEEK_BITS) | numWeek;
+    }
+
+    private static boolean fitsKey(Long numCourse, int numWeek) {
+        return numCourse != null && numCourse >= 0 && numCourse <= MAX_COURSE && numWeek >= 1 && numWeek <= MAX_WEEK;
+    }
+}
@@ -0,0 +1,12 @@
+package tn.esprit.spring.services;
+
+/**
+ * Thrown when a course has no seat left in the requested week. Rejections are a normal outcome
+ * on opening day, so no stack trace is captured.
+ */
+public class CourseFullException extends RuntimeException {
+
+    public CourseFullException(Long numCourse, int numWeek) {
+        super("Course " + numCourse + " is full for week " + numWeek, null, false, false);
+    }
+}
@@ -0,0 +1,127 @@
+package tn.esprit.spring.services;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Hierarchical timing wheel with a resolution of one day, holding (id, epoch day) entries.
+ * Days of the current 64-day span have one slot each, the next 63 spans one slot per span, and anything
+ * further sits in an overflow map keyed by span. Advancing a day only reads that day's slot; once per span
+ * the next span's entries move down a level. Not thread-safe.
+ */
+public class DayTimingWheel {
+
+    private static final int SHIFT = 6;
+    private static final int SLOTS = 1 << SHIFT;
+    private static final int MASK = SLOTS - 1;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long id, long day);
+    }
+
+    private final LongPairList[] days = newSlots();
+    private final LongPairList[] spans = newSlots();
+    private final TreeMap<Long, LongPairList> overflow = new TreeMap<>();
+    private long currentDay;
+    private int size;
+
+    public DayTimingWheel(long currentDay) {
+        this.currentDay = currentDay;
+    }
+
+    // The first day not yet fired
+    public long getCurrentDay() {
+        return currentDay;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Entries for a day already fired are due on the next advance
+    public void add(long id, long day) {
+        long due = Math.max(day, currentDay);
+        long span = due >> SHIFT;
+        long currentSpan = currentDay >> SHIFT;
+        if (span == currentSpan) {
+            days[(int) (due & MASK)].add(id, due);
+        } else if (span - currentSpan < SLOTS) {
+            spans[(int) (span & MASK)].add(id, due);
+        } else {
+            overflow.computeIfAbsent(span, k -> new LongPairList()).add(id, due);
+        }
+        size++;
+    }
+
+    /**
+     * Fires the entries of every day up to and including the given one, day by day.
+     */
+    public void advanceTo(long day, EntryConsumer consumer) {
+        while (currentDay <= day) {
+            LongPairList due = days[(int) (currentDay & MASK)];
+            for (int i = 0; i < due.size; i++) {
+                consumer.accept(due.ids[i], due.days[i]);
+            }
+            size -= due.size;
+            due.clear();
+            currentDay++;
+            if ((currentDay & MASK) == 0) {
+                cascade();
+            }
+        }
+    }
+
+    // Entering a new span: its entries move to the day slots and the span that just came in range leaves the overflow
+    private void cascade() {
+        long span = currentDay >> SHIFT;
+        LongPairList entering = spans[(int) (span & MASK)];
+        for (int i = 0; i < entering.size; i++) {
+            days[(int) (entering.days[i] & MASK)].add(entering.ids[i], entering.days[i]);
+        }
+        entering.clear();
+        long farthest = span + SLOTS - 1;
+        LongPairList far = overflow.remove(farthest);
+        if (far != null) {
+            LongPairList slot = spans[(int) (farthest & MASK)];
+            for (int i = 0; i < far.size; i++) {
+                slot.add(far.ids[i], far.days[i]);
+            }
+        }
+    }
+
+    private static LongPairList[] newSlots() {
+        LongPairList[] slots = new LongPairList[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new LongPairList();
+        }
+        return slots;
+    }
+
+    private static final class LongPairList {
+
+        private static final long[] EMPTY = new long[0];
+
+        long[] ids = EMPTY;
+        long[] days = EMPTY;
+        int size;
+
+        void add(long id, long day) {
+            if (size == ids.length) {
+                int capacity = Math.max(8, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                days = Arrays.copyOf(days, capacity);
+            }
+            ids[size] = id;
+            days[size] = day;
+            size++;
+        }
+
+        // Drops the arrays too, a slot is only reused 64 days later
+        void clear() {
+            ids = EMPTY;
+            days = EMPTY;
+            size = 0;
+        }
+    }
+}
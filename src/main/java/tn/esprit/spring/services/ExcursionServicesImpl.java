@@ -0,0 +1,245 @@
+package tn.esprit.spring.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.ExcursionScanDTO;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lift-gate scans are acknowledged once they are in the write-ahead log, then written to the excursion
+ * join table in batches by a single flusher thread, when enough scans are pending or on a timer.
+ * A scan already waiting for the next batch is not logged again.
+ * Concurrent requests share the log force, as in {@link RegistrationIntakeServicesImpl}: the first one to
+ * reach the log writes every scan queued so far, the others wait for that force. Segments left by a crash are replayed at startup; replaying rows that did reach the table is harmless
+ * because the insert ignores existing pairs.
+ */
+@Slf4j
+@Service
+public class ExcursionServicesImpl implements IExcursionServices {
+
+    // Join table of Skier.pistes; IGNORE skips pairs already stored and scans of unknown skiers or pistes
+    private static final String INSERT_EXCURSION_SQL = "insert ignore into excursion (num_skier, num_piste) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path walDirectory;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("excursionFlusher-"));
+
+    // Accepted and not yet written, whether logged already or waiting for the force
+    private final Set<Scan> unwritten = ConcurrentHashMap.newKeySet();
+
+    // Scans waiting for the next log force, guarded by queueLock
+    private final Object queueLock = new Object();
+    private List<Scan> unlogged = new ArrayList<>();
+    private CompletableFuture<Void> nextForce = new CompletableFuture<>();
+
+    // Guarded by logLock: a group is appended and handed to the flusher atomically with respect to rotation
+    private final Object logLock = new Object();
+    private Set<Scan> pending = new LinkedHashSet<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private boolean flushRequested;
+    // The last batch failed and its segments are sealed already: retrying it needs no new segment
+    private boolean retrying;
+    private WriteAheadLog wal;
+
+    public ExcursionServicesImpl(JdbcTemplate jdbcTemplate,
+                                 @Value("${excursion.ingest.wal-directory:wal}") String walDirectory,
+                                 @Value("${excursion.ingest.batch-size:1000}") int batchSize,
+                                 @Value("${excursion.ingest.flush-interval-ms:500}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walDirectory = Paths.get(walDirectory).toAbsolutePath();
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        synchronized (logLock) {
+            wal = new WriteAheadLog(walDirectory, "excursion", 2);
+            sealedSegments.addAll(wal.replay(record -> pending.add(new Scan(record[0], record[1]))));
+            unwritten.addAll(pending);
+        }
+        log.info("Excursion write-ahead log in {}", walDirectory);
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} excursion scans from the write-ahead log", pending.size());
+        }
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMillis * 10, TimeUnit.MILLISECONDS);
+        flush();
+        synchronized (logLock) {
+            wal.close();
+        }
+    }
+
+    @Override
+    public int recordScans(List<ExcursionScanDTO> scans) {
+        List<Scan> accepted = new ArrayList<>(scans.size());
+        for (ExcursionScanDTO dto : scans) {
+            Scan scan = new Scan(dto.getNumSkier(), dto.getNumPiste());
+            if (unwritten.add(scan)) {
+                accepted.add(scan);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            try {
+                log(accepted);
+            } catch (RuntimeException e) {
+                unwritten.removeAll(accepted);
+                throw e;
+            }
+        }
+        return accepted.size();
+    }
+
+    @Override
+    public int getPendingScans() {
+        return unwritten.size();
+    }
+
+    // Returns once the scans are forced to disk, by this thread or by the one that took their group
+    private void log(List<Scan> scans) {
+        CompletableFuture<Void> force;
+        synchronized (queueLock) {
+            unlogged.addAll(scans);
+            force = nextForce;
+        }
+        synchronized (logLock) {
+            if (!force.isDone()) {
+                List<Scan> group;
+                synchronized (queueLock) {
+                    group = unlogged;
+                    unlogged = new ArrayList<>();
+                    nextForce = new CompletableFuture<>();
+                }
+                List<long[]> records = new ArrayList<>(group.size());
+                for (Scan scan : group) {
+                    records.add(new long[]{scan.numSkier, scan.numPiste});
+                }
+                try {
+                    wal.append(records);
+                    pending.addAll(group);
+                    if (pending.size() >= batchSize && !flushRequested) {
+                        flushRequested = true;
+                        flusher.execute(this::flush);
+                    }
+                    force.complete(null);
+                } catch (IOException e) {
+                    force.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            force.join();
+        } catch (CompletionException e) {
+            throw new UncheckedIOException("Could not log the excursion scans", (IOException) e.getCause());
+        }
+    }
+
+    // Synchronized on the service itself, not on logLock: batches are written one at a time while intake goes on
+    public synchronized void flush() {
+        Set<Scan> batch;
+        List<Path> segments;
+        synchronized (logLock) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+            // Scans logged since the failure stay in the open segment; replaying them later is harmless
+            if (!retrying) {
+                try {
+                    sealedSegments.add(wal.rotate());
+                } catch (IOException e) {
+                    pending.addAll(batch);
+                    log.warn("Could not rotate the excursion write-ahead log", e);
+                    return;
+                }
+            }
+            segments = new ArrayList<>(sealedSegments);
+        }
+        try {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (Scan scan : batch) {
+                rows.add(new Object[]{scan.numSkier, scan.numPiste});
+            }
+            // Sent as multi-row inserts thanks to rewriteBatchedStatements
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_EXCURSION_SQL, rows.subList(from, Math.min(from + batchSize, rows.size())));
+            }
+        } catch (DataAccessException e) {
+            // The segments stay on disk and the scans go back into the next batch
+            synchronized (logLock) {
+                pending.addAll(batch);
+                retrying = true;
+            }
+            log.warn("Flushing {} excursion scans failed, will retry", batch.size(), e);
+            return;
+        }
+        synchronized (logLock) {
+            retrying = false;
+        }
+        unwritten.removeAll(batch);
+        try {
+            wal.discard(segments);
+            synchronized (logLock) {
+                sealedSegments.removeAll(segments);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete flushed excursion log segments", e);
+        }
+    }
+
+    private static final class Scan {
+
+        final long numSkier;
+        final long numPiste;
+
+        Scan(long numSkier, long numPiste) {
+            this.numSkier = numSkier;
+            this.numPiste = numPiste;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Scan)) {
+                return false;
+            }
+            Scan other = (Scan) o;
+            return numSkier == other.numSkier && numPiste == other.numPiste;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(numSkier) * 31 + Long.hashCode(numPiste);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.ExcursionScanDTO;
+
+import java.util.List;
+
+public interface IExcursionServices {
+
+
+    int recordScans(List<ExcursionScanDTO> scans);
+
+
+    int getPendingScans();
+}
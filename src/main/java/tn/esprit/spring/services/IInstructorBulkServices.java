@@ -0,0 +1,26 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.BulkAssignmentResultDTO;
+import tn.esprit.spring.dto.ImportChunkResultDTO;
+import tn.esprit.spring.dto.InstructorCourseAssignmentDTO;
+import tn.esprit.spring.entities.Instructor;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+public interface IInstructorBulkServices {
+
+
+    List<ImportChunkResultDTO> importInstructors(Iterator<Instructor> instructors);
+
+
+    BulkAssignmentResultDTO assignInstructorsToCourses(List<InstructorCourseAssignmentDTO> assignments);
+
+
+    int removeInstructors(Collection<Long> numInstructors);
+
+
+    int removeInstructorsHiredBetween(LocalDate hiredFrom, LocalDate hiredTo);
+}
@@ -1,8 +1,17 @@
 package tn.esprit.spring.services;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
 import tn.esprit.spring.entities.Instructor;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IInstructorServices {
 
@@ -13,12 +22,30 @@ public interface IInstructorServices {
     List<Instructor> retrieveAllInstructors();
 
 
+    List<InstructorDTO> retrieveAllInstructorDTOs();
+
+
+    List<InstructorDTO> retrieveInstructorsAfter(Long numInstructor, int size);
+
+
+    List<InstructorWithCoursesDTO> retrieveInstructorsWithCoursesAfter(Long numInstructor, int size);
+
+
+    void streamAllInstructors(Consumer<InstructorDTO> consumer);
+
+
     Instructor updateInstructor(Instructor instructor);
 
 
+    long patchInstructor(Long numInstructor, InstructorPatchDTO patch);
+
+
     Instructor retrieveInstructor(Long numInstructor);
 
 
+    InstructorDTO retrieveInstructorDTO(Long numInstructor);
+
+
     void removeInstructor(Long numInstructor);
 
 
@@ -28,5 +55,17 @@ public interface IInstructorServices {
     List<Instructor> getInstructorsSortedBySeniority();
 
 
+    Page<InstructorDTO> getInstructorsSortedBySeniority(LocalDate hiredFrom, LocalDate hiredTo, String name, Pageable pageable);
+
+
+    List<InstructorDTO> getMostSeniorInstructors(int k);
+
+
+    List<NameMatchDTO> searchInstructors(String query, int limit);
+
+
+    List<TimeSlotConflictDTO> findTimeSlotConflicts();
+
+
     int getYearsOfService(Long numInstructor);
 }
@@ -0,0 +1,28 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Piste;
+
+import java.util.List;
+
+public interface IPisteServices {
+
+
+    List<Piste> retrieveAllPistes();
+
+
+    Piste addPiste(Piste piste);
+
+
+    Piste updatePiste(Piste piste);
+
+
+    void removePiste(Long numPiste);
+
+
+    Piste retrievePiste(Long numPiste);
+
+
+    List<PisteDTO> findPistes(Color color, Integer minLength, Integer maxLength, Integer minSlope, Integer maxSlope);
+}
@@ -0,0 +1,15 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.RegistrationIntakeDTO;
+
+public interface IRegistrationIntakeServices {
+
+
+    RegistrationIntakeDTO submitRegistration(Long numSkier, Long numCourse, int numWeek);
+
+
+    RegistrationIntakeDTO getRegistrationStatus(String requestId);
+
+
+    int getPendingRegistrations();
+}
@@ -0,0 +1,12 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.entities.Registration;
+
+public interface IRegistrationServices {
+
+
+    Registration addRegistrationAndAssignToSkierAndCourse(Registration registration, Long numSkier, Long numCourse);
+
+
+    int getRemainingSeats(Long numCourse, int numWeek);
+}
@@ -0,0 +1,24 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.RevenueCellDTO;
+import tn.esprit.spring.dto.RevenueCheckDTO;
+import tn.esprit.spring.dto.SubscriptionRevenueDTO;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+
+import java.util.List;
+
+public interface IRevenueServices {
+
+
+    List<RevenueCellDTO> getRegistrationRevenue(Integer numWeek, TypeCourse typeCourse, Support support);
+
+
+    List<SubscriptionRevenueDTO> getSubscriptionRevenue();
+
+
+    void rebuildRevenue();
+
+
+    RevenueCheckDTO checkRevenue(boolean repair);
+}
@@ -0,0 +1,21 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Skier;
+
+import java.util.List;
+
+public interface ISkierServices {
+
+
+    Skier addSkier(Skier skier);
+
+
+    Skier updateSkier(Skier skier);
+
+
+    Skier retrieveSkier(Long numSkier);
+
+
+    List<NameMatchDTO> searchSkiers(String query, int limit);
+}
@@ -0,0 +1,11 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.dto.SubscriptionExpiryRunDTO;
+
+import java.time.LocalDate;
+
+public interface ISubscriptionServices {
+
+
+    SubscriptionExpiryRunDTO processExpiries(LocalDate day);
+}
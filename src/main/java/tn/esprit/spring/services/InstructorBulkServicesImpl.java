@@ -0,0 +1,281 @@
+package tn.esprit.spring.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.configs.CacheConfig;
+import tn.esprit.spring.configs.SecondLevelCacheConfig;
+import tn.esprit.spring.dto.BulkAssignmentResultDTO;
+import tn.esprit.spring.dto.ImportChunkResultDTO;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorCourseAssignmentDTO;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class InstructorBulkServicesImpl implements IInstructorBulkServices {
+
+    // Join table of Instructor.courses; num_course is unique since a course has a single instructor
+    private static final String UNASSIGN_COURSES_SQL =
+            "delete from instructor_courses where num_course in (:courses)";
+    private static final String ASSIGN_COURSE_SQL =
+            "insert into instructor_courses (num_instructor, num_course) values (:instructor, :course)";
+
+    // Open ends of a hire-date range, within the MySQL DATE bounds
+    private static final LocalDate EARLIEST_HIRE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_HIRE = LocalDate.of(9999, 12, 31);
+
+    private final IInstructorRepository instructorRepository;
+    private final ICourseRepository courseRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final InstructorDataVersion dataVersion;
+    private final SeniorityLeaderboard leaderboard;
+    private final InstructorScheduleIndex scheduleIndex;
+    private final InstructorNameIndex nameIndex;
+    private final int chunkSize;
+
+    public InstructorBulkServicesImpl(IInstructorRepository instructorRepository,
+                                      ICourseRepository courseRepository,
+                                      NamedParameterJdbcTemplate jdbcTemplate,
+                                      EntityManager entityManager,
+                                      PlatformTransactionManager transactionManager,
+                                      CacheManager cacheManager,
+                                      InstructorDataVersion dataVersion,
+                                      SeniorityLeaderboard leaderboard,
+                                      InstructorScheduleIndex scheduleIndex,
+                                      InstructorNameIndex nameIndex,
+                                      @Value("${instructor.import.chunk-size:500}") int chunkSize) {
+        this.instructorRepository = instructorRepository;
+        this.courseRepository = courseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.dataVersion = dataVersion;
+        this.leaderboard = leaderboard;
+        this.scheduleIndex = scheduleIndex;
+        this.nameIndex = nameIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<ImportChunkResultDTO> importInstructors(Iterator<Instructor> instructors) {
+        List<ImportChunkResultDTO> results = new ArrayList<>();
+        List<Instructor> chunk = new ArrayList<>(chunkSize);
+        int read = 0;
+        while (true) {
+            Instructor instructor;
+            try {
+                if (!instructors.hasNext()) {
+                    break;
+                }
+                instructor = instructors.next();
+            } catch (RuntimeException e) {
+                // The rows read so far are still imported, the rest of the input is dropped
+                if (!chunk.isEmpty()) {
+                    results.add(insertChunk(results.size(), chunk));
+                }
+                results.add(new ImportChunkResultDTO(results.size(), 0, 0, 0,
+                        "Unreadable input after " + read + " rows: " + e.getMessage()));
+                return results;
+            }
+            read++;
+            chunk.add(instructor);
+            if (chunk.size() == chunkSize) {
+                results.add(insertChunk(results.size(), chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.add(insertChunk(results.size(), chunk));
+        }
+        return results;
+    }
+
+    // One transaction per chunk: a failing chunk is rolled back alone and reported
+    private ImportChunkResultDTO insertChunk(int index, List<Instructor> chunk) {
+        List<Instructor> valid = new ArrayList<>(chunk.size());
+        for (Instructor instructor : chunk) {
+            if (instructor != null && instructor.getFirstName() != null && instructor.getLastName() != null) {
+                valid.add(instructor);
+            }
+        }
+        int rejected = chunk.size() - valid.size();
+        try {
+            Integer inserted = transactionTemplate.execute(status -> {
+                for (Instructor instructor : valid) {
+                    instructor.setNumInstructor(null);
+                    entityManager.persist(instructor);
+                }
+                entityManager.flush();
+                // Keep the persistence context from growing with the import
+                entityManager.clear();
+                return valid.size();
+            });
+            // Committed: the persisted instances kept their generated ids
+            for (Instructor instructor : valid) {
+                leaderboard.put(new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                        instructor.getLastName(), instructor.getDateOfHire(), instructor.getVersion()));
+                nameIndex.put(instructor.getNumInstructor(), instructor.getFirstName(), instructor.getLastName());
+            }
+            dataVersion.bump();
+            return new ImportChunkResultDTO(index, chunk.size(), inserted == null ? 0 : inserted, rejected, null);
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Instructor import chunk {} failed", index, e);
+            return new ImportChunkResultDTO(index, chunk.size(), 0, chunk.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public BulkAssignmentResultDTO assignInstructorsToCourses(List<InstructorCourseAssignmentDTO> assignments) {
+        if (assignments.isEmpty()) {
+            return new BulkAssignmentResultDTO(0, 0, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+        // course -> instructor, the last pair wins unless it names another instructor
+        Map<Long, Long> instructorByCourse = new LinkedHashMap<>();
+        Set<Long> conflictingCourses = new LinkedHashSet<>();
+        Set<Long> instructorIds = new LinkedHashSet<>();
+        for (InstructorCourseAssignmentDTO assignment : assignments) {
+            Long previous = instructorByCourse.put(assignment.getNumCourse(), assignment.getNumInstructor());
+            if (previous != null && !previous.equals(assignment.getNumInstructor())) {
+                conflictingCourses.add(assignment.getNumCourse());
+            }
+            instructorIds.add(assignment.getNumInstructor());
+        }
+
+        // One query per entity type validates every id of the request
+        List<Long> unknownInstructors = missingIds(instructorIds, instructorRepository.findExistingIds(instructorIds));
+        List<Long> unknownCourses = missingIds(instructorByCourse.keySet(),
+                courseRepository.findExistingIds(instructorByCourse.keySet()));
+        BulkAssignmentResultDTO result = new BulkAssignmentResultDTO(assignments.size(), 0,
+                unknownInstructors, unknownCourses, new ArrayList<>(conflictingCourses), new ArrayList<>());
+        if (result.isRejected()) {
+            return result;
+        }
+
+        // Checked and booked in memory; the booking is undone if this transaction rolls back
+        List<Long> untracked = scheduleIndex.untracked(instructorByCourse.keySet());
+        if (!untracked.isEmpty()) {
+            courseRepository.findAllById(untracked).forEach(scheduleIndex::track);
+        }
+        result.setDoubleBookedCourses(scheduleIndex.tryAssign(instructorByCourse));
+        if (result.isRejected()) {
+            return result;
+        }
+
+        // A course moves to its new instructor: drop its current join row, then insert all pairs in one batch
+        jdbcTemplate.update(UNASSIGN_COURSES_SQL, new MapSqlParameterSource("courses", instructorByCourse.keySet()));
+        SqlParameterSource[] rows = instructorByCourse.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("instructor", entry.getValue())
+                        .addValue("course", entry.getKey()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(ASSIGN_COURSE_SQL, rows);
+        evictCourseCollections();
+        dataVersion.bump();
+        result.setAssigned(rows.length);
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public int removeInstructors(Collection<Long> numInstructors) {
+        if (numInstructors.isEmpty()) {
+            return 0;
+        }
+        instructorRepository.deleteCourseLinksByIds(numInstructors);
+        int deleted = instructorRepository.deleteByNumInstructorIn(numInstructors);
+        // Like insertChunk, the caches and in-memory indexes only change once the deletes are committed:
+        // each of them defers its update to the commit, the cache manager is transaction-aware
+        evict(numInstructors);
+        leaderboard.removeAll(numInstructors);
+        scheduleIndex.removeInstructors(numInstructors);
+        nameIndex.removeAll(numInstructors);
+        dataVersion.bump();
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, allEntries = true)
+    public int removeInstructorsHiredBetween(LocalDate hiredFrom, LocalDate hiredTo) {
+        LocalDate from = (hiredFrom != null) ? hiredFrom : EARLIEST_HIRE;
+        LocalDate to = (hiredTo != null) ? hiredTo : LATEST_HIRE;
+        List<Long> removed = instructorRepository.findIdsHiredBetween(from, to);
+        instructorRepository.deleteCourseLinksHiredBetween(from, to);
+        int deleted = instructorRepository.deleteHiredBetween(from, to);
+        // Applied at commit, as in removeInstructors
+        leaderboard.removeHiredBetween(hiredFrom, hiredTo);
+        scheduleIndex.removeInstructors(removed);
+        nameIndex.removeAll(removed);
+        dataVersion.bump();
+        return deleted;
+    }
+
+    // The join rows change behind Hibernate's back, and the previous instructor of a moved course
+    // is not known here: drop every cached Instructor.courses now and once more after the commit,
+    // a reader running in between could have cached the old rows again
+    private void evictCourseCollections() {
+        org.hibernate.Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class);
+        secondLevelCache.evictCollectionData(SecondLevelCacheConfig.INSTRUCTOR_COURSES_ROLE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    secondLevelCache.evictCollectionData(SecondLevelCacheConfig.INSTRUCTOR_COURSES_ROLE);
+                }
+            });
+        }
+    }
+
+    private void evict(Collection<Long> numInstructors) {
+        for (String cacheName : new String[]{CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                numInstructors.forEach(cache::evict);
+            }
+        }
+    }
+
+    private static List<Long> missingIds(Set<Long> requested, Set<Long> existing) {
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            if (!existing.contains(id)) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+}
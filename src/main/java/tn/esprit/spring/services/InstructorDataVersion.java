@@ -0,0 +1,39 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamp of the instructor data set, bumped by every instructor write.
+ * <p>
+ * A write inside a transaction bumps the stamp only once it has committed: a reader that sees
+ * the new stamp is then sure to read the new rows, so a stamp never labels stale data. The
+ * epoch changes with every start, stamps handed out before a restart never match again.
+ */
+@Component
+public class InstructorDataVersion {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public String current() {
+        return epoch + "-" + version.get();
+    }
+
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package tn.esprit.spring.services;
+
+/**
+ * Thrown when a course would make its instructor teach two courses in the same time slot.
+ */
+public class InstructorDoubleBookedException extends RuntimeException {
+
+    public InstructorDoubleBookedException(Long numInstructor, Long numCourse) {
+        super("Instructor " + numInstructor + " already teaches in the time slot of course " + numCourse, null, false, false);
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.repositories.IInstructorRepository;
+
+/**
+ * Name autocomplete over instructors, kept up to date by the instructor write paths.
+ */
+@Component
+public class InstructorNameIndex extends NameSearchIndex {
+
+    public InstructorNameIndex(IInstructorRepository instructorRepository) {
+        super(instructorRepository::findAllNames);
+    }
+}
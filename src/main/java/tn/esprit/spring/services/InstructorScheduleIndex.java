@@ -0,0 +1,271 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.InstructorTimeSlotDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Time slots taught by each instructor, so an assignment is checked for double-booking without loading
+ * the instructor's courses. A course has a single time slot and no duration: an instructor's schedule is
+ * a sorted map from slot to the courses taught in it, and a conflict is a slot holding more than one.
+ * Seeded from instructor_courses at startup.
+ * <p>
+ * A checked assignment or course set takes its slots at once, so two concurrent requests cannot both book the same one,
+ * and gives them back if its transaction rolls back. Other changes are applied once committed, course
+ * writes included (see {@link tn.esprit.spring.configs.InstructorScheduleConfig}). Rows written before
+ * this check existed may still conflict; {@link #findConflicts} lists them.
+ */
+@Component
+public class InstructorScheduleIndex {
+
+    private final ICourseRepository courseRepository;
+    private final IInstructorRepository instructorRepository;
+
+    private final NavigableMap<Long, NavigableMap<Integer, Set<Long>>> scheduleByInstructor = new TreeMap<>();
+    private final Map<Long, Long> instructorByCourse = new HashMap<>();
+    private final Map<Long, Integer> slotByCourse = new HashMap<>();
+
+    public InstructorScheduleIndex(ICourseRepository courseRepository, IInstructorRepository instructorRepository) {
+        this.courseRepository = courseRepository;
+        this.instructorRepository = instructorRepository;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        scheduleByInstructor.clear();
+        instructorByCourse.clear();
+        slotByCourse.clear();
+        for (Course course : courseRepository.findAll()) {
+            slotByCourse.put(course.getNumCourse(), course.getTimeSlot());
+        }
+        for (InstructorTimeSlotDTO row : instructorRepository.findAllTimeSlots()) {
+            slotByCourse.put(row.getNumCourse(), row.getTimeSlot());
+            book(row.getNumInstructor(), row.getNumCourse());
+        }
+    }
+
+    // Courses created after startup are unknown until a caller loads them once
+    public synchronized List<Long> untracked(Collection<Long> numCourses) {
+        List<Long> untracked = new ArrayList<>();
+        for (Long numCourse : numCourses) {
+            if (!slotByCourse.containsKey(numCourse)) {
+                untracked.add(numCourse);
+            }
+        }
+        return untracked;
+    }
+
+    public synchronized void track(Course course) {
+        slotByCourse.putIfAbsent(course.getNumCourse(), course.getTimeSlot());
+    }
+
+    // Committed course writes, from InstructorScheduleConfig: a course moving to another slot takes its
+    // instructor's booking along
+    public synchronized void courseChanged(Course course) {
+        Long numInstructor = unbook(course.getNumCourse());
+        slotByCourse.put(course.getNumCourse(), course.getTimeSlot());
+        book(numInstructor, course.getNumCourse());
+    }
+
+    public synchronized void courseRemoved(Long numCourse) {
+        unbook(numCourse);
+        slotByCourse.remove(numCourse);
+    }
+
+    /**
+     * Books every course of the request (course to its new instructor) unless one would double-book its
+     * instructor, in which case nothing changes and the offending courses are returned. A course moving away
+     * in the same request frees its slot. O(log n) per course, n being the slots of the instructor.
+     */
+    public synchronized List<Long> tryAssign(Map<Long, Long> assignments) {
+        Set<Long> doubleBooked = new LinkedHashSet<>();
+        Map<Long, Map<Integer, Long>> requested = new HashMap<>();
+        for (Map.Entry<Long, Long> assignment : assignments.entrySet()) {
+            Long numCourse = assignment.getKey();
+            Long numInstructor = assignment.getValue();
+            Integer slot = slotByCourse.get(numCourse);
+            if (slot == null) {
+                continue;
+            }
+            Long sameSlot = requested.computeIfAbsent(numInstructor, key -> new HashMap<>()).putIfAbsent(slot, numCourse);
+            if (sameSlot != null) {
+                doubleBooked.add(sameSlot);
+                doubleBooked.add(numCourse);
+                continue;
+            }
+            for (Long booked : coursesAt(numInstructor, slot)) {
+                if (!assignments.containsKey(booked)) {
+                    doubleBooked.add(numCourse);
+                    break;
+                }
+            }
+        }
+        if (!doubleBooked.isEmpty()) {
+            return new ArrayList<>(doubleBooked);
+        }
+
+        Map<Long, Long> previous = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> assignment : assignments.entrySet()) {
+            previous.put(assignment.getKey(), book(assignment.getValue(), assignment.getKey()));
+        }
+        undoOnRollback(previous);
+        return new ArrayList<>();
+    }
+
+    /**
+     * The instructor teaches exactly these courses from now on, taken from their previous instructors,
+     * unless two of them share a time slot: then nothing changes and those courses are returned.
+     * Booked at once and given back on rollback, like {@link #tryAssign}.
+     */
+    public synchronized List<Long> tryReplaceCourses(Long numInstructor, Collection<Course> courses) {
+        Set<Long> doubleBooked = new LinkedHashSet<>();
+        Map<Integer, Long> requested = new HashMap<>();
+        Map<Long, Integer> slots = new LinkedHashMap<>();
+        for (Course course : (courses != null) ? courses : new ArrayList<Course>()) {
+            // A course already tracked keeps its stored slot, the one sent may be stale
+            Integer slot = slotByCourse.getOrDefault(course.getNumCourse(), course.getTimeSlot());
+            slots.put(course.getNumCourse(), slot);
+            Long sameSlot = requested.putIfAbsent(slot, course.getNumCourse());
+            if (sameSlot != null && !sameSlot.equals(course.getNumCourse())) {
+                doubleBooked.add(sameSlot);
+                doubleBooked.add(course.getNumCourse());
+            }
+        }
+        if (!doubleBooked.isEmpty()) {
+            return new ArrayList<>(doubleBooked);
+        }
+
+        Map<Long, Long> previous = new LinkedHashMap<>();
+        NavigableMap<Integer, Set<Long>> schedule = scheduleByInstructor.get(numInstructor);
+        if (schedule != null) {
+            for (Set<Long> numCourses : schedule.values()) {
+                numCourses.forEach(numCourse -> previous.put(numCourse, numInstructor));
+            }
+            previous.keySet().forEach(this::unbook);
+        }
+        slots.forEach((numCourse, slot) -> {
+            slotByCourse.putIfAbsent(numCourse, slot);
+            Long owner = book(numInstructor, numCourse);
+            previous.putIfAbsent(numCourse, owner);
+        });
+        undoOnRollback(previous);
+        return new ArrayList<>();
+    }
+
+    public void removeInstructors(Collection<Long> numInstructors) {
+        List<Long> removed = new ArrayList<>(numInstructors);
+        afterCommit(() -> {
+            for (Long numInstructor : removed) {
+                NavigableMap<Integer, Set<Long>> schedule = scheduleByInstructor.remove(numInstructor);
+                if (schedule != null) {
+                    schedule.values().forEach(numCourses -> numCourses.forEach(instructorByCourse::remove));
+                }
+            }
+        });
+    }
+
+    /**
+     * Every slot taught more than once, by instructor then slot. One pass over the index, no query.
+     */
+    public synchronized List<TimeSlotConflictDTO> findConflicts() {
+        List<TimeSlotConflictDTO> conflicts = new ArrayList<>();
+        for (Map.Entry<Long, NavigableMap<Integer, Set<Long>>> schedule : scheduleByInstructor.entrySet()) {
+            for (Map.Entry<Integer, Set<Long>> slot : schedule.getValue().entrySet()) {
+                if (slot.getValue().size() > 1) {
+                    conflicts.add(new TimeSlotConflictDTO(schedule.getKey(), slot.getKey(), new ArrayList<>(slot.getValue())));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    // Called with the lock held; moves the course away from its current instructor, returned
+    private Long book(Long numInstructor, Long numCourse) {
+        Long previous = unbook(numCourse);
+        Integer slot = slotByCourse.get(numCourse);
+        if (numInstructor != null && slot != null) {
+            scheduleByInstructor.computeIfAbsent(numInstructor, key -> new TreeMap<>())
+                    .computeIfAbsent(slot, key -> new TreeSet<>())
+                    .add(numCourse);
+            instructorByCourse.put(numCourse, numInstructor);
+        }
+        return previous;
+    }
+
+    private Long unbook(Long numCourse) {
+        Long numInstructor = instructorByCourse.remove(numCourse);
+        if (numInstructor == null) {
+            return null;
+        }
+        NavigableMap<Integer, Set<Long>> schedule = scheduleByInstructor.get(numInstructor);
+        Integer slot = slotByCourse.get(numCourse);
+        Set<Long> numCourses = schedule.get(slot);
+        numCourses.remove(numCourse);
+        if (numCourses.isEmpty()) {
+            schedule.remove(slot);
+            if (schedule.isEmpty()) {
+                scheduleByInstructor.remove(numInstructor);
+            }
+        }
+        return numInstructor;
+    }
+
+    private Set<Long> coursesAt(Long numInstructor, int slot) {
+        NavigableMap<Integer, Set<Long>> schedule = scheduleByInstructor.get(numInstructor);
+        Set<Long> numCourses = (schedule != null) ? schedule.get(slot) : null;
+        return (numCourses != null) ? numCourses : new TreeSet<>();
+    }
+
+    // Called with the lock held; previous maps each course touched to the instructor it had
+    private void undoOnRollback(Map<Long, Long> previous) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        undo(previous);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized void undo(Map<Long, Long> previous) {
+        previous.forEach((numCourse, numInstructor) -> book(numInstructor, numCourse));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked(change);
+                }
+            });
+        } else {
+            locked(change);
+        }
+    }
+
+    private synchronized void locked(Runnable change) {
+        change.run();
+    }
+}
@@ -1,16 +1,32 @@
 package tn.esprit.spring.services;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.configs.CacheConfig;
+import tn.esprit.spring.dto.CourseDTO;
 import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.Instructor;
 import tn.esprit.spring.repositories.ICourseRepository;
 import tn.esprit.spring.repositories.IInstructorRepository;
 
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
@@ -18,10 +34,22 @@ public class InstructorServicesImpl implements IInstructorServices {
 
     private final IInstructorRepository instructorRepository;
     private final ICourseRepository courseRepository;
+    private final InstructorDataVersion dataVersion;
+    private final SeniorityLeaderboard leaderboard;
+    private final InstructorScheduleIndex scheduleIndex;
+    private final InstructorNameIndex nameIndex;
 
+    // A new instructor has no id to book courses under before it is saved: a rejected course set rolls the insert back
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, key = "#result.numInstructor")
     public Instructor addInstructor(Instructor instructor) {
-        return instructorRepository.save(instructor);
+        Instructor saved = instructorRepository.save(instructor);
+        replaceCourses(saved.getNumInstructor(), instructor.getCourses());
+        leaderboard.put(convertToDTO(saved));
+        nameIndex.put(saved.getNumInstructor(), saved.getFirstName(), saved.getLastName());
+        dataVersion.bump();
+        return saved;
     }
 
     @Override
@@ -29,51 +57,224 @@ public class InstructorServicesImpl implements IInstructorServices {
         return instructorRepository.findAll();
     }
 
+    // Read-only transactions run with flush mode MANUAL, the projections never create entities
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InstructorDTO> retrieveAllInstructorDTOs() {
+        return instructorRepository.findAllDTOs();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InstructorDTO> retrieveInstructorsAfter(Long numInstructor, int size) {
+        long after = (numInstructor != null) ? numInstructor : 0L;
+        return instructorRepository.findDTOsAfter(after, PageRequest.of(0, size));
+    }
+
+    // Two queries whatever the page size: the ids of the page, then the instructors joined with their courses
     @Override
+    @Transactional(readOnly = true)
+    public List<InstructorWithCoursesDTO> retrieveInstructorsWithCoursesAfter(Long numInstructor, int size) {
+        long after = (numInstructor != null) ? numInstructor : 0L;
+        List<Long> ids = instructorRepository.findIdsAfter(after, PageRequest.of(0, size));
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return instructorRepository.findWithCoursesByIdIn(ids).stream()
+                .map(InstructorServicesImpl::toWithCoursesDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllInstructors(Consumer<InstructorDTO> consumer) {
+        try (Stream<InstructorDTO> instructors = instructorRepository.streamAllDTOs()) {
+            instructors.forEach(consumer);
+        }
+    }
+
+    // A full replacement keeps its last-writer-wins contract: it takes the stored version, loaded by the
+    // same SELECT the merge would issue. Conditional edits go through patchInstructor.
+    // Without a course set the stored one is kept; a course set sent is checked for double-booking first
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, key = "#result.numInstructor")
     public Instructor updateInstructor(Instructor instructor) {
-        return instructorRepository.save(instructor);
+        boolean keepCourses = instructor.getCourses() == null;
+        Long numInstructor = instructor.getNumInstructor();
+        if (numInstructor != null) {
+            if (!keepCourses) {
+                replaceCourses(numInstructor, instructor.getCourses());
+            }
+            instructorRepository.findById(numInstructor).ifPresent(current -> {
+                instructor.setVersion(current.getVersion());
+                if (keepCourses) {
+                    instructor.setCourses(current.getCourses());
+                }
+            });
+        }
+        Instructor saved = instructorRepository.save(instructor);
+        // Without an id, or with an unknown one, the instructor is inserted under a new id that takes the courses
+        if (!keepCourses && !saved.getNumInstructor().equals(numInstructor)) {
+            replaceCourses(saved.getNumInstructor(), instructor.getCourses());
+        }
+        leaderboard.put(convertToDTO(saved));
+        nameIndex.put(saved.getNumInstructor(), saved.getFirstName(), saved.getLastName());
+        dataVersion.bump();
+        return saved;
     }
 
+    // One conditional UPDATE and no read: only when it matches no row does a second query tell a missing
+    // instructor from a stale version
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, key = "#numInstructor")
+    public long patchInstructor(Long numInstructor, InstructorPatchDTO patch) {
+        if (instructorRepository.patch(numInstructor, patch) == 0) {
+            if (!instructorRepository.existsById(numInstructor)) {
+                throw new EntityNotFoundException("Instructor with ID " + numInstructor + " not found");
+            }
+            throw new OptimisticLockException("Instructor " + numInstructor + " was modified since version " + patch.getVersion());
+        }
+        leaderboard.patch(numInstructor, patch, patch.getVersion() + 1);
+        nameIndex.patch(numInstructor, patch.getFirstName(), patch.getLastName());
+        dataVersion.bump();
+        return patch.getVersion() + 1;
+    }
+
+    // Not cached: callers modify the entity and save it back. Reads go through retrieveInstructorDTO
     @Override
     public Instructor retrieveInstructor(Long numInstructor) {
         return instructorRepository.findById(numInstructor).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.INSTRUCTOR_VIEWS, key = "#numInstructor", unless = "#result == null")
+    public InstructorDTO retrieveInstructorDTO(Long numInstructor) {
+        return instructorRepository.findDTOById(numInstructor).orElse(null);
+    }
+
+    // Two statements, no SELECT: the affected row count tells whether the instructor existed
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, key = "#numInstructor")
     public void removeInstructor(Long numInstructor) {
-        if (instructorRepository.existsById(numInstructor)) {
-            instructorRepository.deleteById(numInstructor);
-        } else {
+        instructorRepository.deleteCourseLinks(numInstructor);
+        if (instructorRepository.deleteByNumInstructor(numInstructor) == 0) {
             throw new EntityNotFoundException("Instructor with ID " + numInstructor + " not found");
         }
+        leaderboard.remove(numInstructor);
+        scheduleIndex.removeInstructors(Collections.singletonList(numInstructor));
+        nameIndex.removeAll(Collections.singletonList(numInstructor));
+        dataVersion.bump();
     }
 
+    // An existing instructor keeps the courses it teaches and gains this one, taken from its previous
+    // instructor if need be; the other fields sent are written as by updateInstructor
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}, key = "#result.numInstructor")
     public Instructor addInstructorAndAssignToCourse(Instructor instructor, Long numCourse) {
         Course course = courseRepository.findById(numCourse)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with ID: " + numCourse));
 
-        Set<Course> courseSet = new HashSet<>();
-        courseSet.add(course);
-        instructor.setCourses(courseSet);
+        Instructor current = (instructor.getNumInstructor() != null)
+                ? instructorRepository.findById(instructor.getNumInstructor()).orElse(null) : null;
+        Instructor target = instructor;
+        if (current != null) {
+            if (instructor.getFirstName() != null) {
+                current.setFirstName(instructor.getFirstName());
+                current.setLastName(instructor.getLastName());
+                current.setDateOfHire(instructor.getDateOfHire());
+            }
+            target = current;
+        }
+        scheduleIndex.track(course);
+        // An existing instructor is checked before any write; a new one needs its id, its whole set is checked once saved
+        if (current != null) {
+            assign(current.getNumInstructor(), numCourse);
+        }
+        Set<Course> courses = (target.getCourses() != null) ? target.getCourses() : new HashSet<>();
+        if (!courses.contains(course)) {
+            // The join table allows one instructor per course
+            instructorRepository.deleteCourseLink(numCourse);
+            courses.add(course);
+        }
+        target.setCourses(courses);
 
-        return instructorRepository.save(instructor);
+        Instructor saved = instructorRepository.save(target);
+        if (current == null) {
+            replaceCourses(saved.getNumInstructor(), courses);
+        }
+        leaderboard.put(convertToDTO(saved));
+        nameIndex.put(saved.getNumInstructor(), saved.getFirstName(), saved.getLastName());
+        dataVersion.bump();
+        return saved;
     }
 
+    // An unknown instructor has 0 years of service; zeros are not cached, so a later insert is seen at once
     @Override
+    @Cacheable(cacheNames = CacheConfig.YEARS_OF_SERVICE, key = "#numInstructor", unless = "#result == 0")
     public int getYearsOfService(Long numInstructor) {
-        Instructor instructor = instructorRepository.findById(numInstructor).orElse(null);
-        if (instructor == null) {
-            return 0; // Return 0 if the instructor is not found
-        }
-        return instructor.getYearsOfService();
+        return instructorRepository.findById(numInstructor).map(Instructor::getYearsOfService).orElse(0);
     }
 
     @Override
     public List<Instructor> getInstructorsSortedBySeniority() {
-        return instructorRepository.findAll().stream()
-                .sorted(Comparator.comparing(Instructor::getYearsOfService).reversed())
+        return instructorRepository.findBySeniority(null, null, null, Pageable.unpaged()).getContent();
+    }
+
+    // Served from memory in O(k), whatever the number of instructors
+    @Override
+    public List<InstructorDTO> getMostSeniorInstructors(int k) {
+        return leaderboard.top(k);
+    }
+
+    // Served from memory, no query
+    @Override
+    public List<NameMatchDTO> searchInstructors(String query, int limit) {
+        return nameIndex.search(query, limit);
+    }
+
+    @Override
+    public List<TimeSlotConflictDTO> findTimeSlotConflicts() {
+        return scheduleIndex.findConflicts();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<InstructorDTO> getInstructorsSortedBySeniority(LocalDate hiredFrom, LocalDate hiredTo, String name, Pageable pageable) {
+        return instructorRepository.findDTOsBySeniority(hiredFrom, hiredTo, namePattern(name), pageable);
+    }
+
+    private static String namePattern(String name) {
+        return (name == null || name.trim().isEmpty()) ? null
+                : "%" + name.trim().toLowerCase(Locale.ROOT) + "%";
+    }
+
+    private static InstructorWithCoursesDTO toWithCoursesDTO(Instructor instructor) {
+        List<CourseDTO> courses = instructor.getCourses().stream()
+                .sorted(Comparator.comparing(Course::getNumCourse))
+                .map(course -> new CourseDTO(course.getNumCourse(), course.getLevel(), course.getTypeCourse(),
+                        course.getSupport(), course.getPrice(), course.getTimeSlot()))
                 .collect(Collectors.toList());
+        return new InstructorWithCoursesDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                instructor.getLastName(), instructor.getDateOfHire(), courses);
+    }
+
+    private void replaceCourses(Long numInstructor, Collection<Course> courses) {
+        List<Long> doubleBooked = scheduleIndex.tryReplaceCourses(numInstructor, courses);
+        if (!doubleBooked.isEmpty()) {
+            throw new InstructorDoubleBookedException(numInstructor, doubleBooked.get(0));
+        }
+    }
+
+    private void assign(Long numInstructor, Long numCourse) {
+        if (!scheduleIndex.tryAssign(Collections.singletonMap(numCourse, numInstructor)).isEmpty()) {
+            throw new InstructorDoubleBookedException(numInstructor, numCourse);
+        }
     }
 
     public InstructorDTO convertToDTO(Instructor instructor) {
@@ -85,6 +286,7 @@ public class InstructorServicesImpl implements IInstructorServices {
         dto.setFirstName(instructor.getFirstName());
         dto.setLastName(instructor.getLastName());
         dto.setDateOfHire(instructor.getDateOfHire());
+        dto.setVersion(instructor.getVersion());
         return dto;
     }
 
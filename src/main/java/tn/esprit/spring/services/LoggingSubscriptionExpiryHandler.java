@@ -0,0 +1,22 @@
+package tn.esprit.spring.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.entities.Subscription;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class LoggingSubscriptionExpiryHandler implements SubscriptionExpiryHandler {
+
+    @Override
+    public void onExpired(List<Subscription> subscriptions) {
+        log.info("{} subscriptions expired", subscriptions.size());
+    }
+
+    @Override
+    public void onRenewalReminder(List<Subscription> subscriptions) {
+        log.info("{} subscriptions are due for a renewal reminder", subscriptions.size());
+    }
+}
@@ -0,0 +1,318 @@
+package tn.esprit.spring.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.NameMatchDTO;
+
+import javax.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Autocomplete over first and last names, in memory. Names are folded to lowercase without accents
+ * ("Zoé" is found with "zoe") and split into words; every word of every person is a key of a skip list,
+ * so the people with a word starting with the query are one range scan away. When that range yields too
+ * few, the prefixes one edit away from the query (a wrong, missing, extra or swapped letter) are scanned
+ * as well, each one more O(log n) lookup; only letters that actually follow in some word are tried.
+ * <p>
+ * Results come in scan order: in the range of the query its exact word sorts first, and the words it
+ * starts follow alphabetically, whatever their length; one-edit matches come after. The longest word of
+ * the query drives the scan; every other one must start a word of the same person. A search reads at
+ * most {@link #MAX_SCANNED} keys, so a common driver word with rare other words can miss people.
+ * Writes inside a transaction are applied once committed. Writers are serialized, readers never lock and
+ * may miss a person whose name is being changed.
+ */
+public class NameSearchIndex {
+
+    // One edit on a shorter prefix would match nearly everyone
+    public static final int MIN_FUZZY_LENGTH = 3;
+
+    // Keys read per search, whatever the query: enough to fill any page, bounded when the other words filter
+    public static final int MAX_SCANNED = 1000;
+
+    private final Supplier<List<NameMatchDTO>> loader;
+
+    private final ConcurrentSkipListMap<Key, Person> byWord = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, Person> people = new ConcurrentHashMap<>();
+
+    public NameSearchIndex(Supplier<List<NameMatchDTO>> loader) {
+        this.loader = loader;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        byWord.clear();
+        people.clear();
+        loader.get().forEach(this::apply);
+    }
+
+    public int size() {
+        return people.size();
+    }
+
+    /**
+     * At most limit people matching the query, best first.
+     */
+    public List<NameMatchDTO> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+        String driver = words.get(0);
+        for (String word : words) {
+            if (word.length() > driver.length()) {
+                driver = word;
+            }
+        }
+        List<String> others = new ArrayList<>(words);
+        others.remove(driver);
+
+        Map<Long, NameMatchDTO> matches = new LinkedHashMap<>();
+        int budget = MAX_SCANNED - scan(driver, others, matches, limit, MAX_SCANNED);
+        if (matches.size() < limit && budget > 0 && driver.length() >= MIN_FUZZY_LENGTH) {
+            for (String variant : oneEditAway(driver)) {
+                budget -= scan(variant, others, matches, limit, budget);
+                if (matches.size() >= limit || budget <= 0) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    public void put(Long id, String firstName, String lastName) {
+        NameMatchDTO name = new NameMatchDTO(id, firstName, lastName);
+        afterCommit(() -> apply(name));
+    }
+
+    // A null name keeps the indexed one
+    public void patch(Long id, String firstName, String lastName) {
+        afterCommit(() -> {
+            Person current = people.get(id);
+            if (current != null) {
+                apply(new NameMatchDTO(id, firstName != null ? firstName : current.firstName,
+                        lastName != null ? lastName : current.lastName));
+            }
+        });
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        List<Long> removed = new ArrayList<>(ids);
+        afterCommit(() -> removed.forEach(this::unindex));
+    }
+
+    /**
+     * Lowercase words of the text, accents dropped. Letters of other scripts are kept as they are.
+     */
+    public static List<String> words(String... texts) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (char c : Normalizer.normalize(text, Normalizer.Form.NFD).toCharArray()) {
+                if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                    continue;
+                }
+                String folded = fold(Character.toLowerCase(c));
+                if (folded != null) {
+                    word.append(folded);
+                } else if (word.length() > 0) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+            }
+            if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    // Letters NFD does not decompose; null ends a word
+    private static String fold(char c) {
+        switch (c) {
+            case 'ß':
+                return "ss";
+            case 'æ':
+                return "ae";
+            case 'œ':
+                return "oe";
+            case 'ø':
+                return "o";
+            case 'ł':
+                return "l";
+            case 'đ':
+                return "d";
+            default:
+                return Character.isLetterOrDigit(c) ? String.valueOf(c) : null;
+        }
+    }
+
+    // Keys sort by word then id: the exact word comes first in its prefix range. Returns the keys read
+    private int scan(String prefix, List<String> others, Map<Long, NameMatchDTO> matches, int limit, int budget) {
+        int scanned = 0;
+        for (Map.Entry<Key, Person> entry : byWord.tailMap(new Key(prefix, Long.MIN_VALUE)).entrySet()) {
+            if (scanned == budget || !entry.getKey().word.startsWith(prefix)) {
+                return scanned;
+            }
+            scanned++;
+            Person person = entry.getValue();
+            if (!matches.containsKey(person.id) && person.hasWordsStartingWith(others)) {
+                matches.put(person.id, new NameMatchDTO(person.id, person.firstName, person.lastName));
+                if (matches.size() >= limit) {
+                    return scanned;
+                }
+            }
+        }
+        return scanned;
+    }
+
+    // Replacements and insertions only try the letters that follow the stem in some indexed word. An extra
+    // letter at the end needs no scan of its own, the range of the query already covers it
+    private List<String> oneEditAway(String word) {
+        Set<String> variants = new LinkedHashSet<>();
+        for (int i = 0; i < word.length(); i++) {
+            variants.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        for (int i = 0; i + 1 < word.length(); i++) {
+            variants.add(word.substring(0, i) + word.charAt(i + 1) + word.charAt(i) + word.substring(i + 2));
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String stem = word.substring(0, i);
+            for (char c : nextLetters(stem)) {
+                variants.add(stem + c + word.substring(i + 1));
+                variants.add(stem + c + word.substring(i));
+            }
+        }
+        variants.remove(word);
+        variants.remove("");
+        return new ArrayList<>(variants);
+    }
+
+    // Jumps from one distinct next letter to the following one, a lookup each
+    private List<Character> nextLetters(String stem) {
+        List<Character> letters = new ArrayList<>();
+        Key key = byWord.ceilingKey(new Key(stem, Long.MIN_VALUE));
+        while (key != null && key.word.startsWith(stem)) {
+            if (key.word.length() == stem.length()) {
+                key = byWord.higherKey(new Key(stem, Long.MAX_VALUE));
+                continue;
+            }
+            char letter = key.word.charAt(stem.length());
+            letters.add(letter);
+            if (letter == Character.MAX_VALUE) {
+                break;
+            }
+            key = byWord.ceilingKey(new Key(stem + (char) (letter + 1), Long.MIN_VALUE));
+        }
+        return letters;
+    }
+
+    // Called with the lock held
+    private void apply(NameMatchDTO name) {
+        unindex(name.getId());
+        Person person = new Person(name.getId(), name.getFirstName(), name.getLastName());
+        people.put(person.id, person);
+        for (String word : person.words) {
+            byWord.put(new Key(word, person.id), person);
+        }
+    }
+
+    private void unindex(Long id) {
+        Person previous = people.remove(id);
+        if (previous != null) {
+            for (String word : previous.words) {
+                byWord.remove(new Key(word, id));
+            }
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked(change);
+                }
+            });
+        } else {
+            locked(change);
+        }
+    }
+
+    private synchronized void locked(Runnable change) {
+        change.run();
+    }
+
+    private static final class Person {
+
+        final long id;
+        final String firstName;
+        final String lastName;
+        final Set<String> words;
+
+        Person(long id, String firstName, String lastName) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.words = new LinkedHashSet<>(words(firstName, lastName));
+        }
+
+        boolean hasWordsStartingWith(List<String> prefixes) {
+            for (String prefix : prefixes) {
+                boolean found = false;
+                for (String word : words) {
+                    if (word.startsWith(prefix)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Key implements Comparable<Key> {
+
+        final String word;
+        final long id;
+
+        Key(String word, long id) {
+            this.word = word;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byWord = word.compareTo(other.word);
+            return byWord != 0 ? byWord : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && compareTo((Key) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return word.hashCode() * 31 + Long.hashCode(id);
+        }
+    }
+}
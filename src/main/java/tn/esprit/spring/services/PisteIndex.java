@@ -0,0 +1,322 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.repositories.IPisteRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-optimized copy of the piste table for the lift-ops dashboard. Every piste owns a slot; each color
+ * is a bitset of slots, and length and slope are slot arrays sorted by value, so a combined query costs
+ * two binary searches per range plus a few bitset intersections. Writers derive a new snapshot from the
+ * current one and publish it in a single volatile write: readers never lock and never see half a change.
+ */
+@Component
+public class PisteIndex {
+
+    // Removed pistes leave their slot behind; once they are half of the slots, and at least this many, the
+    // snapshot is rebuilt from the live slots. The O(n log n) copy is paid once per n / 2 removals
+    private static final int MIN_DEAD_SLOTS = 64;
+
+    private final IPisteRepository pisteRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public PisteIndex(IPisteRepository pisteRepository) {
+        this.pisteRepository = pisteRepository;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        snapshot = Snapshot.of(pisteRepository.findAllDTOs());
+    }
+
+    public synchronized void put(PisteDTO piste) {
+        snapshot = snapshot.with(piste);
+    }
+
+    public synchronized void remove(Long numPiste) {
+        Snapshot next = snapshot.without(numPiste);
+        int dead = next.ids.length - next.slots.size();
+        snapshot = (dead >= MIN_DEAD_SLOTS && dead * 2 >= next.ids.length) ? next.compacted() : next;
+    }
+
+    public int size() {
+        return snapshot.live.cardinality();
+    }
+
+    // Slots held, those of removed pistes included
+    public int allocatedSlots() {
+        return snapshot.ids.length;
+    }
+
+    /**
+     * Pistes matching every given criterion; null arguments are not constrained and bounds are inclusive.
+     */
+    public List<PisteDTO> find(Color color, Integer minLength, Integer maxLength, Integer minSlope, Integer maxSlope) {
+        Snapshot current = snapshot;
+        BitSet matches = (BitSet) (color != null ? current.byColor[color.ordinal()] : current.live).clone();
+        if (minLength != null || maxLength != null) {
+            matches.and(current.byLength.select(minLength, maxLength));
+        }
+        if (minSlope != null || maxSlope != null) {
+            matches.and(current.bySlope.select(minSlope, maxSlope));
+        }
+        List<PisteDTO> result = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            result.add(current.toDTO(slot));
+        }
+        return result;
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), new long[0], new String[0], new Color[0],
+                new int[0], new int[0], new BitSet(), emptyColorSets(), SortedColumn.EMPTY, SortedColumn.EMPTY);
+
+        final Map<Long, Integer> slots;
+        final long[] ids;
+        final String[] names;
+        final Color[] colors;
+        final int[] lengths;
+        final int[] slopes;
+        final BitSet live;
+        final BitSet[] byColor;
+        final SortedColumn byLength;
+        final SortedColumn bySlope;
+
+        Snapshot(Map<Long, Integer> slots, long[] ids, String[] names, Color[] colors, int[] lengths, int[] slopes,
+                 BitSet live, BitSet[] byColor, SortedColumn byLength, SortedColumn bySlope) {
+            this.slots = slots;
+            this.ids = ids;
+            this.names = names;
+            this.colors = colors;
+            this.lengths = lengths;
+            this.slopes = slopes;
+            this.live = live;
+            this.byColor = byColor;
+            this.byLength = byLength;
+            this.bySlope = bySlope;
+        }
+
+        static Snapshot of(List<PisteDTO> pistes) {
+            int size = pistes.size();
+            Map<Long, Integer> slots = new HashMap<>(size * 2);
+            long[] ids = new long[size];
+            String[] names = new String[size];
+            Color[] colors = new Color[size];
+            int[] lengths = new int[size];
+            int[] slopes = new int[size];
+            BitSet live = new BitSet(size);
+            BitSet[] byColor = emptyColorSets();
+            for (int slot = 0; slot < size; slot++) {
+                PisteDTO piste = pistes.get(slot);
+                slots.put(piste.getNumPiste(), slot);
+                ids[slot] = piste.getNumPiste();
+                names[slot] = piste.getNamePiste();
+                colors[slot] = piste.getColor();
+                lengths[slot] = piste.getLength();
+                slopes[slot] = piste.getSlope();
+                live.set(slot);
+                if (piste.getColor() != null) {
+                    byColor[piste.getColor().ordinal()].set(slot);
+                }
+            }
+            return new Snapshot(slots, ids, names, colors, lengths, slopes, live, byColor,
+                    SortedColumn.of(lengths), SortedColumn.of(slopes));
+        }
+
+        Snapshot with(PisteDTO piste) {
+            Integer existing = slots.get(piste.getNumPiste());
+            int slot = existing != null ? existing : ids.length;
+            int size = Math.max(ids.length, slot + 1);
+
+            Map<Long, Integer> nextSlots = new HashMap<>(slots);
+            long[] nextIds = Arrays.copyOf(ids, size);
+            String[] nextNames = Arrays.copyOf(names, size);
+            Color[] nextColors = Arrays.copyOf(colors, size);
+            int[] nextLengths = Arrays.copyOf(lengths, size);
+            int[] nextSlopes = Arrays.copyOf(slopes, size);
+            BitSet nextLive = (BitSet) live.clone();
+            BitSet[] nextByColor = copyColorSets(byColor);
+            SortedColumn nextByLength = byLength;
+            SortedColumn nextBySlope = bySlope;
+
+            if (existing != null) {
+                nextByLength = nextByLength.without(slot, lengths[slot]);
+                nextBySlope = nextBySlope.without(slot, slopes[slot]);
+                if (colors[slot] != null) {
+                    nextByColor[colors[slot].ordinal()].clear(slot);
+                }
+            }
+            nextSlots.put(piste.getNumPiste(), slot);
+            nextIds[slot] = piste.getNumPiste();
+            nextNames[slot] = piste.getNamePiste();
+            nextColors[slot] = piste.getColor();
+            nextLengths[slot] = piste.getLength();
+            nextSlopes[slot] = piste.getSlope();
+            nextLive.set(slot);
+            if (piste.getColor() != null) {
+                nextByColor[piste.getColor().ordinal()].set(slot);
+            }
+            return new Snapshot(nextSlots, nextIds, nextNames, nextColors, nextLengths, nextSlopes, nextLive, nextByColor,
+                    nextByLength.with(slot, piste.getLength()), nextBySlope.with(slot, piste.getSlope()));
+        }
+
+        // The slot stays allocated but out of every set until the snapshot is compacted
+        Snapshot without(Long numPiste) {
+            Integer slot = slots.get(numPiste);
+            if (slot == null) {
+                return this;
+            }
+            Map<Long, Integer> nextSlots = new HashMap<>(slots);
+            nextSlots.remove(numPiste);
+            BitSet nextLive = (BitSet) live.clone();
+            nextLive.clear(slot);
+            BitSet[] nextByColor = copyColorSets(byColor);
+            if (colors[slot] != null) {
+                nextByColor[colors[slot].ordinal()].clear(slot);
+            }
+            return new Snapshot(nextSlots, ids, names, colors, lengths, slopes, nextLive, nextByColor,
+                    byLength.without(slot, lengths[slot]), bySlope.without(slot, slopes[slot]));
+        }
+
+        Snapshot compacted() {
+            List<PisteDTO> pistes = new ArrayList<>(slots.size());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                pistes.add(toDTO(slot));
+            }
+            return of(pistes);
+        }
+
+        PisteDTO toDTO(int slot) {
+            return new PisteDTO(ids[slot], names[slot], colors[slot], lengths[slot], slopes[slot]);
+        }
+
+        private static BitSet[] emptyColorSets() {
+            BitSet[] sets = new BitSet[Color.values().length];
+            for (int i = 0; i < sets.length; i++) {
+                sets[i] = new BitSet();
+            }
+            return sets;
+        }
+
+        private static BitSet[] copyColorSets(BitSet[] sets) {
+            BitSet[] copy = new BitSet[sets.length];
+            for (int i = 0; i < sets.length; i++) {
+                copy[i] = (BitSet) sets[i].clone();
+            }
+            return copy;
+        }
+    }
+
+    // Slots ordered by one attribute, with the attribute values alongside for binary search
+    private static final class SortedColumn {
+
+        static final SortedColumn EMPTY = new SortedColumn(new int[0], new int[0]);
+
+        final int[] values;
+        final int[] slots;
+
+        SortedColumn(int[] values, int[] slots) {
+            this.values = values;
+            this.slots = slots;
+        }
+
+        // Sorting value and slot packed in one long keeps the sort on primitives
+        static SortedColumn of(int[] column) {
+            long[] packed = new long[column.length];
+            for (int slot = 0; slot < column.length; slot++) {
+                packed[slot] = ((long) column[slot] << 32) | slot;
+            }
+            Arrays.sort(packed);
+            int[] values = new int[packed.length];
+            int[] slots = new int[packed.length];
+            for (int i = 0; i < packed.length; i++) {
+                values[i] = (int) (packed[i] >> 32);
+                slots[i] = (int) packed[i];
+            }
+            return new SortedColumn(values, slots);
+        }
+
+        SortedColumn with(int slot, int value) {
+            int position = upperBound(value);
+            return new SortedColumn(insert(values, position, value), insert(slots, position, slot));
+        }
+
+        SortedColumn without(int slot, int value) {
+            int position = lowerBound(value);
+            while (position < slots.length && slots[position] != slot) {
+                position++;
+            }
+            if (position == slots.length) {
+                return this;
+            }
+            return new SortedColumn(delete(values, position), delete(slots, position));
+        }
+
+        BitSet select(Integer min, Integer max) {
+            int from = (min != null) ? lowerBound(min) : 0;
+            int to = (max != null) ? upperBound(max) : values.length;
+            BitSet selected = new BitSet();
+            for (int i = from; i < to; i++) {
+                selected.set(slots[i]);
+            }
+            return selected;
+        }
+
+        // First position whose value is >= the given one
+        private int lowerBound(int value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose value is > the given one
+        private int upperBound(int value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int[] insert(int[] array, int position, int element) {
+            int[] result = new int[array.length + 1];
+            System.arraycopy(array, 0, result, 0, position);
+            result[position] = element;
+            System.arraycopy(array, position, result, position + 1, array.length - position);
+            return result;
+        }
+
+        private static int[] delete(int[] array, int position) {
+            int[] result = new int[array.length - 1];
+            System.arraycopy(array, 0, result, 0, position);
+            System.arraycopy(array, position + 1, result, position, array.length - position - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tn.esprit.spring.services;
+
+import lombok.AllArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Piste;
+import tn.esprit.spring.repositories.IPisteRepository;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+@AllArgsConstructor
+@Service
+public class PisteServicesImpl implements IPisteServices {
+
+    private final IPisteRepository pisteRepository;
+    private final PisteIndex pisteIndex;
+
+    @Override
+    public List<Piste> retrieveAllPistes() {
+        return pisteRepository.findAll();
+    }
+
+    // The index is patched once save() has committed, so it never holds a row the database rolled back
+
+    @Override
+    public Piste addPiste(Piste piste) {
+        Piste saved = pisteRepository.save(piste);
+        pisteIndex.put(toDTO(saved));
+        return saved;
+    }
+
+    @Override
+    public Piste updatePiste(Piste piste) {
+        Piste saved = pisteRepository.save(piste);
+        pisteIndex.put(toDTO(saved));
+        return saved;
+    }
+
+    @Override
+    public void removePiste(Long numPiste) {
+        try {
+            pisteRepository.deleteById(numPiste);
+        } catch (EmptyResultDataAccessException e) {
+            throw new EntityNotFoundException("Piste with ID " + numPiste + " not found");
+        }
+        pisteIndex.remove(numPiste);
+    }
+
+    @Override
+    public Piste retrievePiste(Long numPiste) {
+        return pisteRepository.findById(numPiste).orElse(null);
+    }
+
+    @Override
+    public List<PisteDTO> findPistes(Color color, Integer minLength, Integer maxLength, Integer minSlope, Integer maxSlope) {
+        return pisteIndex.find(color, minLength, maxLength, minSlope, maxSlope);
+    }
+
+    private static PisteDTO toDTO(Piste piste) {
+        return new PisteDTO(piste.getNumPiste(), piste.getNamePiste(), piste.getColor(), piste.getLength(), piste.getSlope());
+    }
+}
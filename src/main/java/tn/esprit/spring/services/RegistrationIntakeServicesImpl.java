@@ -0,0 +1,382 @@
+package tn.esprit.spring.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.RegistrationIntakeDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration intake for signup bursts. A request takes its seat in the capacity ledger, is appended
+ * to the write-ahead log and acknowledged; a single flusher thread then writes the pending requests
+ * as multi-row inserts, when enough are pending or on a timer, so the database commits once per batch
+ * instead of once per signup.
+ * <p>
+ * Concurrent requests share the log force as well: the first one to reach the log writes every request
+ * queued so far, the others wait for that force. Segments left by a crash are replayed at startup; each
+ * row carries its request id, unique in the table, so a request stored before the crash is not stored twice.
+ */
+@Slf4j
+@Service
+public class RegistrationIntakeServicesImpl implements IRegistrationIntakeServices {
+
+    // IGNORE skips a request already stored and, on MySQL, a row whose skier or course is gone meanwhile
+    private static final String INSERT_REGISTRATION_SQL = "insert ignore into registration"
+            + " (intake_id, num_week, skier_num_skier, course_num_course) values (?, ?, ?, ?)";
+    private static final String STORED_INTAKE_IDS_SQL = "select intake_id from registration where intake_id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ISkierRepository skierRepository;
+    private final ICourseRepository courseRepository;
+    private final CourseCapacityLedger capacityLedger;
+    private final RevenueAggregates revenueAggregates;
+    private final Path walDirectory;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("registrationFlusher-"));
+
+    // Requests waiting for the next log force, guarded by queueLock
+    private final Object queueLock = new Object();
+    private List<Request> unlogged = new ArrayList<>();
+    private CompletableFuture<Void> nextForce = new CompletableFuture<>();
+
+    // Guarded by logLock: a group is appended and handed to the flusher atomically with respect to
+    // rotation, so a sealed segment only holds requests of the batches taken before it was sealed
+    private final Object logLock = new Object();
+    private List<Request> pending = new ArrayList<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private boolean flushRequested;
+    // The last batch failed and its segments are sealed already: retrying it needs no new segment
+    private boolean retrying;
+    private WriteAheadLog wal;
+
+    // Acknowledged and not yet written, then the outcome for a while
+    private final ConcurrentMap<UUID, Request> inFlight = new ConcurrentHashMap<>();
+    private final Cache<UUID, RegistrationIntakeDTO.Status> outcomes;
+
+    public RegistrationIntakeServicesImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                          ISkierRepository skierRepository,
+                                          ICourseRepository courseRepository,
+                                          CourseCapacityLedger capacityLedger,
+                                          RevenueAggregates revenueAggregates,
+                                          @Value("${registration.intake.wal-directory:wal}") String walDirectory,
+                                          @Value("${registration.intake.batch-size:500}") int batchSize,
+                                          @Value("${registration.intake.flush-interval-ms:20}") long flushIntervalMillis,
+                                          @Value("${registration.intake.status-retention-minutes:60}") long statusRetentionMinutes,
+                                          @Value("${registration.intake.status-max-entries:100000}") long statusMaxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.skierRepository = skierRepository;
+        this.courseRepository = courseRepository;
+        this.capacityLedger = capacityLedger;
+        this.revenueAggregates = revenueAggregates;
+        this.walDirectory = Paths.get(walDirectory).toAbsolutePath();
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(statusRetentionMinutes))
+                .maximumSize(statusMaxEntries)
+                .build();
+    }
+
+    // The ledger is seeded before this runs, so the seats of the requests replayed here come on top
+    @PostConstruct
+    public void start() throws IOException {
+        List<Request> replayed = new ArrayList<>();
+        synchronized (logLock) {
+            wal = new WriteAheadLog(walDirectory, "registration", 5);
+            sealedSegments.addAll(wal.replay(record -> replayed.add(Request.of(record))));
+        }
+        log.info("Registration write-ahead log in {}", walDirectory);
+        if (!replayed.isEmpty()) {
+            // A crash between an insert and the discard of its segments leaves requests already stored and counted
+            Set<UUID> stored = storedIds(replayed);
+            synchronized (logLock) {
+                for (Request request : replayed) {
+                    if (stored.contains(request.id)) {
+                        outcomes.put(request.id, RegistrationIntakeDTO.Status.COMMITTED);
+                    } else if (capacityLedger.tryReserve(request.numCourse, request.numWeek)) {
+                        inFlight.put(request.id, request);
+                        pending.add(request);
+                    } else {
+                        outcomes.put(request.id, RegistrationIntakeDTO.Status.REJECTED);
+                    }
+                }
+                log.info("Replayed {} registration requests from the write-ahead log, {} still to write",
+                        replayed.size(), pending.size());
+            }
+        }
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(Math.max(flushIntervalMillis * 10, 1000), TimeUnit.MILLISECONDS);
+        flush();
+        synchronized (logLock) {
+            wal.close();
+        }
+    }
+
+    // Validation reads only, no commit: the seat is taken in memory and the request logged locally
+    @Override
+    public RegistrationIntakeDTO submitRegistration(Long numSkier, Long numCourse, int numWeek) {
+        if (numWeek < 1 || numWeek > CourseCapacityLedger.MAX_WEEK) {
+            throw new IllegalArgumentException("Week must be between 1 and " + CourseCapacityLedger.MAX_WEEK);
+        }
+        if (!capacityLedger.isTracked(numCourse)) {
+            Course course = courseRepository.findById(numCourse)
+                    .orElseThrow(() -> new EntityNotFoundException("Course with ID " + numCourse + " not found"));
+            capacityLedger.track(course);
+        }
+        if (!skierRepository.existsById(numSkier)) {
+            throw new EntityNotFoundException("Skier with ID " + numSkier + " not found");
+        }
+        if (!capacityLedger.tryReserve(numCourse, numWeek)) {
+            throw new CourseFullException(numCourse, numWeek);
+        }
+        Request request = new Request(UUID.randomUUID(), numSkier, numCourse, numWeek);
+        try {
+            log(request);
+        } catch (RuntimeException e) {
+            capacityLedger.release(numCourse, numWeek);
+            throw e;
+        }
+        return new RegistrationIntakeDTO(request.id.toString(), RegistrationIntakeDTO.Status.PENDING);
+    }
+
+    @Override
+    public RegistrationIntakeDTO getRegistrationStatus(String requestId) {
+        UUID id = UUID.fromString(requestId);
+        RegistrationIntakeDTO.Status status;
+        if (inFlight.containsKey(id)) {
+            status = RegistrationIntakeDTO.Status.PENDING;
+        } else {
+            status = outcomes.getIfPresent(id);
+            if (status == null) {
+                status = storedIds(Collections.singletonList(id)).isEmpty()
+                        ? RegistrationIntakeDTO.Status.UNKNOWN : RegistrationIntakeDTO.Status.COMMITTED;
+            }
+        }
+        return new RegistrationIntakeDTO(requestId, status);
+    }
+
+    @Override
+    public int getPendingRegistrations() {
+        return inFlight.size();
+    }
+
+    // Returns once the request is forced to disk, by this thread or by the one that took its group
+    private void log(Request request) {
+        CompletableFuture<Void> force;
+        synchronized (queueLock) {
+            unlogged.add(request);
+            force = nextForce;
+        }
+        synchronized (logLock) {
+            if (!force.isDone()) {
+                List<Request> group;
+                synchronized (queueLock) {
+                    group = unlogged;
+                    unlogged = new ArrayList<>();
+                    nextForce = new CompletableFuture<>();
+                }
+                List<long[]> records = new ArrayList<>(group.size());
+                for (Request queued : group) {
+                    records.add(queued.toRecord());
+                }
+                try {
+                    wal.append(records);
+                    for (Request queued : group) {
+                        inFlight.put(queued.id, queued);
+                    }
+                    pending.addAll(group);
+                    if (pending.size() >= batchSize && !flushRequested) {
+                        flushRequested = true;
+                        flusher.execute(this::flush);
+                    }
+                    force.complete(null);
+                } catch (IOException e) {
+                    force.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            force.join();
+        } catch (CompletionException e) {
+            throw new UncheckedIOException("Could not log the registration request", (IOException) e.getCause());
+        }
+    }
+
+    // Synchronized on the service itself, not on logLock: batches are written one at a time while intake goes on
+    public synchronized void flush() {
+        List<Request> batch;
+        List<Path> segments;
+        synchronized (logLock) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            // Requests logged since the failure stay in the open segment; replaying them later is harmless
+            if (!retrying) {
+                try {
+                    sealedSegments.add(wal.rotate());
+                } catch (IOException e) {
+                    pending.addAll(batch);
+                    log.warn("Could not rotate the registration write-ahead log", e);
+                    return;
+                }
+            }
+            segments = new ArrayList<>(sealedSegments);
+        }
+        Set<UUID> stored;
+        try {
+            stored = insert(batch);
+        } catch (DataAccessException e) {
+            // The segments stay on disk and the requests go back into the next batch
+            synchronized (logLock) {
+                pending.addAll(batch);
+                retrying = true;
+            }
+            log.warn("Writing {} registrations failed, will retry", batch.size(), e);
+            return;
+        }
+        synchronized (logLock) {
+            retrying = false;
+        }
+        for (Request request : batch) {
+            if (stored.contains(request.id)) {
+                // Written over JDBC, out of sight of the Hibernate listeners that feed the revenue
+                revenueAggregates.registrationAdded(request.numCourse, request.numWeek);
+                outcomes.put(request.id, RegistrationIntakeDTO.Status.COMMITTED);
+            } else {
+                capacityLedger.release(request.numCourse, request.numWeek);
+                outcomes.put(request.id, RegistrationIntakeDTO.Status.REJECTED);
+            }
+            inFlight.remove(request.id);
+        }
+        try {
+            wal.discard(segments);
+            synchronized (logLock) {
+                sealedSegments.removeAll(segments);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete written registration log segments", e);
+        }
+    }
+
+    // One multi-row insert per chunk thanks to rewriteBatchedStatements; returns the requests now stored
+    private Set<UUID> insert(List<Request> batch) {
+        JdbcOperations jdbcOperations = jdbcTemplate.getJdbcOperations();
+        Set<UUID> stored = new HashSet<>();
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<Request> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Request request : chunk) {
+                rows.add(new Object[]{request.id.toString(), request.numWeek, request.numSkier, request.numCourse});
+            }
+            int[] counts;
+            try {
+                counts = jdbcOperations.batchUpdate(INSERT_REGISTRATION_SQL, rows);
+            } catch (DataIntegrityViolationException e) {
+                // Where IGNORE does not cover foreign keys one bad row fails the chunk: single out the bad rows
+                counts = new int[rows.size()];
+                for (int i = 0; i < rows.size(); i++) {
+                    try {
+                        counts[i] = jdbcOperations.update(INSERT_REGISTRATION_SQL, rows.get(i));
+                    } catch (DataIntegrityViolationException rowFailure) {
+                        counts[i] = 0;
+                    }
+                }
+            }
+            // A rewritten batch may report no per-row count, and an ignored row is not an error: ask the table
+            List<Request> unconfirmed = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (counts[i] == 1) {
+                    stored.add(chunk.get(i).id);
+                } else {
+                    unconfirmed.add(chunk.get(i));
+                }
+            }
+            if (!unconfirmed.isEmpty()) {
+                stored.addAll(storedIds(unconfirmed));
+            }
+        }
+        return stored;
+    }
+
+    private Set<UUID> storedIds(Collection<?> requestsOrIds) {
+        List<String> ids = new ArrayList<>(requestsOrIds.size());
+        for (Object requestOrId : requestsOrIds) {
+            ids.add((requestOrId instanceof Request ? ((Request) requestOrId).id : requestOrId).toString());
+        }
+        Set<UUID> stored = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + batchSize, ids.size())));
+            for (String id : jdbcTemplate.queryForList(STORED_INTAKE_IDS_SQL, parameters, String.class)) {
+                stored.add(UUID.fromString(id));
+            }
+        }
+        return stored;
+    }
+
+    private static final class Request {
+
+        final UUID id;
+        final long numSkier;
+        final long numCourse;
+        final int numWeek;
+
+        Request(UUID id, long numSkier, long numCourse, int numWeek) {
+            this.id = id;
+            this.numSkier = numSkier;
+            this.numCourse = numCourse;
+            this.numWeek = numWeek;
+        }
+
+        static Request of(long[] record) {
+            return new Request(new UUID(record[0], record[1]), record[2], record[3], (int) record[4]);
+        }
+
+        long[] toRecord() {
+            return new long[]{id.getMostSignificantBits(), id.getLeastSignificantBits(), numSkier, numCourse, numWeek};
+        }
+    }
+}
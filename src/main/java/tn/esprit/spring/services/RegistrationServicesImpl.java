@@ -0,0 +1,56 @@
+package tn.esprit.spring.services;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import javax.persistence.EntityNotFoundException;
+
+@AllArgsConstructor
+@Service
+public class RegistrationServicesImpl implements IRegistrationServices {
+
+    private final IRegistrationRepository registrationRepository;
+    private final ISkierRepository skierRepository;
+    private final ICourseRepository courseRepository;
+    private final CourseCapacityLedger capacityLedger;
+
+    // The seat is taken in memory first, so a full course is rejected before touching the database.
+    // Not transactional on purpose: save() commits on its own, and any failure up to and including
+    // the commit gives the seat back.
+    @Override
+    public Registration addRegistrationAndAssignToSkierAndCourse(Registration registration, Long numSkier, Long numCourse) {
+        int numWeek = registration.getNumWeek();
+        if (numWeek < 1 || numWeek > CourseCapacityLedger.MAX_WEEK) {
+            throw new IllegalArgumentException("Week must be between 1 and " + CourseCapacityLedger.MAX_WEEK);
+        }
+        if (!capacityLedger.isTracked(numCourse)) {
+            Course course = courseRepository.findById(numCourse)
+                    .orElseThrow(() -> new EntityNotFoundException("Course with ID " + numCourse + " not found"));
+            capacityLedger.track(course);
+        }
+        if (!capacityLedger.tryReserve(numCourse, numWeek)) {
+            throw new CourseFullException(numCourse, numWeek);
+        }
+        try {
+            Skier skier = skierRepository.findById(numSkier)
+                    .orElseThrow(() -> new EntityNotFoundException("Skier with ID " + numSkier + " not found"));
+            registration.setSkier(skier);
+            registration.setCourse(courseRepository.getById(numCourse));
+            return registrationRepository.save(registration);
+        } catch (RuntimeException e) {
+            capacityLedger.release(numCourse, numWeek);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getRemainingSeats(Long numCourse, int numWeek) {
+        return capacityLedger.remaining(numCourse, numWeek);
+    }
+}
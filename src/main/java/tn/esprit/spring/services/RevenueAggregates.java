@@ -0,0 +1,303 @@
+package tn.esprit.spring.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.dto.RevenueCellDTO;
+import tn.esprit.spring.dto.RevenueCheckDTO;
+import tn.esprit.spring.dto.RevenueReportDTO;
+import tn.esprit.spring.dto.SubscriptionPriceCountDTO;
+import tn.esprit.spring.dto.SubscriptionRevenueDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revenue per (week, course type, support) and per subscription type, kept in memory as counters in cents.
+ * Registrations are priced at their course's current price. The store also counts registrations per course
+ * and week, so a course whose price, type or support changes moves its revenue between cells in at most
+ * 54 steps instead of a rescan.
+ * Writes come from the post-commit listeners registered by {@link tn.esprit.spring.configs.RevenueConfig}.
+ * Reports read a snapshot copied every revenue.snapshot-interval-ms.
+ * A change whose previous state is unknown, or one that commits while a rebuild is reading, makes the store
+ * stale until the next rebuild or consistency check.
+ */
+@Component
+public class RevenueAggregates {
+
+    private static final TypeCourse[] TYPES = TypeCourse.values();
+    private static final Support[] SUPPORTS = Support.values();
+    private static final TypeSubscription[] SUBSCRIPTION_TYPES = TypeSubscription.values();
+    private static final int WEEKS = CourseCapacityLedger.MAX_WEEK + 1;
+    private static final int CELLS = WEEKS * TYPES.length * SUPPORTS.length;
+
+    private final ICourseRepository courseRepository;
+    private final IRegistrationRepository registrationRepository;
+    private final ISubscriptionRepository subscriptionRepository;
+
+    private volatile Store store = new Store();
+    private volatile RevenueReportDTO snapshot = new RevenueReportDTO(Instant.EPOCH, Collections.emptyList(), Collections.emptyList());
+    private volatile boolean stale;
+
+    // Loads in progress, and whether a change was applied while one ran: the loaded store may have missed it
+    private final AtomicInteger loading = new AtomicInteger();
+    private volatile boolean changedDuringLoad;
+
+    public RevenueAggregates(ICourseRepository courseRepository,
+                             IRegistrationRepository registrationRepository,
+                             ISubscriptionRepository subscriptionRepository) {
+        this.courseRepository = courseRepository;
+        this.registrationRepository = registrationRepository;
+        this.subscriptionRepository = subscriptionRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        loading.incrementAndGet();
+        try {
+            changedDuringLoad = false;
+            Store loaded = load();
+            stale = false;
+            store = loaded;
+        } finally {
+            loading.decrementAndGet();
+        }
+        if (changedDuringLoad) {
+            stale = true;
+        }
+        publishSnapshot();
+    }
+
+    /**
+     * Recomputes the aggregates from the database and counts the cells that differ from the store,
+     * replacing the store when asked to and it differs or is known to be stale.
+     */
+    public RevenueCheckDTO check(boolean repair) {
+        int mismatched;
+        loading.incrementAndGet();
+        try {
+            changedDuringLoad = false;
+            Store expected = load();
+            mismatched = store.countMismatches(expected);
+            if (!repair || (mismatched == 0 && !stale)) {
+                return new RevenueCheckDTO(mismatched, false);
+            }
+            stale = false;
+            store = expected;
+        } finally {
+            loading.decrementAndGet();
+        }
+        if (changedDuringLoad) {
+            stale = true;
+        }
+        publishSnapshot();
+        return new RevenueCheckDTO(mismatched, true);
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void markStale() {
+        stale = true;
+    }
+
+    public RevenueReportDTO getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${revenue.snapshot-interval-ms:1000}")
+    public void publishSnapshot() {
+        Store current = store;
+        List<RevenueCellDTO> registrations = new ArrayList<>();
+        for (int cell = 0; cell < CELLS; cell++) {
+            long count = current.registrationCounts.get(cell);
+            if (count != 0) {
+                registrations.add(new RevenueCellDTO(cell / (TYPES.length * SUPPORTS.length),
+                        TYPES[(cell / SUPPORTS.length) % TYPES.length], SUPPORTS[cell % SUPPORTS.length],
+                        count, BigDecimal.valueOf(current.registrationCents.get(cell), 2)));
+            }
+        }
+        List<SubscriptionRevenueDTO> subscriptions = new ArrayList<>();
+        for (TypeSubscription type : SUBSCRIPTION_TYPES) {
+            long count = current.subscriptionCounts.get(type.ordinal());
+            if (count != 0) {
+                subscriptions.add(new SubscriptionRevenueDTO(type, count,
+                        BigDecimal.valueOf(current.subscriptionCents.get(type.ordinal()), 2)));
+            }
+        }
+        snapshot = new RevenueReportDTO(Instant.now(), registrations, subscriptions);
+    }
+
+    public void registrationAdded(Long numCourse, int numWeek) {
+        registration(numCourse, numWeek, 1);
+    }
+
+    public void registrationRemoved(Long numCourse, int numWeek) {
+        registration(numCourse, numWeek, -1);
+    }
+
+    // Inserted or updated course
+    public void courseChanged(Course course) {
+        Store current = store;
+        CourseState state = current.courses.computeIfAbsent(course.getNumCourse(), id -> new CourseState());
+        long priceCents = cents(course.getPrice());
+        synchronized (state) {
+            for (int week = 0; week < WEEKS; week++) {
+                int count = state.weekCounts[week];
+                if (count != 0) {
+                    current.addRegistrations(cell(week, state.typeCourse, state.support), -count, -count * state.priceCents);
+                    current.addRegistrations(cell(week, course.getTypeCourse(), course.getSupport()), count, count * priceCents);
+                }
+            }
+            state.priceCents = priceCents;
+            state.typeCourse = course.getTypeCourse();
+            state.support = course.getSupport();
+        }
+        applied(current);
+    }
+
+    // Its registrations are gone already, the foreign key sees to that
+    public void courseRemoved(Long numCourse) {
+        Store current = store;
+        current.courses.remove(numCourse);
+        applied(current);
+    }
+
+    public void subscriptionAdded(TypeSubscription typeSub, Float price) {
+        Store current = store;
+        current.addSubscriptions(typeSub, 1, cents(price));
+        applied(current);
+    }
+
+    public void subscriptionRemoved(TypeSubscription typeSub, Float price) {
+        Store current = store;
+        current.addSubscriptions(typeSub, -1, -cents(price));
+        applied(current);
+    }
+
+    private void registration(Long numCourse, int numWeek, int delta) {
+        Store current = store;
+        CourseState course = (numCourse != null) ? current.courses.get(numCourse) : null;
+        if (course == null) {
+            markStale();
+            return;
+        }
+        if (numWeek < 0 || numWeek >= WEEKS) {
+            return;
+        }
+        synchronized (course) {
+            course.weekCounts[numWeek] += delta;
+            current.addRegistrations(cell(numWeek, course.typeCourse, course.support), delta, delta * course.priceCents);
+        }
+        applied(current);
+    }
+
+    // A change applied to a store that has been replaced since is lost. One applied while a load runs may
+    // have been read by it or not: the store that load produces counts as stale
+    private void applied(Store current) {
+        if (store != current) {
+            changedDuringLoad = true;
+            stale = true;
+        } else if (loading.get() > 0) {
+            changedDuringLoad = true;
+        }
+    }
+
+    private Store load() {
+        Store loaded = new Store();
+        for (Course course : courseRepository.findAll()) {
+            CourseState state = new CourseState();
+            state.priceCents = cents(course.getPrice());
+            state.typeCourse = course.getTypeCourse();
+            state.support = course.getSupport();
+            loaded.courses.put(course.getNumCourse(), state);
+        }
+        for (CourseWeekCountDTO count : registrationRepository.countByCourseAndWeek()) {
+            CourseState course = loaded.courses.get(count.getNumCourse());
+            if (course != null && count.getNumWeek() >= 0 && count.getNumWeek() < WEEKS) {
+                course.weekCounts[count.getNumWeek()] += (int) count.getCount();
+                loaded.addRegistrations(cell(count.getNumWeek(), course.typeCourse, course.support),
+                        count.getCount(), count.getCount() * course.priceCents);
+            }
+        }
+        for (SubscriptionPriceCountDTO count : subscriptionRepository.countByTypeAndPrice()) {
+            loaded.addSubscriptions(count.getTypeSub(), count.getCount(), count.getCount() * cents(count.getPrice()));
+        }
+        return loaded;
+    }
+
+    // -1 for courses without a type or support, which no report cell covers
+    private static int cell(int week, TypeCourse typeCourse, Support support) {
+        if (typeCourse == null || support == null) {
+            return -1;
+        }
+        return (week * TYPES.length + typeCourse.ordinal()) * SUPPORTS.length + support.ordinal();
+    }
+
+    private static long cents(Float price) {
+        return (price != null) ? Math.round(price.doubleValue() * 100) : 0L;
+    }
+
+    private static final class Store {
+
+        final AtomicLongArray registrationCounts = new AtomicLongArray(CELLS);
+        final AtomicLongArray registrationCents = new AtomicLongArray(CELLS);
+        final AtomicLongArray subscriptionCounts = new AtomicLongArray(SUBSCRIPTION_TYPES.length);
+        final AtomicLongArray subscriptionCents = new AtomicLongArray(SUBSCRIPTION_TYPES.length);
+        final ConcurrentMap<Long, CourseState> courses = new ConcurrentHashMap<>();
+
+        void addRegistrations(int cell, long count, long cents) {
+            if (cell >= 0) {
+                registrationCounts.addAndGet(cell, count);
+                registrationCents.addAndGet(cell, cents);
+            }
+        }
+
+        void addSubscriptions(TypeSubscription typeSub, long count, long cents) {
+            if (typeSub != null) {
+                subscriptionCounts.addAndGet(typeSub.ordinal(), count);
+                subscriptionCents.addAndGet(typeSub.ordinal(), cents);
+            }
+        }
+
+        int countMismatches(Store other) {
+            return mismatches(registrationCounts, other.registrationCounts, registrationCents, other.registrationCents)
+                    + mismatches(subscriptionCounts, other.subscriptionCounts, subscriptionCents, other.subscriptionCents);
+        }
+
+        private static int mismatches(AtomicLongArray counts, AtomicLongArray otherCounts,
+                                      AtomicLongArray cents, AtomicLongArray otherCents) {
+            int mismatched = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                if (counts.get(i) != otherCounts.get(i) || cents.get(i) != otherCents.get(i)) {
+                    mismatched++;
+                }
+            }
+            return mismatched;
+        }
+    }
+
+    // Guarded by its own monitor
+    private static final class CourseState {
+        long priceCents;
+        TypeCourse typeCourse;
+        Support support;
+        final int[] weekCounts = new int[WEEKS];
+    }
+}
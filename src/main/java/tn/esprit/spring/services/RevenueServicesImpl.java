@@ -0,0 +1,55 @@
+package tn.esprit.spring.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.RevenueCellDTO;
+import tn.esprit.spring.dto.RevenueCheckDTO;
+import tn.esprit.spring.dto.SubscriptionRevenueDTO;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@AllArgsConstructor
+@Service
+public class RevenueServicesImpl implements IRevenueServices {
+
+    private final RevenueAggregates revenueAggregates;
+
+    // At most 53 weeks x 3 types x 2 supports cells, whatever the size of the history
+    @Override
+    public List<RevenueCellDTO> getRegistrationRevenue(Integer numWeek, TypeCourse typeCourse, Support support) {
+        return revenueAggregates.getSnapshot().getRegistrations().stream()
+                .filter(cell -> numWeek == null || cell.getNumWeek() == numWeek)
+                .filter(cell -> typeCourse == null || cell.getTypeCourse() == typeCourse)
+                .filter(cell -> support == null || cell.getSupport() == support)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<SubscriptionRevenueDTO> getSubscriptionRevenue() {
+        return revenueAggregates.getSnapshot().getSubscriptions();
+    }
+
+    @Override
+    public void rebuildRevenue() {
+        revenueAggregates.rebuild();
+    }
+
+    @Override
+    public RevenueCheckDTO checkRevenue(boolean repair) {
+        return revenueAggregates.check(repair);
+    }
+
+    @Scheduled(cron = "${revenue.check.cron:0 30 3 * * *}")
+    public void runConsistencyCheck() {
+        RevenueCheckDTO check = checkRevenue(true);
+        if (check.getMismatchedCells() > 0) {
+            log.warn("Revenue aggregates had drifted on {} cells and were rebuilt", check.getMismatchedCells());
+        }
+    }
+}
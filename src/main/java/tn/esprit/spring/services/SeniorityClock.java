@@ -0,0 +1,40 @@
+package tn.esprit.spring.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.configs.CacheConfig;
+import tn.esprit.spring.entities.Seniority;
+
+import java.time.LocalDate;
+
+/**
+ * Moves the seniority day forward at midnight. The cached years of service and instructor views
+ * were computed on the previous day, an anniversary may have changed them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeniorityClock {
+
+    private final CacheManager cacheManager;
+
+    @Scheduled(cron = "${seniority.day-change.cron:0 0 0 * * *}")
+    public void advance() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(Seniority.today())) {
+            return;
+        }
+        Seniority.advanceTo(today);
+        for (String cacheName : new String[]{CacheConfig.INSTRUCTOR_VIEWS, CacheConfig.YEARS_OF_SERVICE}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("Seniority day advanced to {}", today);
+    }
+}
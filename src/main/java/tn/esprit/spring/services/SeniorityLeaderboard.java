@@ -0,0 +1,178 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.repositories.IInstructorRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Instructors ordered by seniority (hire date, then id; no hire date comes last, as in the database
+ * ordering) for the awards page: the k most senior are the first k entries of a skip list, read
+ * without locking and without touching the database.
+ * <p>
+ * Kept up to date by the instructor write paths. A write inside a transaction is applied once it has
+ * committed. Writers are serialized; a reader racing the move of an instructor to a new rank may miss
+ * that instructor for one call.
+ */
+@Component
+public class SeniorityLeaderboard {
+
+    private final IInstructorRepository instructorRepository;
+
+    private final ConcurrentSkipListMap<Rank, InstructorDTO> byRank = new ConcurrentSkipListMap<>();
+    private final Map<Long, Rank> ranks = new HashMap<>();
+
+    public SeniorityLeaderboard(IInstructorRepository instructorRepository) {
+        this.instructorRepository = instructorRepository;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        byRank.clear();
+        ranks.clear();
+        instructorRepository.findAllDTOs().forEach(this::apply);
+    }
+
+    public int size() {
+        return byRank.size();
+    }
+
+    /**
+     * The k most senior instructors, most senior first, with their years of service as of today.
+     */
+    public List<InstructorDTO> top(int k) {
+        List<InstructorDTO> top = new ArrayList<>(Math.min(k, byRank.size()));
+        Iterator<InstructorDTO> instructors = byRank.values().iterator();
+        while (top.size() < k && instructors.hasNext()) {
+            InstructorDTO instructor = instructors.next();
+            top.add(new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                    instructor.getLastName(), instructor.getDateOfHire(), instructor.getVersion()));
+        }
+        return top;
+    }
+
+    public void put(InstructorDTO instructor) {
+        InstructorDTO copy = new InstructorDTO(instructor.getNumInstructor(), instructor.getFirstName(),
+                instructor.getLastName(), instructor.getDateOfHire(), instructor.getVersion());
+        afterCommit(() -> apply(copy));
+    }
+
+    // Only the fields sent change, the others are taken from the current entry
+    public void patch(Long numInstructor, InstructorPatchDTO patch, long version) {
+        afterCommit(() -> {
+            Rank rank = ranks.get(numInstructor);
+            InstructorDTO current = (rank != null) ? byRank.get(rank) : null;
+            if (current == null) {
+                return;
+            }
+            apply(new InstructorDTO(numInstructor,
+                    patch.getFirstName() != null ? patch.getFirstName() : current.getFirstName(),
+                    patch.getLastName() != null ? patch.getLastName() : current.getLastName(),
+                    patch.getDateOfHire() != null ? patch.getDateOfHire() : current.getDateOfHire(),
+                    version));
+        });
+    }
+
+    public void remove(Long numInstructor) {
+        removeAll(Collections.singletonList(numInstructor));
+    }
+
+    public void removeAll(Collection<Long> numInstructors) {
+        List<Long> removed = new ArrayList<>(numInstructors);
+        afterCommit(() -> {
+            for (Long numInstructor : removed) {
+                Rank rank = ranks.remove(numInstructor);
+                if (rank != null) {
+                    byRank.remove(rank);
+                }
+            }
+        });
+    }
+
+    // Bounds are inclusive, like the bulk delete; a null bound is open
+    public void removeHiredBetween(LocalDate hiredFrom, LocalDate hiredTo) {
+        afterCommit(() -> {
+            Rank from = new Rank(hiredFrom != null ? hiredFrom.toEpochDay() : Long.MIN_VALUE, Long.MIN_VALUE);
+            Rank to = new Rank(hiredTo != null ? hiredTo.toEpochDay() : Rank.NO_HIRE_DATE - 1, Long.MAX_VALUE);
+            Iterator<Rank> removed = byRank.subMap(from, true, to, true).keySet().iterator();
+            while (removed.hasNext()) {
+                ranks.remove(removed.next().numInstructor);
+                removed.remove();
+            }
+        });
+    }
+
+    // Called with the lock held
+    private void apply(InstructorDTO instructor) {
+        Rank rank = Rank.of(instructor);
+        Rank previous = ranks.put(instructor.getNumInstructor(), rank);
+        if (previous != null && !previous.equals(rank)) {
+            byRank.remove(previous);
+        }
+        byRank.put(rank, instructor);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked(change);
+                }
+            });
+        } else {
+            locked(change);
+        }
+    }
+
+    private synchronized void locked(Runnable change) {
+        change.run();
+    }
+
+    private static final class Rank implements Comparable<Rank> {
+
+        static final long NO_HIRE_DATE = Long.MAX_VALUE;
+
+        final long hireDay;
+        final long numInstructor;
+
+        Rank(long hireDay, long numInstructor) {
+            this.hireDay = hireDay;
+            this.numInstructor = numInstructor;
+        }
+
+        static Rank of(InstructorDTO instructor) {
+            LocalDate dateOfHire = instructor.getDateOfHire();
+            return new Rank(dateOfHire != null ? dateOfHire.toEpochDay() : NO_HIRE_DATE, instructor.getNumInstructor());
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int byDay = Long.compare(hireDay, other.hireDay);
+            return byDay != 0 ? byDay : Long.compare(numInstructor, other.numInstructor);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Rank && compareTo((Rank) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hireDay) * 31 + Long.hashCode(numInstructor);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.spring.services;
+
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+/**
+ * Name autocomplete over skiers, kept up to date by SkierServicesImpl.
+ */
+@Component
+public class SkierNameIndex extends NameSearchIndex {
+
+    public SkierNameIndex(ISkierRepository skierRepository) {
+        super(skierRepository::findAllNames);
+    }
+}
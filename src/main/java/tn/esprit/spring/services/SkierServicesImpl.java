@@ -0,0 +1,51 @@
+package tn.esprit.spring.services;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.repositories.ISkierRepository;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+@AllArgsConstructor
+@Service
+public class SkierServicesImpl implements ISkierServices {
+
+    private final ISkierRepository skierRepository;
+    private final SkierNameIndex nameIndex;
+
+    @Override
+    public Skier addSkier(Skier skier) {
+        Skier saved = skierRepository.save(skier);
+        nameIndex.put(saved.getNumSkier(), saved.getFirstName(), saved.getLastName());
+        return saved;
+    }
+
+    // Only the personal details change: the subscription, registrations and excursions are left alone
+    @Override
+    @Transactional
+    public Skier updateSkier(Skier skier) {
+        Skier current = skierRepository.findById(skier.getNumSkier())
+                .orElseThrow(() -> new EntityNotFoundException("Skier with ID " + skier.getNumSkier() + " not found"));
+        current.setFirstName(skier.getFirstName());
+        current.setLastName(skier.getLastName());
+        current.setDateOfBirth(skier.getDateOfBirth());
+        current.setCity(skier.getCity());
+        nameIndex.put(current.getNumSkier(), current.getFirstName(), current.getLastName());
+        return current;
+    }
+
+    @Override
+    public Skier retrieveSkier(Long numSkier) {
+        return skierRepository.findById(numSkier).orElse(null);
+    }
+
+    // Served from memory, no query
+    @Override
+    public List<NameMatchDTO> searchSkiers(String query, int limit) {
+        return nameIndex.search(query, limit);
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.spring.services;
+
+import tn.esprit.spring.entities.Subscription;
+
+import java.util.List;
+
+/**
+ * Called by the daily expiry run with batches of subscriptions. Every handler bean is called.
+ */
+public interface SubscriptionExpiryHandler {
+
+    void onExpired(List<Subscription> subscriptions);
+
+    void onRenewalReminder(List<Subscription> subscriptions);
+}
@@ -0,0 +1,127 @@
+package tn.esprit.spring.services;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import tn.esprit.spring.dto.SubscriptionEndDTO;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Subscriptions by the day they expire (the day after their end date) and the day their renewal reminder
+ * is due, in two {@link DayTimingWheel}s. Rescheduling does not search the wheels: the maps below hold the
+ * current day of each subscription and entries that no longer match are skipped when their day comes.
+ * Built from the database at startup, then kept up to date by {@link #schedule} and {@link #unschedule}.
+ */
+@Component
+public class SubscriptionExpiryIndex {
+
+    private final ISubscriptionRepository subscriptionRepository;
+
+    @Getter
+    private final int reminderDays;
+
+    private final CronExpression expiryRun;
+
+    private DayTimingWheel expiries;
+    private DayTimingWheel reminders;
+    private final Map<Long, Long> expiryDays = new HashMap<>();
+    private final Map<Long, Long> reminderDaysById = new HashMap<>();
+
+    public SubscriptionExpiryIndex(ISubscriptionRepository subscriptionRepository,
+                                   @Value("${subscription.expiry.reminder-days:7}") int reminderDays,
+                                   @Value("${subscription.expiry.cron:0 5 0 * * *}") String expiryCron) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.reminderDays = reminderDays;
+        this.expiryRun = CronExpression.parse(expiryCron);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild(firstPendingDay(LocalDateTime.now()));
+    }
+
+    /**
+     * Today, or tomorrow when today's run is already past: what that run had due was handled before the restart
+     * and must not be handed out a second time.
+     */
+    public LocalDate firstPendingDay(LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime todaysRun = expiryRun.next(today.atStartOfDay().minusNanos(1));
+        boolean ranToday = todaysRun != null && todaysRun.toLocalDate().equals(today) && !todaysRun.isAfter(now);
+        return ranToday ? today.plusDays(1) : today;
+    }
+
+    // Subscriptions that ended the day before are the first due; expiries missed while the application was down are not
+    public synchronized void rebuild(LocalDate firstPendingDay) {
+        expiries = new DayTimingWheel(firstPendingDay.toEpochDay());
+        reminders = new DayTimingWheel(firstPendingDay.toEpochDay());
+        expiryDays.clear();
+        reminderDaysById.clear();
+        for (SubscriptionEndDTO subscription : subscriptionRepository.findEndingFrom(firstPendingDay.minusDays(1))) {
+            schedule(subscription.getNumSub(), subscription.getEndDate());
+        }
+    }
+
+    public synchronized void schedule(Long numSub, LocalDate endDate) {
+        if (endDate == null) {
+            unschedule(numSub);
+            return;
+        }
+        // Already expired but never processed: due on the next run
+        long expiryDay = Math.max(endDate.toEpochDay() + 1, expiries.getCurrentDay());
+        if (!Long.valueOf(expiryDay).equals(expiryDays.put(numSub, expiryDay))) {
+            expiries.add(numSub, expiryDay);
+        }
+        // A reminder whose day has passed is dropped rather than sent late
+        long reminderDay = endDate.toEpochDay() - reminderDays;
+        if (reminderDay >= reminders.getCurrentDay()) {
+            if (!Long.valueOf(reminderDay).equals(reminderDaysById.put(numSub, reminderDay))) {
+                reminders.add(numSub, reminderDay);
+            }
+        } else {
+            reminderDaysById.remove(numSub);
+        }
+    }
+
+    public synchronized void unschedule(Long numSub) {
+        expiryDays.remove(numSub);
+        reminderDaysById.remove(numSub);
+    }
+
+    public synchronized int size() {
+        return expiryDays.size();
+    }
+
+    /**
+     * Takes out every subscription that expires, or whose reminder is due, on or before the given day.
+     */
+    public synchronized Due advanceTo(LocalDate day) {
+        Due due = new Due();
+        expiries.advanceTo(day.toEpochDay(), (numSub, expiryDay) -> {
+            if (expiryDays.remove(numSub, expiryDay)) {
+                due.expired.add(numSub);
+            }
+        });
+        reminders.advanceTo(day.toEpochDay(), (numSub, reminderDay) -> {
+            if (reminderDaysById.remove(numSub, reminderDay)) {
+                due.reminders.add(numSub);
+            }
+        });
+        return due;
+    }
+
+    @Getter
+    public static final class Due {
+        private final List<Long> expired = new ArrayList<>();
+        private final List<Long> reminders = new ArrayList<>();
+    }
+}
@@ -0,0 +1,79 @@
+package tn.esprit.spring.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tn.esprit.spring.dto.SubscriptionExpiryRunDTO;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class SubscriptionServicesImpl implements ISubscriptionServices {
+
+    private final ISubscriptionRepository subscriptionRepository;
+    private final SubscriptionExpiryIndex expiryIndex;
+    private final List<SubscriptionExpiryHandler> handlers;
+    private final int batchSize;
+
+    public SubscriptionServicesImpl(ISubscriptionRepository subscriptionRepository,
+                                    SubscriptionExpiryIndex expiryIndex,
+                                    List<SubscriptionExpiryHandler> handlers,
+                                    @Value("${subscription.expiry.batch-size:500}") int batchSize) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.expiryIndex = expiryIndex;
+        this.handlers = handlers;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${subscription.expiry.cron:0 5 0 * * *}")
+    public void runDailyExpiry() {
+        SubscriptionExpiryRunDTO run = processExpiries(LocalDate.now());
+        log.info("Subscription expiry run for {}: {} expired, {} reminded", run.getDay(), run.getExpired(), run.getReminded());
+    }
+
+    // Only the subscriptions due up to that day are read, a batch at a time. Each one is checked against
+    // its stored end date, in case it changed in a transaction the index has not heard about yet.
+    @Override
+    public SubscriptionExpiryRunDTO processExpiries(LocalDate day) {
+        SubscriptionExpiryIndex.Due due = expiryIndex.advanceTo(day);
+        int expired = dispatch(due.getExpired(),
+                s -> s.getEndDate() != null && s.getEndDate().isBefore(day),
+                SubscriptionExpiryHandler::onExpired);
+        int reminded = dispatch(due.getReminders(),
+                s -> s.getEndDate() != null && !s.getEndDate().isBefore(day)
+                        && !s.getEndDate().minusDays(expiryIndex.getReminderDays()).isAfter(day),
+                SubscriptionExpiryHandler::onRenewalReminder);
+        return new SubscriptionExpiryRunDTO(day, expired, reminded);
+    }
+
+    private int dispatch(List<Long> ids, Predicate<Subscription> stillDue,
+                         BiConsumer<SubscriptionExpiryHandler, List<Subscription>> event) {
+        int dispatched = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Subscription> batch = subscriptionRepository.findAllById(ids.subList(from, Math.min(from + batchSize, ids.size())))
+                    .stream()
+                    .filter(stillDue)
+                    .collect(Collectors.toList());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            for (SubscriptionExpiryHandler handler : handlers) {
+                try {
+                    event.accept(handler, batch);
+                } catch (RuntimeException e) {
+                    log.warn("Subscription expiry handler {} failed", handler.getClass().getSimpleName(), e);
+                }
+            }
+            dispatched += batch.size();
+        }
+        return dispatched;
+    }
+}
@@ -0,0 +1,189 @@
+package tn.esprit.spring.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of fixed-size records of longs, split in numbered segment files.
+ * A record is acknowledged once {@link #append} returns: it has been forced to disk. Once the records
+ * of a segment are stored elsewhere, {@link #rotate} seals it and {@link #discard} deletes it.
+ * Each record ends with the CRC-32 of its longs. A failed append is cut off the segment; a crash can still
+ * leave a partial or torn record at the end of one, and replay of that segment stops at the first record
+ * that is short or fails its check.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final String SUFFIX = ".wal";
+    private static final int CRC_BYTES = Integer.BYTES;
+
+    private final Path directory;
+    private final String name;
+    private final int recordLongs;
+    private final int recordBytes;
+    private final List<Path> recovered;
+
+    private long sequence;
+    private Path segment;
+    private FileChannel channel;
+
+    public WriteAheadLog(Path directory, String name, int recordLongs) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.name = name;
+        this.recordLongs = recordLongs;
+        this.recordBytes = recordLongs * Long.BYTES + CRC_BYTES;
+        this.recovered = existingSegments();
+        this.sequence = recovered.isEmpty() ? 0 : sequenceOf(recovered.get(recovered.size() - 1));
+        openNextSegment();
+    }
+
+    /**
+     * Feeds the records of the segments left by a previous run, oldest first, and returns those segments
+     * so they can be discarded once the records are stored elsewhere.
+     */
+    public List<Path> replay(Consumer<long[]> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(recordBytes);
+        CRC32 crc = new CRC32();
+        for (Path path : recovered) {
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (true) {
+                    buffer.clear();
+                    if (!readFully(in, buffer)) {
+                        break;
+                    }
+                    buffer.flip();
+                    crc.reset();
+                    crc.update(buffer.array(), 0, recordBytes - CRC_BYTES);
+                    if ((int) crc.getValue() != buffer.getInt(recordBytes - CRC_BYTES)) {
+                        // Nothing after a torn record can be trusted to be aligned
+                        log.warn("Corrupt record at offset {} of {}, the rest of the segment is skipped",
+                                in.position() - recordBytes, path);
+                        break;
+                    }
+                    long[] record = new long[recordLongs];
+                    for (int i = 0; i < recordLongs; i++) {
+                        record[i] = buffer.getLong();
+                    }
+                    consumer.accept(record);
+                }
+            }
+        }
+        return Collections.unmodifiableList(recovered);
+    }
+
+    // One write and one force for the whole batch
+    public synchronized void append(Collection<long[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * recordBytes);
+        CRC32 crc = new CRC32();
+        for (long[] record : records) {
+            if (record.length != recordLongs) {
+                throw new IllegalArgumentException("Expected records of " + recordLongs + " longs");
+            }
+            int start = buffer.position();
+            for (long value : record) {
+                buffer.putLong(value);
+            }
+            crc.reset();
+            crc.update(buffer.array(), start, recordLongs * Long.BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        long size = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // None of the batch is acknowledged: it must not stay, even in part, in front of the next one
+            try {
+                channel.truncate(size);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+                startOver(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the current segment, starts a new one and returns the closed segment.
+     */
+    public synchronized Path rotate() throws IOException {
+        Path sealed = segment;
+        channel.close();
+        openNextSegment();
+        return sealed;
+    }
+
+    public void discard(Collection<Path> segments) throws IOException {
+        for (Path path : segments) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The next records go to a fresh segment, out of the way of the damaged end; the damaged one is replayed
+    // up to its last good record at the next start
+    private void startOver(IOException failure) {
+        try {
+            channel.close();
+            openNextSegment();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        sequence++;
+        segment = directory.resolve(String.format("%s-%019d%s", name, sequence, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Zero-padded sequence numbers sort by name
+    private List<Path> existingSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, name + "-*" + SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private long sequenceOf(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(name.length() + 1, fileName.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,117 @@
+package tn.esprit.spring;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.spring.configs.SecondLevelCacheConfig;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every repository call commits on its own: cache entries are only published by committed transactions
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseRepositoryTest {
+
+    @Autowired
+    private ICourseRepository courseRepository;
+
+    @Autowired
+    private IInstructorRepository instructorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        courseRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private Course saveCourse(float price) {
+        return courseRepository.save(new Course(null, 1, TypeCourse.COLLECTIVE_ADULT, Support.SKI, price, 1, null));
+    }
+
+    @Test
+    void testFindById_ServedFromSecondLevelCache() {
+        Long numCourse = saveCourse(40f).getNumCourse();
+        entityManagerFactory.getCache().evict(Course.class);
+        statistics.clear();
+
+        courseRepository.findById(numCourse);
+        courseRepository.findById(numCourse);
+        courseRepository.findById(numCourse);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(SecondLevelCacheConfig.COURSES).getHitCount());
+    }
+
+    @Test
+    void testUpdate_CachedCourseIsNotStale() {
+        Course course = saveCourse(40f);
+        courseRepository.findById(course.getNumCourse());
+
+        course.setPrice(55f);
+        courseRepository.save(course);
+
+        assertEquals(55f, courseRepository.findById(course.getNumCourse()).get().getPrice());
+    }
+
+    @Test
+    void testFindAll_QueryCacheInvalidatedByInsert() {
+        saveCourse(40f);
+        statistics.clear();
+
+        assertEquals(1, courseRepository.findAll().size());
+        assertEquals(1, courseRepository.findAll().size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        saveCourse(60f);
+
+        assertEquals(2, courseRepository.findAll().size());
+    }
+
+    @Test
+    void testCourseLinkDeletes_KeepCachedCourses() {
+        Long numCourse = saveCourse(40f).getNumCourse();
+        courseRepository.findById(numCourse);
+        assertTrue(entityManagerFactory.getCache().contains(Course.class, numCourse));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            instructorRepository.deleteCourseLinks(1L);
+            instructorRepository.deleteCourseLink(numCourse);
+            instructorRepository.deleteCourseLinksByIds(Collections.singletonList(1L));
+        });
+
+        assertTrue(entityManagerFactory.getCache().contains(Course.class, numCourse));
+    }
+}
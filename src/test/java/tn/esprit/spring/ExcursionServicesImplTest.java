@@ -0,0 +1,165 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.spring.dto.ExcursionScanDTO;
+import tn.esprit.spring.services.ExcursionServicesImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ExcursionServicesImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path walDirectory;
+
+    private ExcursionServicesImpl excursionServices;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        excursionServices = newService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        excursionServices.stop();
+    }
+
+    // A long interval keeps the timer out of the way, the tests flush explicitly
+    private ExcursionServicesImpl newService() throws IOException {
+        ExcursionServicesImpl service = new ExcursionServicesImpl(jdbcTemplate, walDirectory.toString(), 100, 60_000);
+        service.start();
+        return service;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testRecordScans_DeduplicatesPendingScans() {
+        int accepted = excursionServices.recordScans(Arrays.asList(
+                new ExcursionScanDTO(1L, 10L), new ExcursionScanDTO(1L, 10L), new ExcursionScanDTO(2L, 10L)));
+
+        assertEquals(2, accepted);
+        assertEquals(0, excursionServices.recordScans(Collections.singletonList(new ExcursionScanDTO(2L, 10L))));
+        assertEquals(2, excursionServices.getPendingScans());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesOneBatchAndDiscardsLog() throws IOException {
+        excursionServices.recordScans(Arrays.asList(new ExcursionScanDTO(1L, 10L), new ExcursionScanDTO(2L, 20L)));
+
+        excursionServices.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertArrayEquals(new Object[]{1L, 10L}, rows.getValue().get(0));
+        assertEquals(0, excursionServices.getPendingScans());
+        assertEquals(1, segments().size()); // only the fresh, empty segment
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordScans_ConcurrentRequestsShareTheLog() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            long numSkier = i % 20;
+            requests.add(() -> excursionServices.recordScans(Collections.singletonList(new ExcursionScanDTO(numSkier, 10L))));
+        }
+        int accepted = 0;
+        for (Future<Integer> future : pool.invokeAll(requests)) {
+            accepted += future.get();
+        }
+        pool.shutdown();
+
+        // Each scan was sent twice and logged once
+        assertEquals(20, accepted);
+        assertEquals(20, excursionServices.getPendingScans());
+        excursionServices.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(20, rows.getValue().size());
+        assertEquals(0, excursionServices.getPendingScans());
+    }
+
+    @Test
+    void testFlush_FailureKeepsScansForTheNextBatch() {
+        excursionServices.recordScans(Collections.singletonList(new ExcursionScanDTO(1L, 10L)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        excursionServices.flush();
+
+        assertEquals(1, excursionServices.getPendingScans());
+    }
+
+    @Test
+    void testFlush_RetriesWithoutRotatingAgain() throws IOException {
+        excursionServices.recordScans(Collections.singletonList(new ExcursionScanDTO(1L, 10L)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        excursionServices.flush();
+        excursionServices.flush();
+        excursionServices.flush();
+
+        // One sealed segment holding the scan, plus the open one: failed retries add no empty segments
+        assertEquals(2, segments().size());
+
+        reset(jdbcTemplate);
+        excursionServices.recordScans(Collections.singletonList(new ExcursionScanDTO(2L, 20L)));
+        excursionServices.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertEquals(0, excursionServices.getPendingScans());
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void testStart_ReplaysScansLeftByACrash() throws Exception {
+        excursionServices.recordScans(Arrays.asList(new ExcursionScanDTO(1L, 10L), new ExcursionScanDTO(2L, 20L)));
+        // Simulated crash: the first instance never flushes, a second one starts on the same directory
+        ExcursionServicesImpl restarted = newService();
+        try {
+            assertEquals(2, restarted.getPendingScans());
+            restarted.flush();
+            verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+            assertEquals(0, restarted.getPendingScans());
+        } finally {
+            restarted.stop();
+        }
+    }
+}
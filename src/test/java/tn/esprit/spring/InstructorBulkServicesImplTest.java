@@ -0,0 +1,320 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.configs.CacheConfig;
+import tn.esprit.spring.configs.SecondLevelCacheConfig;
+import tn.esprit.spring.dto.BulkAssignmentResultDTO;
+import tn.esprit.spring.dto.ImportChunkResultDTO;
+import tn.esprit.spring.dto.InstructorCourseAssignmentDTO;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.InstructorBulkServicesImpl;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorNameIndex;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+import tn.esprit.spring.services.SeniorityLeaderboard;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InstructorBulkServicesImplTest {
+
+    @Mock
+    private IInstructorRepository instructorRepository;
+
+    @Mock
+    private ICourseRepository courseRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private javax.persistence.Cache jpaCache;
+
+    @Mock
+    private org.hibernate.Cache secondLevelCache;
+
+    @Mock
+    private SeniorityLeaderboard leaderboard;
+
+    @Mock
+    private InstructorScheduleIndex scheduleIndex;
+
+    @Mock
+    private InstructorNameIndex nameIndex;
+
+    private CacheManager cacheManager;
+
+    private InstructorBulkServicesImpl instructorBulkServices;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.INSTRUCTOR_VIEWS);
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(org.hibernate.Cache.class)).thenReturn(secondLevelCache);
+        instructorBulkServices = new InstructorBulkServicesImpl(instructorRepository, courseRepository, jdbcTemplate,
+                entityManager, transactionManager, cacheManager, new InstructorDataVersion(), leaderboard, scheduleIndex, nameIndex, 2);
+    }
+
+    private Instructor instructor(String firstName, String lastName) {
+        Instructor instructor = new Instructor();
+        instructor.setFirstName(firstName);
+        instructor.setLastName(lastName);
+        instructor.setDateOfHire(LocalDate.now().minusYears(3));
+        return instructor;
+    }
+
+    @Test
+    void testImportInstructors_SplitsIntoChunks() {
+        Iterator<Instructor> rows = Arrays.asList(
+                instructor("John", "Doe"),
+                instructor("Jane", "Roe"),
+                instructor("Max", "Payne")).iterator();
+
+        List<ImportChunkResultDTO> results = instructorBulkServices.importInstructors(rows);
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).getInserted());
+        assertEquals(1, results.get(1).getInserted());
+        assertNull(results.get(1).getError());
+        verify(entityManager, times(3)).persist(any(Instructor.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(leaderboard, times(3)).put(any(InstructorDTO.class));
+        verify(nameIndex, times(3)).put(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testImportInstructors_RejectsIncompleteRows() {
+        Iterator<Instructor> rows = Arrays.asList(instructor("John", null), instructor("Jane", "Roe")).iterator();
+
+        List<ImportChunkResultDTO> results = instructorBulkServices.importInstructors(rows);
+
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).getInserted());
+        assertEquals(1, results.get(0).getRejected());
+        verify(entityManager, times(1)).persist(any(Instructor.class));
+    }
+
+    @Test
+    void testImportInstructors_FailedChunkIsReported() {
+        doThrow(new PersistenceException("duplicate")).when(entityManager).flush();
+        Iterator<Instructor> rows = Arrays.asList(instructor("John", "Doe")).iterator();
+
+        List<ImportChunkResultDTO> results = instructorBulkServices.importInstructors(rows);
+
+        assertEquals(1, results.size());
+        assertEquals(0, results.get(0).getInserted());
+        assertEquals(1, results.get(0).getRejected());
+        assertEquals("duplicate", results.get(0).getError());
+    }
+
+    @Test
+    void testImportInstructors_UnreadableInput() {
+        Iterator<Instructor> rows = new Iterator<Instructor>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 1) {
+                    throw new IllegalStateException("bad json");
+                }
+                return true;
+            }
+
+            @Override
+            public Instructor next() {
+                read++;
+                return instructor("John", "Doe");
+            }
+        };
+
+        List<ImportChunkResultDTO> results = instructorBulkServices.importInstructors(rows);
+
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).getInserted());
+        assertTrue(results.get(1).getError().contains("after 1 rows"));
+    }
+
+    @Test
+    void testAssignInstructorsToCourses() {
+        when(instructorRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        when(courseRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Arrays.asList(10L, 11L, 12L)));
+
+        BulkAssignmentResultDTO result = instructorBulkServices.assignInstructorsToCourses(Arrays.asList(
+                new InstructorCourseAssignmentDTO(1L, 10L),
+                new InstructorCourseAssignmentDTO(1L, 11L),
+                new InstructorCourseAssignmentDTO(2L, 12L)));
+
+        assertFalse(result.isRejected());
+        assertEquals(3, result.getAssigned());
+        verify(instructorRepository, times(1)).findExistingIds(anyCollection());
+        verify(courseRepository, times(1)).findExistingIds(anyCollection());
+        verify(jdbcTemplate, times(1)).update(anyString(), any(SqlParameterSource.class));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(SqlParameterSource[].class));
+        verify(instructorRepository, never()).findById(any());
+        // The JDBC batch bypasses Hibernate, the cached course collections have to go
+        verify(secondLevelCache, times(1)).evictCollectionData(SecondLevelCacheConfig.INSTRUCTOR_COURSES_ROLE);
+    }
+
+    @Test
+    void testAssignInstructorsToCourses_UnknownIds() {
+        when(instructorRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Collections.singletonList(1L)));
+        when(courseRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>());
+
+        BulkAssignmentResultDTO result = instructorBulkServices.assignInstructorsToCourses(Arrays.asList(
+                new InstructorCourseAssignmentDTO(1L, 10L),
+                new InstructorCourseAssignmentDTO(3L, 11L)));
+
+        assertTrue(result.isRejected());
+        assertEquals(Collections.singletonList(3L), result.getUnknownInstructors());
+        assertEquals(Arrays.asList(10L, 11L), result.getUnknownCourses());
+        verifyNoInteractions(jdbcTemplate, secondLevelCache);
+    }
+
+    @Test
+    void testAssignInstructorsToCourses_ConflictingCourse() {
+        when(instructorRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Arrays.asList(1L, 2L)));
+        when(courseRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Collections.singletonList(10L)));
+
+        BulkAssignmentResultDTO result = instructorBulkServices.assignInstructorsToCourses(Arrays.asList(
+                new InstructorCourseAssignmentDTO(1L, 10L),
+                new InstructorCourseAssignmentDTO(2L, 10L)));
+
+        assertTrue(result.isRejected());
+        assertEquals(Collections.singletonList(10L), result.getConflictingCourses());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testAssignInstructorsToCourses_DoubleBooked() {
+        when(instructorRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Collections.singletonList(1L)));
+        when(courseRepository.findExistingIds(anyCollection())).thenReturn(new HashSet<>(Arrays.asList(10L, 11L)));
+        when(scheduleIndex.untracked(anyCollection())).thenReturn(Collections.singletonList(11L));
+        Course created = new Course();
+        created.setNumCourse(11L);
+        when(courseRepository.findAllById(Collections.singletonList(11L))).thenReturn(Collections.singletonList(created));
+        when(scheduleIndex.tryAssign(anyMap())).thenReturn(Collections.singletonList(11L));
+
+        BulkAssignmentResultDTO result = instructorBulkServices.assignInstructorsToCourses(Arrays.asList(
+                new InstructorCourseAssignmentDTO(1L, 10L),
+                new InstructorCourseAssignmentDTO(1L, 11L)));
+
+        assertTrue(result.isRejected());
+        assertEquals(Collections.singletonList(11L), result.getDoubleBookedCourses());
+        // Only the course created since startup is loaded, for its time slot
+        verify(scheduleIndex, times(1)).track(created);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testRemoveInstructors() {
+        Collection<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(instructorRepository.deleteByNumInstructorIn(ids)).thenReturn(2);
+        cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).put(2L, new InstructorDTO());
+
+        int deleted = instructorBulkServices.removeInstructors(ids);
+
+        assertEquals(2, deleted);
+        verify(instructorRepository, times(1)).deleteCourseLinksByIds(ids);
+        assertNull(cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(2L));
+        verify(leaderboard, times(1)).removeAll(ids);
+        verify(scheduleIndex, times(1)).removeInstructors(ids);
+        verify(nameIndex, times(1)).removeAll(ids);
+    }
+
+    @Test
+    void testRemoveInstructors_AppliedAfterCommit() {
+        Collection<Long> ids = Collections.singletonList(1L);
+        when(instructorRepository.findAllDTOs()).thenReturn(Collections.singletonList(
+                new InstructorDTO(1L, "John", "Doe", LocalDate.of(2010, 1, 1), 0L)));
+        when(instructorRepository.findAllNames()).thenReturn(Collections.singletonList(new NameMatchDTO(1L, "John", "Doe")));
+        SeniorityLeaderboard realLeaderboard = new SeniorityLeaderboard(instructorRepository);
+        realLeaderboard.rebuild();
+        InstructorNameIndex realNameIndex = new InstructorNameIndex(instructorRepository);
+        realNameIndex.rebuild();
+        InstructorDataVersion dataVersion = new InstructorDataVersion();
+        CacheManager transactionalCaches = new TransactionAwareCacheManagerProxy(new ConcurrentMapCacheManager(CacheConfig.INSTRUCTOR_VIEWS));
+        transactionalCaches.getCache(CacheConfig.INSTRUCTOR_VIEWS).put(1L, new InstructorDTO());
+        InstructorBulkServicesImpl services = new InstructorBulkServicesImpl(instructorRepository, courseRepository, jdbcTemplate,
+                entityManager, transactionManager, transactionalCaches, dataVersion, realLeaderboard, scheduleIndex, realNameIndex, 2);
+        String version = dataVersion.current();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            services.removeInstructors(ids);
+
+            // A rollback from here on would leave every in-memory view as it was
+            assertEquals(1, realLeaderboard.size());
+            assertEquals(1, realNameIndex.size());
+            assertNotNull(transactionalCaches.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(1L));
+            assertEquals(version, dataVersion.current());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, realLeaderboard.size());
+        assertEquals(0, realNameIndex.size());
+        assertNull(transactionalCaches.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(1L));
+        assertNotEquals(version, dataVersion.current());
+    }
+
+    @Test
+    void testRemoveInstructorsHiredBetween_OpenEnded() {
+        LocalDate hiredTo = LocalDate.of(2000, 12, 31);
+        when(instructorRepository.deleteHiredBetween(any(LocalDate.class), eq(hiredTo))).thenReturn(4);
+        when(instructorRepository.findIdsHiredBetween(any(LocalDate.class), eq(hiredTo))).thenReturn(Arrays.asList(5L, 6L));
+
+        int deleted = instructorBulkServices.removeInstructorsHiredBetween(null, hiredTo);
+
+        assertEquals(4, deleted);
+        verify(instructorRepository, times(1)).deleteCourseLinksHiredBetween(any(LocalDate.class), eq(hiredTo));
+        verify(leaderboard, times(1)).removeHiredBetween(null, hiredTo);
+        verify(scheduleIndex, times(1)).removeInstructors(Arrays.asList(5L, 6L));
+        verify(nameIndex, times(1)).removeAll(Arrays.asList(5L, 6L));
+    }
+}
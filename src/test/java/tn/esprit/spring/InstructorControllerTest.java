@@ -1,21 +1,63 @@
 package tn.esprit.spring;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tn.esprit.spring.configs.BinaryFormatsConfig;
+import tn.esprit.spring.configs.RequestExecutors;
 import tn.esprit.spring.controllers.InstructorRestController;
+import tn.esprit.spring.dto.CourseDTO;
+import tn.esprit.spring.dto.ImportChunkResultDTO;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
 import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.services.IInstructorBulkServices;
 import tn.esprit.spring.services.IInstructorServices;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorDoubleBookedException;
 
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,6 +68,19 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
    @Mock
    private IInstructorServices instructorServices;
 
+   @Mock
+   private IInstructorBulkServices instructorBulkServices;
+
+   @Spy
+   private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+   // Runs the asynchronous handlers on the calling thread
+   @Spy
+   private RequestExecutors requestExecutors = new RequestExecutors(Runnable::run, Runnable::run);
+
+   @Spy
+   private InstructorDataVersion dataVersion = new InstructorDataVersion();
+
    @InjectMocks
    private InstructorRestController instructorRestController;
 
@@ -33,6 +88,8 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
 
    private Instructor instructor;
 
+   private InstructorDTO instructorDto;
+
    @BeforeEach
     void setup() {
       MockitoAnnotations.openMocks(this);
@@ -43,6 +100,15 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
       instructor.setNumInstructor(1L);
       instructor.setFirstName("John");
       instructor.setLastName("Doe");
+
+      instructorDto = new InstructorDTO(1L, "John", "Doe", null);
+   }
+
+   private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+      MvcResult result = mockMvc.perform(builder)
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      return mockMvc.perform(asyncDispatch(result));
    }
 
    @Test
@@ -71,17 +137,202 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
       verify(instructorServices, times(1)).addInstructorAndAssignToCourse(any(Instructor.class), eq(1L));
    }
 
+   @Test
+    void testImportInstructors_Ndjson() throws Exception {
+      List<Instructor> received = new ArrayList<>();
+      when(instructorBulkServices.importInstructors(any())).thenAnswer(invocation -> {
+         Iterator<Instructor> rows = invocation.getArgument(0);
+         rows.forEachRemaining(received::add);
+         return Arrays.asList(new ImportChunkResultDTO(0, received.size(), received.size(), 0, null));
+      });
+
+      mockMvc.perform(post("/instructor/batch")
+                      .contentType(MediaType.APPLICATION_NDJSON)
+                      .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"dateOfHire\":\"2015-03-01\"}\n"
+                              + "{\"firstName\":\"Jane\",\"lastName\":\"Roe\"}\n"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$[0].inserted").value(2));
+
+      assertEquals(2, received.size());
+      assertEquals("Jane", received.get(1).getFirstName());
+      assertEquals(LocalDate.of(2015, 3, 1), received.get(0).getDateOfHire());
+   }
+
+   @Test
+    void testImportInstructors_JsonArray() throws Exception {
+      List<Instructor> received = new ArrayList<>();
+      when(instructorBulkServices.importInstructors(any())).thenAnswer(invocation -> {
+         Iterator<Instructor> rows = invocation.getArgument(0);
+         rows.forEachRemaining(received::add);
+         return Arrays.asList(new ImportChunkResultDTO(0, received.size(), received.size(), 0, null));
+      });
+
+      mockMvc.perform(post("/instructor/batch")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("[{\"firstName\":\"John\",\"lastName\":\"Doe\"},{\"firstName\":\"Jane\",\"lastName\":\"Roe\"}]"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$[0].received").value(2));
+
+      assertEquals(2, received.size());
+   }
+
    @Test
     void testGetAllInstructors() throws Exception {
-      List<Instructor> instructors = Arrays.asList(instructor);
+      List<InstructorDTO> instructors = Arrays.asList(instructorDto);
 
-      when(instructorServices.retrieveAllInstructors()).thenReturn(instructors);
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(instructors);
 
-      mockMvc.perform(get("/instructor/all"))
+      performAsync(get("/instructor/all"))
               .andExpect(status().isOk())
               .andExpect(content().json("[{\"numInstructor\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}]"));
 
-      verify(instructorServices, times(1)).retrieveAllInstructors();
+      verify(instructorServices, times(1)).retrieveAllInstructorDTOs();
+      verify(instructorServices, never()).retrieveAllInstructors();
+   }
+
+   @Test
+    void testGetAllInstructors_NotModified() throws Exception {
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+      String eTag = performAsync(get("/instructor/all"))
+              .andExpect(status().isOk())
+              .andExpect(header().exists(HttpHeaders.ETAG))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      performAsync(get("/instructor/all").header(HttpHeaders.IF_NONE_MATCH, eTag))
+              .andExpect(status().isNotModified())
+              .andExpect(header().string(HttpHeaders.ETAG, eTag))
+              .andExpect(content().string(""));
+
+      // The poll is answered without reaching the service
+      verify(instructorServices, times(1)).retrieveAllInstructorDTOs();
+   }
+
+   @Test
+    void testGetAllInstructors_ModifiedAfterWrite() throws Exception {
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+      String eTag = performAsync(get("/instructor/all"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      dataVersion.bump();
+
+      performAsync(get("/instructor/all").header(HttpHeaders.IF_NONE_MATCH, eTag))
+              .andExpect(status().isOk())
+              .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+
+      verify(instructorServices, times(2)).retrieveAllInstructorDTOs();
+   }
+
+   @Test
+    void testGetAllInstructors_ETagDependsOnContentCoding() throws Exception {
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+      String identity = performAsync(get("/instructor/all"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      String gzip = performAsync(get("/instructor/all").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      assertNotEquals(identity, gzip);
+      performAsync(get("/instructor/all").header(HttpHeaders.IF_NONE_MATCH, identity)
+                      .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+              .andExpect(status().isOk());
+   }
+
+   @Test
+    void testGetAllInstructors_Smile() throws Exception {
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+      String json = performAsync(get("/instructor/all"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      MvcResult smile = performAsync(get("/instructor/all").accept(BinaryFormatsConfig.APPLICATION_SMILE))
+              .andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith(BinaryFormatsConfig.APPLICATION_SMILE))
+              .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+              .andReturn();
+
+      List<InstructorDTO> decoded = new ObjectMapper(new SmileFactory()).findAndRegisterModules()
+              .readValue(smile.getResponse().getContentAsByteArray(), new TypeReference<List<InstructorDTO>>() {
+              });
+      assertEquals(1, decoded.size());
+      assertEquals("John", decoded.get(0).getFirstName());
+      assertNotEquals(json, smile.getResponse().getHeader(HttpHeaders.ETAG));
+   }
+
+   @Test
+    void testGetAllInstructors_ETagFollowsPreferredFormat() throws Exception {
+      when(instructorServices.retrieveAllInstructorDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+      String json = performAsync(get("/instructor/all"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      performAsync(get("/instructor/all").header(HttpHeaders.ACCEPT, "application/x-jackson-smile;q=0.5, application/json"))
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+              .andExpect(header().string(HttpHeaders.ETAG, json));
+      performAsync(get("/instructor/all").header(HttpHeaders.IF_NONE_MATCH, json).accept(MediaType.APPLICATION_CBOR))
+              .andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+   }
+
+   @Test
+    void testGetInstructor() throws Exception {
+      when(instructorServices.retrieveInstructorDTO(1L)).thenReturn(instructorDto);
+
+      performAsync(get("/instructor/1"))
+              .andExpect(status().isOk())
+              .andExpect(content().json("{\"numInstructor\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}"));
+   }
+
+   @Test
+    void testGetInstructor_NotFound() throws Exception {
+      when(instructorServices.retrieveInstructorDTO(2L)).thenReturn(null);
+
+      performAsync(get("/instructor/2"))
+              .andExpect(status().isNotFound());
+   }
+
+   @Test
+    void testGetInstructorsPage() throws Exception {
+      when(instructorServices.retrieveInstructorsAfter(isNull(), eq(1))).thenReturn(Arrays.asList(instructorDto));
+
+      performAsync(get("/instructor/page").param("size", "1"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.content[0].numInstructor").value(1))
+              .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+      verify(instructorServices, times(1)).retrieveInstructorsAfter(null, 1);
+   }
+
+   @Test
+    void testGetInstructorsPage_LastPage() throws Exception {
+      when(instructorServices.retrieveInstructorsAfter(eq(1L), anyInt())).thenReturn(Arrays.asList());
+
+      performAsync(get("/instructor/page").param("cursor", "MQ"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.content").isEmpty())
+              .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+      verify(instructorServices, times(1)).retrieveInstructorsAfter(1L, 50);
+   }
+
+   @Test
+    void testGetInstructorsPage_InvalidCursor() throws Exception {
+      performAsync(get("/instructor/page").param("cursor", "not-a-cursor"))
+              .andExpect(status().isBadRequest());
+
+      verify(instructorServices, never()).retrieveInstructorsAfter(any(), anyInt());
+   }
+
+   @Test
+    void testGetInstructorsWithCourses() throws Exception {
+      CourseDTO course = new CourseDTO(3L, 2, TypeCourse.INDIVIDUAL, Support.SNOWBOARD, 80f, 1);
+      when(instructorServices.retrieveInstructorsWithCoursesAfter(isNull(), eq(1))).thenReturn(Arrays.asList(
+              new InstructorWithCoursesDTO(1L, "John", "Doe", null, Arrays.asList(course))));
+
+      performAsync(get("/instructor/withCourses").param("size", "1"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.content[0].courses[0].typeCourse").value("INDIVIDUAL"))
+              .andExpect(jsonPath("$.content[0].courses[0].timeSlot").value(1))
+              .andExpect(jsonPath("$.nextCursor").isNotEmpty());
    }
 
    @Test
@@ -97,40 +348,230 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
       verify(instructorServices, times(1)).updateInstructor(any(Instructor.class));
    }
 
+   @Test
+    void testPatchInstructor() throws Exception {
+      when(instructorServices.patchInstructor(eq(1L), any(InstructorPatchDTO.class))).thenReturn(4L);
+
+      mockMvc.perform(patch("/instructor/1")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstName\":\"Jane\",\"version\":3}"))
+              .andExpect(status().isNoContent())
+              .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+      verify(instructorServices).patchInstructor(eq(1L), argThat(patch -> "Jane".equals(patch.getFirstName())
+              && patch.getLastName() == null && patch.getDateOfHire() == null && patch.getVersion() == 3L));
+      verify(instructorServices, never()).updateInstructor(any(Instructor.class));
+   }
+
+   @Test
+    void testPatchInstructor_Conflict() throws Exception {
+      when(instructorServices.patchInstructor(eq(1L), any(InstructorPatchDTO.class)))
+              .thenThrow(new OptimisticLockException("Instructor 1 was modified since version 3"));
+
+      mockMvc.perform(patch("/instructor/1")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"lastName\":\"Smith\",\"version\":3}"))
+              .andExpect(status().isConflict());
+   }
+
+   @Test
+    void testPatchInstructor_NotFound() throws Exception {
+      when(instructorServices.patchInstructor(eq(9L), any(InstructorPatchDTO.class)))
+              .thenThrow(new EntityNotFoundException("Instructor with ID 9 not found"));
+
+      mockMvc.perform(patch("/instructor/9")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"lastName\":\"Smith\",\"version\":0}"))
+              .andExpect(status().isNotFound());
+   }
+
+   @Test
+    void testPatchInstructor_MissingVersionOrBlankName() throws Exception {
+      mockMvc.perform(patch("/instructor/1")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstName\":\"Jane\"}"))
+              .andExpect(status().isBadRequest());
+      mockMvc.perform(patch("/instructor/1")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstName\":\" \",\"version\":3}"))
+              .andExpect(status().isBadRequest());
+
+      verify(instructorServices, never()).patchInstructor(anyLong(), any(InstructorPatchDTO.class));
+   }
+
    @Test
     void testAssignInstructorToCourse() throws Exception {
-      when(instructorServices.retrieveInstructor(1L)).thenReturn(instructor);
+      when(instructorServices.retrieveInstructorDTO(1L)).thenReturn(instructorDto);
       when(instructorServices.addInstructorAndAssignToCourse(any(Instructor.class), eq(1L))).thenReturn(instructor);
 
       mockMvc.perform(post("/instructor/1/assign/1"))
               .andExpect(status().isOk())
               .andExpect(content().json("{\"numInstructor\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}"));
 
-      verify(instructorServices, times(1)).addInstructorAndAssignToCourse(any(Instructor.class), eq(1L));
+      verify(instructorServices, times(1)).addInstructorAndAssignToCourse(argThat(sent -> sent.getNumInstructor() == 1L && sent.getCourses() == null), eq(1L));
+   }
+
+   @Test
+    void testAssignInstructorToCourse_UnknownInstructor() throws Exception {
+      mockMvc.perform(post("/instructor/9/assign/1"))
+              .andExpect(status().isNotFound());
+
+      verify(instructorServices, never()).addInstructorAndAssignToCourse(any(Instructor.class), anyLong());
+   }
+
+   @Test
+    void testAssignInstructorToCourse_DoubleBooked() throws Exception {
+      when(instructorServices.retrieveInstructorDTO(1L)).thenReturn(instructorDto);
+      when(instructorServices.addInstructorAndAssignToCourse(any(Instructor.class), eq(1L)))
+              .thenThrow(new InstructorDoubleBookedException(1L, 1L));
+
+      mockMvc.perform(post("/instructor/1/assign/1"))
+              .andExpect(status().isConflict());
+   }
+
+   @Test
+    void testGetMostSeniorInstructors() throws Exception {
+      when(instructorServices.getMostSeniorInstructors(3)).thenReturn(Arrays.asList(instructorDto));
+
+      mockMvc.perform(get("/instructor/top").param("k", "3"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$[0].numInstructor").value(1));
+      mockMvc.perform(get("/instructor/top").param("k", "0"))
+              .andExpect(status().isBadRequest());
+
+      verify(instructorServices, times(1)).getMostSeniorInstructors(anyInt());
+   }
+
+   @Test
+    void testSearchInstructors() throws Exception {
+      when(instructorServices.searchInstructors("jo do", 50)).thenReturn(Collections.singletonList(new NameMatchDTO(1L, "John", "Doe")));
+
+      mockMvc.perform(get("/instructor/search").param("q", "jo do").param("limit", "1000"))
+              .andExpect(status().isOk())
+              .andExpect(content().json("[{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}]"));
+      mockMvc.perform(get("/instructor/search").param("q", "jo").param("limit", "0"))
+              .andExpect(status().isBadRequest());
+
+      verify(instructorServices, times(1)).searchInstructors(anyString(), anyInt());
+   }
+
+   @Test
+    void testFindTimeSlotConflicts() throws Exception {
+      when(instructorServices.findTimeSlotConflicts()).thenReturn(Collections.singletonList(
+              new TimeSlotConflictDTO(1L, 2, Arrays.asList(10L, 11L))));
+
+      mockMvc.perform(get("/instructor/timeSlotConflicts"))
+              .andExpect(status().isOk())
+              .andExpect(content().json("[{\"numInstructor\":1,\"timeSlot\":2,\"courses\":[10,11]}]"));
    }
 
    @Test
     void testGetYearsOfService() throws Exception {
       when(instructorServices.getYearsOfService(1L)).thenReturn(5); // Example years of service
 
-      mockMvc.perform(get("/instructor/yearsOfService/1"))
+      performAsync(get("/instructor/yearsOfService/1"))
               .andExpect(status().isOk())
               .andExpect(content().string("5"));
 
       verify(instructorServices, times(1)).getYearsOfService(1L);
    }
 
+   @Test
+    void testGetYearsOfService_UnknownInstructor() throws Exception {
+      when(instructorServices.getYearsOfService(9L)).thenReturn(0);
+
+      performAsync(get("/instructor/yearsOfService/9"))
+              .andExpect(status().isOk())
+              .andExpect(content().string("0"));
+   }
+
+   @Test
+    void testGetYearsOfService_PoolSaturated() throws Exception {
+      doReturn((Executor) command -> {
+         throw new RejectedExecutionException("pool saturated");
+      }).when(requestExecutors).getPointLookups();
+
+      mockMvc.perform(get("/instructor/yearsOfService/1"))
+              .andExpect(status().isServiceUnavailable())
+              .andExpect(header().string("Retry-After", "1"));
+
+      verify(instructorServices, never()).getYearsOfService(any());
+   }
+
    @Test
     void testGetInstructorsSortedBySeniority() throws Exception {
-      List<Instructor> sortedInstructors = Arrays.asList(instructor);
+      List<InstructorDTO> sortedInstructors = Arrays.asList(instructorDto);
+
+      when(instructorServices.getInstructorsSortedBySeniority(null, null, null, Pageable.unpaged()))
+              .thenReturn(new PageImpl<>(sortedInstructors));
+
+      performAsync(get("/instructor/sortedBySeniority"))
+              .andExpect(status().isOk())
+              .andExpect(header().string("X-Total-Count", "1"))
+              .andExpect(content().json("[{\"numInstructor\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}]"));
 
-      when(instructorServices.getInstructorsSortedBySeniority()).thenReturn(sortedInstructors);
+      verify(instructorServices, times(1)).getInstructorsSortedBySeniority(null, null, null, Pageable.unpaged());
+   }
 
-      mockMvc.perform(get("/instructor/sortedBySeniority"))
+   @Test
+    void testGetInstructorsSortedBySeniority_FilteredAndPaged() throws Exception {
+      LocalDate hiredFrom = LocalDate.of(2010, 1, 1);
+      PageRequest pageRequest = PageRequest.of(2, 10);
+
+      when(instructorServices.getInstructorsSortedBySeniority(hiredFrom, null, "doe", pageRequest))
+              .thenReturn(new PageImpl<>(Arrays.asList(instructorDto), pageRequest, 21));
+
+      performAsync(get("/instructor/sortedBySeniority")
+                      .param("hiredFrom", "2010-01-01")
+                      .param("name", "doe")
+                      .param("page", "2")
+                      .param("size", "10"))
               .andExpect(status().isOk())
+              .andExpect(header().string("X-Total-Count", "21"))
               .andExpect(content().json("[{\"numInstructor\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}]"));
+   }
+
+   @Test
+    void testGetInstructorsSortedBySeniority_NotModified() throws Exception {
+      String eTag = "\"" + dataVersion.current() + "\"";
+
+      performAsync(get("/instructor/sortedBySeniority").header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag))
+              .andExpect(status().isNotModified())
+              .andExpect(header().doesNotExist("X-Total-Count"));
+
+      verify(instructorServices, never()).getInstructorsSortedBySeniority(any(), any(), any(), any());
+   }
+
+   @Test
+    void testRemoveInstructors_ByIds() throws Exception {
+      when(instructorBulkServices.removeInstructors(Arrays.asList(1L, 2L))).thenReturn(2);
+
+      mockMvc.perform(delete("/instructor")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"ids\":[1,2]}"))
+              .andExpect(status().isOk())
+              .andExpect(content().string("2"));
+   }
+
+   @Test
+    void testRemoveInstructors_ByHireDateRange() throws Exception {
+      when(instructorBulkServices.removeInstructorsHiredBetween(LocalDate.of(2000, 1, 1), null)).thenReturn(3);
+
+      mockMvc.perform(delete("/instructor")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"hiredFrom\":\"2000-01-01\"}"))
+              .andExpect(status().isOk())
+              .andExpect(content().string("3"));
+   }
+
+   @Test
+    void testRemoveInstructors_IdsAndRange() throws Exception {
+      mockMvc.perform(delete("/instructor")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"ids\":[1],\"hiredTo\":\"2000-01-01\"}"))
+              .andExpect(status().isBadRequest());
 
-      verify(instructorServices, times(1)).getInstructorsSortedBySeniority();
+      verifyNoInteractions(instructorBulkServices);
    }
 
    @Test
@@ -0,0 +1,200 @@
+package tn.esprit.spring;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.InstructorWithCoursesDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorNameIndex;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+import tn.esprit.spring.services.InstructorServicesImpl;
+import tn.esprit.spring.services.SeniorityLeaderboard;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class InstructorRepositoryTest {
+
+    private static final int INSTRUCTORS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private IInstructorRepository instructorRepository;
+
+    @Autowired
+    private ICourseRepository courseRepository;
+
+    private InstructorServicesImpl instructorServices;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        instructorServices = new InstructorServicesImpl(instructorRepository, courseRepository, new InstructorDataVersion(),
+                new SeniorityLeaderboard(instructorRepository), new InstructorScheduleIndex(courseRepository, instructorRepository),
+                new InstructorNameIndex(instructorRepository));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < INSTRUCTORS; i++) {
+            Set<Course> courses = new HashSet<>();
+            for (int c = 0; c < 2; c++) {
+                courses.add(entityManager.persist(new Course(null, c + 1, TypeCourse.COLLECTIVE_ADULT, Support.SKI, 40f + c, c, null)));
+            }
+            Instructor instructor = new Instructor();
+            instructor.setFirstName("First" + i);
+            instructor.setLastName("Last" + i);
+            instructor.setDateOfHire(LocalDate.of(2010, 1, 1).plusDays(i));
+            instructor.setCourses(courses);
+            entityManager.persist(instructor);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, INSTRUCTORS})
+    void testInstructorsWithCourses_QueryCountDoesNotGrowWithPageSize(int size) {
+        List<InstructorWithCoursesDTO> page = instructorServices.retrieveInstructorsWithCoursesAfter(null, size);
+
+        assertEquals(size, page.size());
+        for (InstructorWithCoursesDTO instructor : page) {
+            assertEquals(2, instructor.getCourses().size());
+            assertEquals(TypeCourse.COLLECTIVE_ADULT, instructor.getCourses().get(0).getTypeCourse());
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testInstructorsWithCourses_FollowsTheCursor() {
+        List<InstructorWithCoursesDTO> first = instructorServices.retrieveInstructorsWithCoursesAfter(null, 10);
+        List<InstructorWithCoursesDTO> second = instructorServices.retrieveInstructorsWithCoursesAfter(
+                first.get(first.size() - 1).getNumInstructor(), 25);
+
+        assertEquals(INSTRUCTORS - 10, second.size());
+        assertTrue(second.get(0).getNumInstructor() > first.get(9).getNumInstructor());
+        assertTrue(instructorServices.retrieveInstructorsWithCoursesAfter(second.get(second.size() - 1).getNumInstructor(), 5).isEmpty());
+    }
+
+    @Test
+    void testPatch_SingleStatementOnlySentFields() {
+        Long id = instructorRepository.findIdsAfter(0L, PageRequest.of(0, 1)).get(0);
+        statistics.clear();
+
+        assertEquals(1, instructorRepository.patch(id, new InstructorPatchDTO("Jane", null, null, 0L)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Instructor patched = instructorRepository.findById(id).orElseThrow(IllegalStateException::new);
+        assertEquals("Jane", patched.getFirstName());
+        assertEquals("Last0", patched.getLastName());
+        assertEquals(LocalDate.of(2010, 1, 1), patched.getDateOfHire());
+        assertEquals(1L, patched.getVersion());
+    }
+
+    @Test
+    void testPatch_StaleVersionMatchesNoRow() {
+        Long id = instructorRepository.findIdsAfter(0L, PageRequest.of(0, 1)).get(0);
+        instructorRepository.patch(id, new InstructorPatchDTO(null, "Smith", null, 0L));
+
+        assertEquals(0, instructorRepository.patch(id, new InstructorPatchDTO(null, "Brown", null, 0L)));
+
+        entityManager.clear();
+        assertEquals("Smith", instructorRepository.findById(id).orElseThrow(IllegalStateException::new).getLastName());
+    }
+
+    @Test
+    void testScheduleIndex_SeededFromTheJoinTable() {
+        InstructorScheduleIndex scheduleIndex = new InstructorScheduleIndex(courseRepository, instructorRepository);
+        scheduleIndex.rebuild();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(INSTRUCTORS * 2, instructorRepository.findAllTimeSlots().size());
+        assertTrue(scheduleIndex.findConflicts().isEmpty());
+
+        // Every instructor teaches slots 0 and 1: a new course in slot 0 double-books anyone
+        Long numInstructor = instructorRepository.findIdsAfter(0L, PageRequest.of(0, 1)).get(0);
+        Course extra = entityManager.persistAndFlush(new Course(null, 1, TypeCourse.INDIVIDUAL, Support.SKI, 90f, 0, null));
+        scheduleIndex.track(extra);
+        assertEquals(Collections.singletonList(extra.getNumCourse()),
+                scheduleIndex.tryAssign(Collections.singletonMap(extra.getNumCourse(), numInstructor)));
+    }
+
+    @Test
+    void testSeniority_IndexOrderWithoutHireDateLeftOut() {
+        Instructor unhired = new Instructor();
+        unhired.setFirstName("No");
+        unhired.setLastName("Date");
+        entityManager.persistAndFlush(unhired);
+
+        List<InstructorDTO> page = instructorRepository.findDTOsBySeniority(null, null, null, PageRequest.of(0, 100)).getContent();
+
+        assertEquals(INSTRUCTORS, page.size());
+        assertEquals("First0", page.get(0).getFirstName());
+        assertEquals("First" + (INSTRUCTORS - 1), page.get(INSTRUCTORS - 1).getFirstName());
+    }
+
+    @Test
+    void testCourseLink_MovedToTheNewInstructor() {
+        List<Long> ids = instructorRepository.findIdsAfter(0L, PageRequest.of(0, 2));
+        Long numCourse = instructorRepository.findById(ids.get(0)).orElseThrow(IllegalStateException::new)
+                .getCourses().iterator().next().getNumCourse();
+        entityManager.clear();
+
+        assertEquals(Collections.singletonList(ids.get(0)), instructorRepository.findIdsByCourse(numCourse));
+        assertEquals(1, instructorRepository.deleteCourseLink(numCourse));
+        assertTrue(instructorRepository.findIdsByCourse(numCourse).isEmpty());
+        entityManager.clear();
+        assertEquals(1, instructorRepository.findById(ids.get(0)).orElseThrow(IllegalStateException::new).getCourses().size());
+    }
+
+    @Test
+    void testNameIndex_SeededWithOneQuery() {
+        InstructorNameIndex nameIndex = new InstructorNameIndex(instructorRepository);
+        nameIndex.rebuild();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(INSTRUCTORS, nameIndex.size());
+        assertEquals("First12", nameIndex.search("last12", 1).get(0).getFirstName());
+        // Last1 then Last10 to Last19 come before the names one letter away
+        List<NameMatchDTO> matches = nameIndex.search("last1", 11);
+        assertEquals("Last1", matches.get(0).getLastName());
+        assertTrue(matches.stream().allMatch(match -> match.getLastName().startsWith("Last1")));
+    }
+
+    // What the fetch join avoids: touching the lazy collections costs one query per instructor
+    @Test
+    void testLazyCourses_CostOneQueryPerInstructor() {
+        List<Instructor> instructors = instructorRepository.findAllById(instructorRepository.findIdsAfter(0L, PageRequest.of(0, 10)));
+        instructors.forEach(instructor -> instructor.getCourses().size());
+
+        assertEquals(2 + 10, statistics.getPrepareStatementCount());
+    }
+}
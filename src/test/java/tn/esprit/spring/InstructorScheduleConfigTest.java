@@ -0,0 +1,76 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.configs.InstructorScheduleConfig;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(InstructorScheduleConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InstructorScheduleConfigTest {
+
+    @MockBean
+    private InstructorScheduleIndex scheduleIndex;
+
+    @Autowired
+    private ICourseRepository courseRepository;
+
+    @Autowired
+    private ISubscriptionRepository subscriptionRepository;
+
+    @AfterEach
+    void tearDown() {
+        courseRepository.deleteAll();
+        subscriptionRepository.deleteAll();
+    }
+
+    @Test
+    void testCourseWrites_ReachTheIndexOnceCommitted() {
+        // The same instance is saved twice: record the slot as the index saw it
+        List<Integer> slots = new ArrayList<>();
+        doAnswer(invocation -> slots.add(invocation.<Course>getArgument(0).getTimeSlot()))
+                .when(scheduleIndex).courseChanged(any());
+
+        Course course = courseRepository.save(new Course(null, 1, TypeCourse.INDIVIDUAL, Support.SKI, 90f, 2, null));
+        course.setTimeSlot(5);
+        courseRepository.save(course);
+        courseRepository.delete(course);
+
+        assertEquals(Arrays.asList(2, 5), slots);
+        verify(scheduleIndex, times(1)).courseRemoved(course.getNumCourse());
+    }
+
+    @Test
+    void testOtherEntities_Ignored() {
+        Subscription subscription = subscriptionRepository.save(
+                new Subscription(null, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31), 300f, TypeSubscription.MONTHLY));
+        subscriptionRepository.delete(subscription);
+
+        verify(scheduleIndex, never()).courseChanged(any());
+        verify(scheduleIndex, never()).courseRemoved(anyLong());
+    }
+}
@@ -0,0 +1,184 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.InstructorTimeSlotDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InstructorScheduleIndexTest {
+
+    private InstructorScheduleIndex scheduleIndex;
+
+    @BeforeEach
+    void setUp() {
+        ICourseRepository courseRepository = mock(ICourseRepository.class);
+        IInstructorRepository instructorRepository = mock(IInstructorRepository.class);
+        // Courses 10 to 14 in slots 1, 2, 1, 3, 2
+        when(courseRepository.findAll()).thenReturn(Arrays.asList(
+                course(10L, 1), course(11L, 2), course(12L, 1), course(13L, 3), course(14L, 2)));
+        // Instructor 1 teaches 10 (slot 1) and 11 (slot 2), instructor 2 teaches 12 (slot 1)
+        when(instructorRepository.findAllTimeSlots()).thenReturn(Arrays.asList(
+                new InstructorTimeSlotDTO(1L, 10L, 1), new InstructorTimeSlotDTO(1L, 11L, 2),
+                new InstructorTimeSlotDTO(2L, 12L, 1)));
+        scheduleIndex = new InstructorScheduleIndex(courseRepository, instructorRepository);
+        scheduleIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Course course(Long numCourse, int timeSlot) {
+        return new Course(numCourse, 1, TypeCourse.COLLECTIVE_ADULT, Support.SKI, 50f, timeSlot, null);
+    }
+
+    private static Map<Long, Long> assignments(long... courseThenInstructor) {
+        Map<Long, Long> assignments = new LinkedHashMap<>();
+        for (int i = 0; i < courseThenInstructor.length; i += 2) {
+            assignments.put(courseThenInstructor[i], courseThenInstructor[i + 1]);
+        }
+        return assignments;
+    }
+
+    @Test
+    void testTryAssign_RejectsTakenSlotAndChangesNothing() {
+        // 12 is in slot 1, already taught by instructor 1 with course 10; 13 alone would be fine
+        assertEquals(Collections.singletonList(12L), scheduleIndex.tryAssign(assignments(13L, 1L, 12L, 1L)));
+
+        assertTrue(scheduleIndex.tryAssign(assignments(13L, 1L)).isEmpty());
+        assertTrue(scheduleIndex.findConflicts().isEmpty());
+    }
+
+    @Test
+    void testCourseChanged_MovesTheBookingToTheNewSlot() {
+        // 13 (slot 3) could go to instructor 1 until 11 moves to slot 3
+        scheduleIndex.courseChanged(course(11L, 3));
+
+        assertEquals(Collections.singletonList(13L), scheduleIndex.tryAssign(assignments(13L, 1L)));
+        assertTrue(scheduleIndex.tryAssign(assignments(14L, 1L)).isEmpty());
+
+        scheduleIndex.courseChanged(course(10L, 2));
+        List<TimeSlotConflictDTO> conflicts = scheduleIndex.findConflicts();
+        assertEquals(1, conflicts.size());
+        assertEquals(Arrays.asList(10L, 14L), conflicts.get(0).getCourses());
+    }
+
+    @Test
+    void testCourseRemoved_FreesItsSlot() {
+        scheduleIndex.courseRemoved(10L);
+
+        assertTrue(scheduleIndex.tryAssign(assignments(12L, 1L)).isEmpty());
+        assertEquals(Collections.singletonList(10L), scheduleIndex.untracked(Collections.singletonList(10L)));
+    }
+
+    @Test
+    void testTryAssign_SameSlotTwiceInOneRequest() {
+        assertEquals(Arrays.asList(11L, 14L), scheduleIndex.tryAssign(assignments(11L, 3L, 14L, 3L)));
+    }
+
+    @Test
+    void testTryAssign_CourseMovingAwayFreesItsSlot() {
+        // 10 leaves instructor 1 for instructor 3, so 12 can take slot 1 of instructor 1
+        assertTrue(scheduleIndex.tryAssign(assignments(10L, 3L, 12L, 1L)).isEmpty());
+
+        assertEquals(Collections.singletonList(14L), scheduleIndex.tryAssign(assignments(14L, 1L)));
+        assertTrue(scheduleIndex.tryAssign(assignments(14L, 2L)).isEmpty());
+    }
+
+    @Test
+    void testTryAssign_UndoneOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(scheduleIndex.tryAssign(assignments(12L, 3L, 14L, 3L)).isEmpty());
+        // Booked at once: a concurrent request cannot take the same slots
+        assertEquals(Collections.singletonList(10L), scheduleIndex.tryAssign(assignments(10L, 3L)));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        // 12 is back with instructor 2, so it still clashes with course 10 of instructor 1
+        assertEquals(Collections.singletonList(12L), scheduleIndex.tryAssign(assignments(12L, 1L)));
+        assertTrue(scheduleIndex.tryAssign(assignments(14L, 2L)).isEmpty());
+    }
+
+    @Test
+    void testFindConflicts_ListsPreexistingDoubleBookings() {
+        ICourseRepository courseRepository = mock(ICourseRepository.class);
+        IInstructorRepository instructorRepository = mock(IInstructorRepository.class);
+        // Written before the check existed: instructor 4 teaches 13 and 15, both in slot 3
+        when(instructorRepository.findAllTimeSlots()).thenReturn(Arrays.asList(
+                new InstructorTimeSlotDTO(4L, 13L, 3), new InstructorTimeSlotDTO(4L, 15L, 3),
+                new InstructorTimeSlotDTO(4L, 16L, 1)));
+        scheduleIndex = new InstructorScheduleIndex(courseRepository, instructorRepository);
+        scheduleIndex.rebuild();
+
+        List<TimeSlotConflictDTO> conflicts = scheduleIndex.findConflicts();
+
+        assertEquals(1, conflicts.size());
+        assertEquals(4L, conflicts.get(0).getNumInstructor());
+        assertEquals(3, conflicts.get(0).getTimeSlot());
+        assertEquals(Arrays.asList(13L, 15L), conflicts.get(0).getCourses());
+    }
+
+    @Test
+    void testTryReplaceCourses_RejectsTwoCoursesInOneSlot() {
+        assertEquals(Arrays.asList(10L, 12L),
+                scheduleIndex.tryReplaceCourses(3L, Arrays.asList(course(10L, 1), course(12L, 1))));
+
+        // Nothing changed: 12 is still taught by instructor 2
+        assertEquals(Collections.singletonList(12L), scheduleIndex.tryAssign(assignments(12L, 1L)));
+        assertTrue(scheduleIndex.findConflicts().isEmpty());
+    }
+
+    @Test
+    void testTryReplaceCourses_TakesEffectAtOnceAndUndoneOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        // Instructor 1 gives up 10 and 11 and takes 12 from instructor 2
+        assertTrue(scheduleIndex.tryReplaceCourses(1L, Arrays.asList(course(12L, 1), course(13L, 3))).isEmpty());
+        // 12 now holds slot 1 of instructor 1
+        assertEquals(Collections.singletonList(10L), scheduleIndex.tryAssign(assignments(10L, 1L)));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Back to instructor 1 teaching 10 and 11, instructor 2 teaching 12
+        assertEquals(Collections.singletonList(14L), scheduleIndex.tryAssign(assignments(14L, 1L)));
+        assertEquals(Collections.singletonList(10L), scheduleIndex.tryAssign(assignments(10L, 2L)));
+    }
+
+    @Test
+    void testRemove_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        scheduleIndex.removeInstructors(Collections.singletonList(2L));
+
+        assertEquals(Collections.singletonList(10L), scheduleIndex.tryAssign(assignments(10L, 2L)));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // 12 is free
+        assertTrue(scheduleIndex.tryAssign(assignments(12L, 1L, 10L, 3L)).isEmpty());
+    }
+}
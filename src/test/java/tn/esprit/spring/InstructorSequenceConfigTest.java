@@ -0,0 +1,50 @@
+package tn.esprit.spring;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQL57Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.spring.configs.InstructorSequenceConfig;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InstructorSequenceConfigTest {
+
+    private SessionFactoryImplementor sessionFactory;
+    private JdbcTemplate jdbcTemplate;
+    private InstructorSequenceConfig config;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        config = new InstructorSequenceConfig(entityManagerFactory, jdbcTemplate);
+    }
+
+    @Test
+    void testTableSequence_RaisedAboveTheHighestId() {
+        when(sessionFactory.getJdbcServices().getDialect()).thenReturn(new MySQL57Dialect());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1201L);
+
+        config.raiseInstructorSequence();
+
+        verify(jdbcTemplate, times(1)).update("update instructor_seq set next_val = ? where next_val < ?", 1201L, 1201L);
+    }
+
+    @Test
+    void testNativeSequence_LeftAlone() {
+        when(sessionFactory.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+
+        config.raiseInstructorSequence();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,153 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.configs.CacheConfig;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.IInstructorServices;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorNameIndex;
+import tn.esprit.spring.services.InstructorScheduleIndex;
+import tn.esprit.spring.services.InstructorServicesImpl;
+import tn.esprit.spring.services.SeniorityLeaderboard;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// The caches as the application proxies them, with the repositories mocked out
+@SpringJUnitConfig
+class InstructorServicesCachingTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Config {
+
+        @Bean
+        IInstructorServices instructorServices(IInstructorRepository instructorRepository, ICourseRepository courseRepository,
+                                               SeniorityLeaderboard leaderboard, InstructorScheduleIndex scheduleIndex,
+                                               InstructorNameIndex nameIndex) {
+            return new InstructorServicesImpl(instructorRepository, courseRepository, new InstructorDataVersion(),
+                    leaderboard, scheduleIndex, nameIndex);
+        }
+    }
+
+    @MockBean
+    private IInstructorRepository instructorRepository;
+
+    @MockBean
+    private ICourseRepository courseRepository;
+
+    @MockBean
+    private SeniorityLeaderboard leaderboard;
+
+    @MockBean
+    private InstructorScheduleIndex scheduleIndex;
+
+    @MockBean
+    private InstructorNameIndex nameIndex;
+
+    @Autowired
+    private IInstructorServices instructorServices;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Instructor instructor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        instructor = new Instructor();
+        instructor.setNumInstructor(1L);
+        instructor.setFirstName("John");
+        instructor.setLastName("Doe");
+        instructor.setDateOfHire(LocalDate.now().minusYears(5));
+        when(instructorRepository.findById(1L)).thenReturn(Optional.of(instructor));
+        when(instructorRepository.findDTOById(1L)).thenReturn(Optional.of(
+                new InstructorDTO(1L, "John", "Doe", instructor.getDateOfHire(), 0L)));
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+    }
+
+    @Test
+    void testReadsServedFromCache() {
+        assertEquals(5, instructorServices.getYearsOfService(1L));
+        assertEquals(5, instructorServices.getYearsOfService(1L));
+        assertEquals("John", instructorServices.retrieveInstructorDTO(1L).getFirstName());
+        assertEquals("John", instructorServices.retrieveInstructorDTO(1L).getFirstName());
+
+        verify(instructorRepository, times(1)).findById(1L);
+        verify(instructorRepository, times(1)).findDTOById(1L);
+    }
+
+    @Test
+    void testEntityNeverCached() {
+        Instructor first = instructorServices.retrieveInstructor(1L);
+        first.setFirstName("Changed");
+        instructorServices.retrieveInstructor(1L);
+
+        verify(instructorRepository, times(2)).findById(1L);
+        assertEquals("John", instructorServices.retrieveInstructorDTO(1L).getFirstName());
+    }
+
+    @Test
+    void testUnknownIdNotCached() {
+        when(instructorRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertEquals(0, instructorServices.getYearsOfService(9L));
+        assertNull(instructorServices.retrieveInstructorDTO(9L));
+
+        assertNull(cacheManager.getCache(CacheConfig.YEARS_OF_SERVICE).get(9L));
+        assertNull(cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(9L));
+    }
+
+    @Test
+    void testWritesEvictTheInstructor() {
+        instructorServices.getYearsOfService(1L);
+        instructorServices.retrieveInstructorDTO(1L);
+
+        instructorServices.updateInstructor(instructor);
+
+        assertNull(cacheManager.getCache(CacheConfig.YEARS_OF_SERVICE).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(1L));
+
+        instructorServices.getYearsOfService(1L);
+        when(instructorRepository.deleteByNumInstructor(1L)).thenReturn(1);
+        instructorServices.removeInstructor(1L);
+
+        assertNull(cacheManager.getCache(CacheConfig.YEARS_OF_SERVICE).get(1L));
+    }
+
+    @Test
+    void testEvictionWaitsForTheCommit() {
+        instructorServices.retrieveInstructorDTO(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            instructorServices.updateInstructor(instructor);
+
+            // Evicted once the transaction commits, not before
+            assertNotNull(cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(1L));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cacheManager.getCache(CacheConfig.INSTRUCTOR_VIEWS).get(1L));
+    }
+}
@@ -5,22 +5,41 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.dto.TimeSlotConflictDTO;
 import tn.esprit.spring.entities.Course;
 import tn.esprit.spring.entities.Instructor;
 import tn.esprit.spring.entities.TypeCourse;
 import tn.esprit.spring.repositories.ICourseRepository;
 import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.InstructorDataVersion;
+import tn.esprit.spring.services.InstructorDoubleBookedException;
+import tn.esprit.spring.services.InstructorNameIndex;
+import tn.esprit.spring.services.InstructorScheduleIndex;
 import tn.esprit.spring.services.InstructorServicesImpl;
+import tn.esprit.spring.services.SeniorityLeaderboard;
 
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 class InstructorServicesImplTest {
@@ -31,6 +50,18 @@ class InstructorServicesImplTest {
     @Mock
     private ICourseRepository courseRepository;
 
+    @Spy
+    private InstructorDataVersion dataVersion = new InstructorDataVersion();
+
+    @Mock
+    private SeniorityLeaderboard leaderboard;
+
+    @Mock
+    private InstructorScheduleIndex scheduleIndex;
+
+    @Mock
+    private InstructorNameIndex nameIndex;
+
     @InjectMocks
     private InstructorServicesImpl instructorServices;
 
@@ -85,6 +116,37 @@ class InstructorServicesImplTest {
         verify(instructorRepository, times(1)).findAll();
     }
 
+    @Test
+    void testRetrieveAllInstructorDTOs() {
+        when(instructorRepository.findAllDTOs()).thenReturn(Arrays.asList(instructorDto));
+
+        List<InstructorDTO> instructors = instructorServices.retrieveAllInstructorDTOs();
+
+        assertEquals(1, instructors.size());
+        verify(instructorRepository, never()).findAll();
+    }
+
+    @Test
+    void testRetrieveInstructorDTO() {
+        when(instructorRepository.findDTOById(1L)).thenReturn(Optional.of(instructorDto));
+
+        InstructorDTO found = instructorServices.retrieveInstructorDTO(1L);
+
+        assertEquals(instructor.getFirstName(), found.getFirstName());
+        verify(instructorRepository, never()).findById(1L);
+    }
+
+    @Test
+    void testRetrieveInstructorsAfter() {
+        when(instructorRepository.findDTOsAfter(0L, PageRequest.of(0, 10)))
+                .thenReturn(Arrays.asList(instructorDto));
+
+        List<InstructorDTO> instructors = instructorServices.retrieveInstructorsAfter(null, 10);
+
+        assertEquals(1, instructors.size());
+        verify(instructorRepository, times(1)).findDTOsAfter(0L, PageRequest.of(0, 10));
+    }
+
     @Test
     void testUpdateInstructor() {
         when(instructorRepository.save(instructor)).thenReturn(instructor);
@@ -124,6 +186,85 @@ class InstructorServicesImplTest {
         // Verify interactions
         verify(courseRepository, times(1)).findById(1L);
         verify(instructorRepository, times(1)).save(instructor);
+        // Not stored yet: its whole course set is booked once it has an id
+        verify(scheduleIndex, times(1)).tryReplaceCourses(1L, Collections.singleton(course));
+    }
+
+    @Test
+    void testAssignToCourse_ExistingInstructorKeepsItsCourses() {
+        Course taught = new Course();
+        taught.setNumCourse(2L);
+        Instructor stored = new Instructor();
+        stored.setNumInstructor(1L);
+        stored.setFirstName("John");
+        stored.setCourses(new HashSet<>(Collections.singletonList(taught)));
+        when(instructorRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(instructorRepository.save(stored)).thenReturn(stored);
+        Instructor reference = new Instructor();
+        reference.setNumInstructor(1L);
+
+        Instructor result = instructorServices.addInstructorAndAssignToCourse(reference, 1L);
+
+        assertSame(stored, result);
+        assertEquals(new HashSet<>(Arrays.asList(taught, course)), result.getCourses());
+        assertEquals("John", result.getFirstName());
+        // Taken from its previous instructor, the join table holds one instructor per course
+        verify(instructorRepository, times(1)).deleteCourseLink(1L);
+        verify(scheduleIndex, times(1)).tryAssign(Collections.singletonMap(1L, 1L));
+        verify(scheduleIndex, never()).tryReplaceCourses(any(), any());
+    }
+
+    @Test
+    void testAssignToCourse_DoubleBookingRejected() {
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(instructorRepository.findById(1L)).thenReturn(Optional.of(instructor));
+        when(scheduleIndex.tryAssign(Collections.singletonMap(1L, 1L))).thenReturn(Collections.singletonList(1L));
+
+        assertThrows(InstructorDoubleBookedException.class, () -> instructorServices.addInstructorAndAssignToCourse(instructor, 1L));
+        // Rejected before any write
+        verify(instructorRepository, never()).deleteCourseLink(any());
+        verify(instructorRepository, never()).save(any());
+        verify(leaderboard, never()).put(any());
+        verify(dataVersion, never()).bump();
+    }
+
+    @Test
+    void testUpdateInstructor_KeepsStoredCourses() {
+        Set<Course> taught = new HashSet<>(Collections.singletonList(course));
+        Instructor stored = new Instructor();
+        stored.setCourses(taught);
+        when(instructorRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+        instructor.setCourses(null);
+
+        instructorServices.updateInstructor(instructor);
+
+        assertSame(taught, instructor.getCourses());
+        verify(scheduleIndex, never()).tryReplaceCourses(any(), any());
+    }
+
+    @Test
+    void testUpdateInstructor_DoubleBookedCoursesRejected() {
+        Set<Course> courses = new HashSet<>(Collections.singletonList(course));
+        instructor.setCourses(courses);
+        when(scheduleIndex.tryReplaceCourses(1L, courses)).thenReturn(Collections.singletonList(1L));
+
+        assertThrows(InstructorDoubleBookedException.class, () -> instructorServices.updateInstructor(instructor));
+        verifyNoInteractions(instructorRepository);
+        verify(leaderboard, never()).put(any());
+    }
+
+    @Test
+    void testAddInstructor_DoubleBookedCoursesRejected() {
+        Set<Course> courses = new HashSet<>(Collections.singletonList(course));
+        instructor.setCourses(courses);
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+        when(scheduleIndex.tryReplaceCourses(1L, courses)).thenReturn(Collections.singletonList(1L));
+
+        assertThrows(InstructorDoubleBookedException.class, () -> instructorServices.addInstructor(instructor));
+        verify(leaderboard, never()).put(any());
+        verify(dataVersion, never()).bump();
     }
 
     @Test
@@ -136,6 +277,13 @@ class InstructorServicesImplTest {
         assertEquals(expectedYearsOfService, actualYearsOfService);
     }
 
+    @Test
+    void testGetYearsOfService_UnknownInstructor() {
+        when(instructorRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertEquals(0, instructorServices.getYearsOfService(9L));
+    }
+
     @Test
     void testGetInstructorsSortedBySeniority() {
         Instructor instructor1 = new Instructor();
@@ -147,19 +295,23 @@ class InstructorServicesImplTest {
         Instructor instructor3 = new Instructor();
         instructor3.setDateOfHire(LocalDate.now().minusYears(1));
 
-        List<Instructor> instructors = Arrays.asList(instructor2, instructor3, instructor1);
-        when(instructorRepository.findAll()).thenReturn(instructors);
+        // The ordering is done by the database, the service keeps it as is
+        List<Instructor> instructors = Arrays.asList(instructor1, instructor2, instructor3);
+        when(instructorRepository.findBySeniority(null, null, null, Pageable.unpaged()))
+                .thenReturn(new PageImpl<>(instructors));
 
         List<Instructor> sortedInstructors = instructorServices.getInstructorsSortedBySeniority();
 
         assertEquals(instructor1, sortedInstructors.get(0));
         assertEquals(instructor2, sortedInstructors.get(1));
         assertEquals(instructor3, sortedInstructors.get(2));
+        verify(instructorRepository, never()).findAll();
     }
 
     @Test
     void testGetInstructorsSortedBySeniority_Integration() {
-        when(instructorRepository.findAll()).thenReturn(Arrays.asList(instructor));
+        when(instructorRepository.findBySeniority(null, null, null, Pageable.unpaged()))
+                .thenReturn(new PageImpl<>(Arrays.asList(instructor)));
 
         List<Instructor> sortedInstructors = instructorServices.getInstructorsSortedBySeniority();
 
@@ -167,6 +319,70 @@ class InstructorServicesImplTest {
         assertFalse(sortedInstructors.isEmpty());
     }
 
+    @Test
+    void testGetInstructorsSortedBySeniority_Filtered() {
+        LocalDate hiredFrom = LocalDate.now().minusYears(20);
+        LocalDate hiredTo = LocalDate.now();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        when(instructorRepository.findDTOsBySeniority(hiredFrom, hiredTo, "%doe%", pageRequest))
+                .thenReturn(new PageImpl<>(Arrays.asList(instructorDto), pageRequest, 1));
+
+        Page<InstructorDTO> page = instructorServices.getInstructorsSortedBySeniority(hiredFrom, hiredTo, "  DoE ", pageRequest);
+
+        assertEquals(1, page.getTotalElements());
+        verify(instructorRepository, times(1)).findDTOsBySeniority(hiredFrom, hiredTo, "%doe%", pageRequest);
+    }
+
+    @Test
+    void testGetMostSeniorInstructors() {
+        when(leaderboard.top(3)).thenReturn(Arrays.asList(instructorDto));
+
+        assertEquals(Arrays.asList(instructorDto), instructorServices.getMostSeniorInstructors(3));
+        verifyNoInteractions(instructorRepository);
+    }
+
+    @Test
+    void testWritesFeedLeaderboard() {
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+        when(instructorRepository.deleteByNumInstructor(1L)).thenReturn(1);
+        InstructorPatchDTO patch = new InstructorPatchDTO(null, null, LocalDate.of(2001, 1, 1), 0L);
+        when(instructorRepository.patch(1L, patch)).thenReturn(1);
+
+        instructorServices.addInstructor(instructor);
+        instructorServices.updateInstructor(instructor);
+        instructorServices.patchInstructor(1L, patch);
+        instructorServices.removeInstructor(1L);
+
+        verify(leaderboard, times(2)).put(argThat(dto -> dto.getNumInstructor() == 1L));
+        verify(leaderboard, times(1)).patch(1L, patch, 1L);
+        verify(leaderboard, times(1)).remove(1L);
+        // The update sends no courses: the stored ones stay in the schedule
+        verify(scheduleIndex, times(1)).tryReplaceCourses(eq(1L), any());
+        verify(scheduleIndex, times(1)).removeInstructors(Collections.singletonList(1L));
+        verify(nameIndex, times(2)).put(1L, instructor.getFirstName(), instructor.getLastName());
+        verify(nameIndex, times(1)).patch(1L, null, null);
+        verify(nameIndex, times(1)).removeAll(Collections.singletonList(1L));
+    }
+
+    @Test
+    void testSearchInstructors() {
+        List<NameMatchDTO> matches = Collections.singletonList(new NameMatchDTO(1L, "John", "Doe"));
+        when(nameIndex.search("jo", 5)).thenReturn(matches);
+
+        assertEquals(matches, instructorServices.searchInstructors("jo", 5));
+        verifyNoInteractions(instructorRepository);
+    }
+
+    @Test
+    void testFindTimeSlotConflicts() {
+        List<TimeSlotConflictDTO> conflicts = Collections.singletonList(
+                new TimeSlotConflictDTO(1L, 2, Arrays.asList(10L, 11L)));
+        when(scheduleIndex.findConflicts()).thenReturn(conflicts);
+
+        assertEquals(conflicts, instructorServices.findTimeSlotConflicts());
+        verifyNoInteractions(instructorRepository, courseRepository);
+    }
+
     @Test
     void testGetYearsOfService_Integration() {
         when(instructorRepository.findById(1L)).thenReturn(Optional.of(instructor));
@@ -201,14 +417,18 @@ class InstructorServicesImplTest {
     void testRemoveInstructor() {
         Long instructorIdToRemove = 1L;
 
-        // Mock behavior to check if the instructor exists
-        when(instructorRepository.existsById(instructorIdToRemove)).thenReturn(true);
+        // A single DELETE reports whether the instructor existed
+        when(instructorRepository.deleteByNumInstructor(instructorIdToRemove)).thenReturn(1);
 
         // Call the method to remove the instructor
         instructorServices.removeInstructor(instructorIdToRemove);
 
-        // Verify that the delete method was called with the correct ID
-        verify(instructorRepository, times(1)).deleteById(instructorIdToRemove);
+        // Verify that the join rows and the instructor were deleted without any lookup
+        verify(instructorRepository, times(1)).deleteCourseLinks(instructorIdToRemove);
+        verify(instructorRepository, times(1)).deleteByNumInstructor(instructorIdToRemove);
+        verify(instructorRepository, never()).existsById(instructorIdToRemove);
+        verify(instructorRepository, never()).deleteById(instructorIdToRemove);
+        verify(dataVersion, times(1)).bump();
     }
 
     @Test
@@ -216,9 +436,83 @@ class InstructorServicesImplTest {
         Long instructorIdToRemove = 1L;
 
         // Mock behavior to simulate that the instructor does not exist
-        when(instructorRepository.existsById(instructorIdToRemove)).thenReturn(false);
+        when(instructorRepository.deleteByNumInstructor(instructorIdToRemove)).thenReturn(0);
 
         // Verify that an exception is thrown when trying to remove a non-existing instructor
         assertThrows(EntityNotFoundException.class, () -> instructorServices.removeInstructor(instructorIdToRemove));
+        verify(dataVersion, never()).bump();
+    }
+
+    @Test
+    void testUpdateInstructor_TakesStoredVersion() {
+        Instructor stored = new Instructor();
+        stored.setVersion(4L);
+        when(instructorRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+
+        instructorServices.updateInstructor(instructor);
+
+        assertEquals(4L, instructor.getVersion());
+    }
+
+    @Test
+    void testPatchInstructor() {
+        InstructorPatchDTO patch = new InstructorPatchDTO("Jane", null, null, 3L);
+        when(instructorRepository.patch(1L, patch)).thenReturn(1);
+
+        assertEquals(4L, instructorServices.patchInstructor(1L, patch));
+
+        // The conditional UPDATE is the only statement
+        verify(instructorRepository, never()).findById(1L);
+        verify(instructorRepository, never()).existsById(1L);
+        verify(instructorRepository, never()).save(any(Instructor.class));
+        verify(dataVersion, times(1)).bump();
+    }
+
+    @Test
+    void testPatchInstructor_StaleVersion() {
+        InstructorPatchDTO patch = new InstructorPatchDTO("Jane", null, null, 3L);
+        when(instructorRepository.patch(1L, patch)).thenReturn(0);
+        when(instructorRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(OptimisticLockException.class, () -> instructorServices.patchInstructor(1L, patch));
+        verify(dataVersion, never()).bump();
+    }
+
+    @Test
+    void testPatchInstructor_NotFound() {
+        InstructorPatchDTO patch = new InstructorPatchDTO("Jane", null, null, 3L);
+        when(instructorRepository.patch(1L, patch)).thenReturn(0);
+        when(instructorRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> instructorServices.patchInstructor(1L, patch));
+        verify(dataVersion, never()).bump();
+    }
+
+    @Test
+    void testWritesBumpDataVersion() {
+        when(instructorRepository.save(instructor)).thenReturn(instructor);
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        String initial = dataVersion.current();
+
+        instructorServices.addInstructor(instructor);
+        String afterAdd = dataVersion.current();
+        instructorServices.updateInstructor(instructor);
+        String afterUpdate = dataVersion.current();
+        instructorServices.addInstructorAndAssignToCourse(instructor, 1L);
+
+        assertNotEquals(initial, afterAdd);
+        assertNotEquals(afterAdd, afterUpdate);
+        assertNotEquals(afterUpdate, dataVersion.current());
+    }
+
+    @Test
+    void testReadsKeepDataVersion() {
+        when(instructorRepository.findAllDTOs()).thenReturn(Arrays.asList(instructorDto));
+        String initial = dataVersion.current();
+
+        instructorServices.retrieveAllInstructorDTOs();
+
+        assertEquals(initial, dataVersion.current());
     }
 }
@@ -0,0 +1,118 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.services.NameSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    private NameSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameSearchIndex(() -> Arrays.asList(
+                new NameMatchDTO(1L, "Zoé", "Lefèvre"),
+                new NameMatchDTO(2L, "Zoe", "Martin"),
+                new NameMatchDTO(3L, "Zoltan", "Kovács"),
+                new NameMatchDTO(4L, "Jean", "Dupont"),
+                new NameMatchDTO(5L, "Jeanne", "Dupond"),
+                new NameMatchDTO(6L, "Jérôme", "Müller"),
+                new NameMatchDTO(7L, "Søren", "Straße")));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(NameMatchDTO::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testWords_FoldsAccentsAndCase() {
+        assertEquals(Arrays.asList("zoe", "lefevre"), NameSearchIndex.words("Zoé", "Lefèvre"));
+        assertEquals(Arrays.asList("o", "brien", "strasse"), NameSearchIndex.words("O'Brien-Straße"));
+        assertEquals(Collections.singletonList("soren"), NameSearchIndex.words("  Søren  "));
+    }
+
+    @Test
+    void testSearch_AccentsIgnoredExactWordsFirst() {
+        assertEquals(Arrays.asList(1L, 2L), ids("ZOÉ", 2));
+        assertEquals(Arrays.asList(4L, 5L), ids("jean", 10));
+        assertEquals(Collections.singletonList(7L), ids("strasse", 10));
+        assertEquals(Collections.singletonList(3L), ids("kovacs", 10));
+        assertEquals(Collections.singletonList(1L), ids("z", 1));
+        assertEquals(7, index.size());
+    }
+
+    @Test
+    void testSearch_EveryWordMustMatchTheSamePerson() {
+        assertEquals(Arrays.asList(4L, 5L), ids("jean dup", 10));
+        assertEquals(Collections.singletonList(2L), ids("mar zo", 10));
+        // The other spelling is one letter away: ranked after the exact match
+        assertEquals(Arrays.asList(5L, 4L), ids("jean dupond", 10));
+    }
+
+    @Test
+    void testSearch_OneTypoForgiven() {
+        assertEquals(Collections.singletonList(6L), ids("muler", 10));
+        assertEquals(Collections.singletonList(2L), ids("mratin", 10));
+        assertEquals(Collections.singletonList(1L), ids("lefebvre", 10));
+        // Too short to guess
+        assertTrue(ids("zx", 10).isEmpty());
+        assertTrue(ids("", 10).isEmpty());
+        assertTrue(ids("jean", 0).isEmpty());
+    }
+
+    @Test
+    void testSearch_ScanIsCapped() {
+        List<NameMatchDTO> names = new ArrayList<>();
+        for (long id = 1; id <= NameSearchIndex.MAX_SCANNED; id++) {
+            names.add(new NameMatchDTO(id, "Jean", "Dupont"));
+        }
+        names.add(new NameMatchDTO(NameSearchIndex.MAX_SCANNED + 1L, "Jean", "Zola"));
+        NameSearchIndex crowded = new NameSearchIndex(() -> names);
+        crowded.rebuild();
+
+        // Every "jean" before the last one is read and rejected: the search gives up at the cap
+        assertTrue(crowded.search("jean zol", 10).isEmpty());
+        assertEquals(1, crowded.search("zola jean", 10).size());
+        assertEquals(10, crowded.search("jean dup", 10).size());
+    }
+
+    @Test
+    void testWrites_AppliedOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(8L, "Zora", "Blanc");
+        index.patch(2L, null, "Blanche");
+        index.removeAll(Collections.singletonList(4L));
+
+        assertTrue(ids("zora", 10).isEmpty());
+        assertEquals(Collections.singletonList(2L), ids("martin", 10));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        assertEquals(Collections.singletonList(8L), ids("zora", 10));
+        assertEquals(Arrays.asList(8L, 2L), ids("blanc", 10));
+        assertEquals("Zoe", index.search("blanche", 1).get(0).getFirstName());
+        assertTrue(ids("martin", 10).isEmpty());
+        assertEquals(Collections.singletonList(5L), ids("jean", 10));
+    }
+}
@@ -0,0 +1,103 @@
+package tn.esprit.spring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import tn.esprit.spring.configs.PersistenceMetricsInterceptor;
+import tn.esprit.spring.configs.PersistenceMetricsSessionListener;
+import tn.esprit.spring.configs.RequestExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceMetricsInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersistenceMetricsInterceptor interceptor;
+    private PersistenceMetricsSessionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new PersistenceMetricsInterceptor(meterRegistry);
+        listener = new PersistenceMetricsSessionListener();
+    }
+
+    private MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/instructor/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.get(name).tag("method", "GET").tag("uri", "/instructor/{id}").summary();
+    }
+
+    @Test
+    void testCountersRecordedPerEndpoint() {
+        MockHttpServletRequest request = request("/instructor/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        listener.jdbcPrepareStatementStart();
+        listener.jdbcPrepareStatementStart();
+        listener.flushEnd(1, 0);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(1, summary("persistence.request.statements").count());
+        assertEquals(2.0, summary("persistence.request.statements").totalAmount());
+        assertEquals(1.0, summary("persistence.request.flushes").totalAmount());
+        assertEquals(0.0, summary("persistence.request.entities.loaded").totalAmount());
+    }
+
+    @Test
+    void testCountersResetBetweenRequests() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        listener.jdbcPrepareStatementStart();
+
+        MockHttpServletRequest request = request("/instructor/{id}");
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(0.0, summary("persistence.request.statements").totalAmount());
+        assertEquals(0.0, summary("persistence.request.flushes").totalAmount());
+    }
+
+    @Test
+    void testCountersFollowTheRequestOntoTheWorker() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        RequestExecutors requestExecutors = new RequestExecutors(worker, worker);
+        try {
+            // Left over on the worker from earlier work: not part of the request
+            worker.submit(listener::jdbcPrepareStatementStart).get();
+            MockHttpServletRequest request = request("/instructor/{id}");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            interceptor.preHandle(request, response, null);
+            CompletableFuture.runAsync(() -> {
+                listener.jdbcPrepareStatementStart();
+                listener.flushEnd(1, 0);
+            }, requestExecutors.getPointLookups()).get();
+            interceptor.afterConcurrentHandlingStarted(request, response, null);
+
+            // The async dispatch runs the interceptor again, on a container thread
+            CompletableFuture.runAsync(() -> {
+                interceptor.preHandle(request, response, null);
+                interceptor.afterCompletion(request, response, null, null);
+            }).get();
+        } finally {
+            requestExecutors.shutdown();
+        }
+
+        assertEquals(1, summary("persistence.request.statements").count());
+        assertEquals(1.0, summary("persistence.request.statements").totalAmount());
+        assertEquals(1.0, summary("persistence.request.flushes").totalAmount());
+    }
+}
@@ -0,0 +1,62 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.controllers.PisteRestController;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.services.IPisteServices;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Collections;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+class PisteControllerTest {
+
+    @Mock
+    private IPisteServices pisteServices;
+
+    @InjectMocks
+    private PisteRestController pisteRestController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = standaloneSetup(pisteRestController).build();
+    }
+
+    @Test
+    void testSearchPistes() throws Exception {
+        when(pisteServices.findPistes(Color.BLACK, 2001, null, 30, 45))
+                .thenReturn(Collections.singletonList(new PisteDTO(1L, "Diable", Color.BLACK, 2500, 40)));
+
+        mockMvc.perform(get("/piste/search")
+                        .param("color", "BLACK")
+                        .param("minLength", "2001")
+                        .param("minSlope", "30")
+                        .param("maxSlope", "45"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"numPiste\":1,\"namePiste\":\"Diable\",\"color\":\"BLACK\",\"length\":2500,\"slope\":40}]"));
+
+        verify(pisteServices, times(1)).findPistes(Color.BLACK, 2001, null, 30, 45);
+    }
+
+    @Test
+    void testDeletePiste_UnknownId() throws Exception {
+        doThrow(new EntityNotFoundException("Piste with ID 9 not found")).when(pisteServices).removePiste(9L);
+
+        mockMvc.perform(delete("/piste/delete/9"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,128 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.EmptyResultDataAccessException;
+import tn.esprit.spring.dto.PisteDTO;
+import tn.esprit.spring.entities.Color;
+import tn.esprit.spring.entities.Piste;
+import tn.esprit.spring.repositories.IPisteRepository;
+import tn.esprit.spring.services.PisteIndex;
+import tn.esprit.spring.services.PisteServicesImpl;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PisteServicesImplTest {
+
+    @Mock
+    private IPisteRepository pisteRepository;
+
+    private PisteIndex pisteIndex;
+
+    private PisteServicesImpl pisteServices;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(pisteRepository.findAllDTOs()).thenReturn(Arrays.asList(
+                new PisteDTO(1L, "Diable", Color.BLACK, 2500, 40),
+                new PisteDTO(2L, "Mur", Color.BLACK, 1500, 45),
+                new PisteDTO(3L, "Combe", Color.RED, 2200, 35),
+                new PisteDTO(4L, "Face", Color.BLACK, 3000, 50)));
+        when(pisteRepository.save(any(Piste.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        pisteIndex = new PisteIndex(pisteRepository);
+        pisteIndex.rebuild();
+        pisteServices = new PisteServicesImpl(pisteRepository, pisteIndex);
+    }
+
+    private static List<Long> ids(List<PisteDTO> pistes) {
+        return pistes.stream().map(PisteDTO::getNumPiste).sorted().collect(Collectors.toList());
+    }
+
+    private static Piste piste(Long numPiste, Color color, int length, int slope) {
+        return new Piste(numPiste, "Piste " + numPiste, color, length, slope, null);
+    }
+
+    @Test
+    void testFindPistes_CombinedRanges() {
+        List<PisteDTO> found = pisteServices.findPistes(Color.BLACK, 2001, null, 30, 45);
+
+        assertEquals(Arrays.asList(1L), ids(found));
+        assertEquals("Diable", found.get(0).getNamePiste());
+        verify(pisteRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindPistes_Unconstrained() {
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), ids(pisteServices.findPistes(null, null, null, null, null)));
+        assertEquals(Arrays.asList(2L, 3L), ids(pisteServices.findPistes(null, 1500, 2200, null, null)));
+        assertTrue(pisteServices.findPistes(Color.GREEN, null, null, null, null).isEmpty());
+    }
+
+    @Test
+    void testAddPiste_IsIndexed() {
+        pisteServices.addPiste(piste(5L, Color.BLACK, 2100, 30));
+
+        assertEquals(Arrays.asList(1L, 5L), ids(pisteServices.findPistes(Color.BLACK, 2001, null, 30, 45)));
+        assertEquals(5, pisteIndex.size());
+    }
+
+    @Test
+    void testUpdatePiste_MovesBetweenColorsAndRanges() {
+        pisteServices.updatePiste(piste(1L, Color.RED, 1000, 20));
+
+        assertTrue(ids(pisteServices.findPistes(Color.BLACK, 2001, null, 30, 45)).isEmpty());
+        assertEquals(Arrays.asList(1L, 3L), ids(pisteServices.findPistes(Color.RED, null, null, null, null)));
+        assertEquals(Arrays.asList(1L), ids(pisteServices.findPistes(null, null, 1000, null, 20)));
+        assertEquals(4, pisteIndex.size());
+    }
+
+    @Test
+    void testRemovePiste_LeavesEveryView() {
+        pisteServices.removePiste(4L);
+
+        verify(pisteRepository, times(1)).deleteById(4L);
+        assertEquals(Arrays.asList(1L, 2L), ids(pisteServices.findPistes(Color.BLACK, null, null, null, null)));
+        assertTrue(pisteServices.findPistes(null, 2600, null, null, null).isEmpty());
+        assertEquals(3, pisteIndex.size());
+    }
+
+    @Test
+    void testRemovePiste_UnknownId() {
+        doThrow(new EmptyResultDataAccessException(1)).when(pisteRepository).deleteById(9L);
+
+        assertThrows(EntityNotFoundException.class, () -> pisteServices.removePiste(9L));
+        assertEquals(4, pisteIndex.size());
+    }
+
+    @Test
+    void testRemovals_CompactTheSlots() {
+        for (long id = 5; id <= 200; id++) {
+            pisteIndex.put(new PisteDTO(id, "Piste " + id, Color.BLUE, 1000 + (int) id, 20));
+        }
+        for (long id = 1; id < 100; id++) {
+            pisteIndex.remove(id);
+        }
+        assertEquals(200, pisteIndex.allocatedSlots());
+
+        // Half of the slots are dead: the snapshot keeps only the live ones
+        pisteIndex.remove(100L);
+
+        assertEquals(100, pisteIndex.allocatedSlots());
+        assertEquals(100, pisteIndex.size());
+        assertEquals(Arrays.asList(101L, 102L), ids(pisteServices.findPistes(Color.BLUE, null, 1102, null, null)));
+        pisteIndex.put(new PisteDTO(1L, "Diable", Color.BLACK, 2500, 40));
+        assertEquals(Arrays.asList(1L), ids(pisteServices.findPistes(Color.BLACK, null, null, null, null)));
+    }
+}
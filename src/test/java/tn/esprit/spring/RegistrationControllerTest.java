@@ -0,0 +1,100 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.controllers.RegistrationRestController;
+import tn.esprit.spring.dto.RegistrationIntakeDTO;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.services.CourseFullException;
+import tn.esprit.spring.services.IRegistrationIntakeServices;
+import tn.esprit.spring.services.IRegistrationServices;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+class RegistrationControllerTest {
+
+    @Mock
+    private IRegistrationServices registrationServices;
+
+    @Mock
+    private IRegistrationIntakeServices registrationIntakeServices;
+
+    @InjectMocks
+    private RegistrationRestController registrationRestController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = standaloneSetup(registrationRestController).build();
+    }
+
+    @Test
+    void testAddRegistration() throws Exception {
+        Registration saved = new Registration();
+        saved.setNumRegistration(7L);
+        saved.setNumWeek(10);
+        when(registrationServices.addRegistrationAndAssignToSkierAndCourse(any(Registration.class), eq(1L), eq(2L)))
+                .thenReturn(saved);
+
+        mockMvc.perform(put("/registration/addAndAssignToSkierAndCourse/1/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numWeek\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"numRegistration\":7,\"numWeek\":10,\"numSkier\":1,\"numCourse\":2}"));
+    }
+
+    @Test
+    void testAddRegistration_CourseFull() throws Exception {
+        when(registrationServices.addRegistrationAndAssignToSkierAndCourse(any(Registration.class), eq(1L), eq(2L)))
+                .thenThrow(new CourseFullException(2L, 10));
+
+        mockMvc.perform(put("/registration/addAndAssignToSkierAndCourse/1/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numWeek\":10}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testSubmitRegistration_Accepted() throws Exception {
+        when(registrationIntakeServices.submitRegistration(1L, 2L, 10))
+                .thenReturn(new RegistrationIntakeDTO("req-1", RegistrationIntakeDTO.Status.PENDING));
+
+        mockMvc.perform(post("/registration/intake/1/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numWeek\":10}"))
+                .andExpect(status().isAccepted())
+                .andExpect(content().json("{\"requestId\":\"req-1\",\"status\":\"PENDING\"}"));
+    }
+
+    @Test
+    void testGetRegistrationStatus_UnknownIsNotFound() throws Exception {
+        when(registrationIntakeServices.getRegistrationStatus("req-1"))
+                .thenReturn(new RegistrationIntakeDTO("req-1", RegistrationIntakeDTO.Status.UNKNOWN));
+
+        mockMvc.perform(get("/registration/intake/req-1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetPendingRegistrations_NotTakenForARequestId() throws Exception {
+        when(registrationIntakeServices.getPendingRegistrations()).thenReturn(3);
+
+        mockMvc.perform(get("/registration/intake/pending"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+}
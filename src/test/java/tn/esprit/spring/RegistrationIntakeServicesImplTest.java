@@ -0,0 +1,248 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.dto.RegistrationIntakeDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+import tn.esprit.spring.services.CourseCapacityLedger;
+import tn.esprit.spring.services.CourseFullException;
+import tn.esprit.spring.services.RegistrationIntakeServicesImpl;
+import tn.esprit.spring.services.RevenueAggregates;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RegistrationIntakeServicesImplTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private ISkierRepository skierRepository;
+
+    @Mock
+    private ICourseRepository courseRepository;
+
+    @Mock
+    private IRegistrationRepository registrationRepository;
+
+    @Mock
+    private RevenueAggregates revenueAggregates;
+
+    @TempDir
+    Path walDirectory;
+
+    private CourseCapacityLedger capacityLedger;
+
+    private RegistrationIntakeServicesImpl intakeServices;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+
+        Course course = new Course();
+        course.setNumCourse(1L);
+        course.setTypeCourse(TypeCourse.COLLECTIVE_ADULT);
+        when(courseRepository.findAll()).thenReturn(Collections.singletonList(course));
+        when(registrationRepository.countByCourseAndWeek())
+                .thenReturn(Collections.singletonList(new CourseWeekCountDTO(1L, 10, 5L)));
+        when(skierRepository.existsById(1L)).thenReturn(true);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        when(jdbcOperations.batchUpdate(anyString(), anyList()))
+                .thenAnswer(invocation -> ones(invocation.<List<?>>getArgument(1).size()));
+
+        capacityLedger = new CourseCapacityLedger(courseRepository, registrationRepository, 6, 1);
+        capacityLedger.seed();
+        intakeServices = newService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        intakeServices.stop();
+    }
+
+    // A long interval keeps the timer out of the way, the tests flush explicitly
+    private RegistrationIntakeServicesImpl newService() throws IOException {
+        RegistrationIntakeServicesImpl service = new RegistrationIntakeServicesImpl(jdbcTemplate, skierRepository,
+                courseRepository, capacityLedger, revenueAggregates, walDirectory.toString(), 100, 60_000, 60, 1000);
+        service.start();
+        return service;
+    }
+
+    private static int[] ones(int size) {
+        int[] counts = new int[size];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    @Test
+    void testSubmit_TakesSeatWithoutWriting() {
+        RegistrationIntakeDTO accepted = intakeServices.submitRegistration(1L, 1L, 10);
+
+        assertEquals(RegistrationIntakeDTO.Status.PENDING, accepted.getStatus());
+        assertEquals(0, capacityLedger.remaining(1L, 10));
+        assertThrows(CourseFullException.class, () -> intakeServices.submitRegistration(1L, 1L, 10));
+        assertEquals(RegistrationIntakeDTO.Status.PENDING,
+                intakeServices.getRegistrationStatus(accepted.getRequestId()).getStatus());
+        assertEquals(1, intakeServices.getPendingRegistrations());
+        verifyNoInteractions(jdbcOperations);
+    }
+
+    @Test
+    void testSubmit_RejectsUnknownSkierAndBadWeek() {
+        assertThrows(EntityNotFoundException.class, () -> intakeServices.submitRegistration(2L, 1L, 10));
+        assertThrows(IllegalArgumentException.class, () -> intakeServices.submitRegistration(1L, 1L, 0));
+        assertEquals(6, capacityLedger.remaining(1L, 11));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesConcurrentSubmissionsInOneBatch() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<RegistrationIntakeDTO>> submissions = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            int numWeek = 20 + i % 4;
+            submissions.add(() -> intakeServices.submitRegistration(1L, 1L, numWeek));
+        }
+        List<RegistrationIntakeDTO> accepted = new ArrayList<>();
+        for (Future<RegistrationIntakeDTO> future : pool.invokeAll(submissions)) {
+            accepted.add(future.get());
+        }
+        pool.shutdown();
+
+        intakeServices.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcOperations, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(24, rows.getValue().size());
+        assertEquals(0, intakeServices.getPendingRegistrations());
+        for (RegistrationIntakeDTO request : accepted) {
+            assertEquals(RegistrationIntakeDTO.Status.COMMITTED,
+                    intakeServices.getRegistrationStatus(request.getRequestId()).getStatus());
+        }
+    }
+
+    @Test
+    void testFlush_RejectedRowGivesItsSeatBack() {
+        RegistrationIntakeDTO kept = intakeServices.submitRegistration(1L, 1L, 12);
+        RegistrationIntakeDTO dropped = intakeServices.submitRegistration(1L, 1L, 13);
+        when(jdbcOperations.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(Collections.singletonList(kept.getRequestId()));
+
+        intakeServices.flush();
+
+        assertEquals(RegistrationIntakeDTO.Status.COMMITTED,
+                intakeServices.getRegistrationStatus(kept.getRequestId()).getStatus());
+        assertEquals(RegistrationIntakeDTO.Status.REJECTED,
+                intakeServices.getRegistrationStatus(dropped.getRequestId()).getStatus());
+        assertEquals(5, capacityLedger.remaining(1L, 12));
+        assertEquals(6, capacityLedger.remaining(1L, 13));
+        verify(revenueAggregates, times(1)).registrationAdded(1L, 12);
+        verify(revenueAggregates, never()).registrationAdded(1L, 13);
+    }
+
+    @Test
+    void testFlush_IntegrityFailureIsolatesTheBadRow() {
+        intakeServices.submitRegistration(1L, 1L, 12);
+        intakeServices.submitRegistration(1L, 1L, 13);
+        when(jdbcOperations.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("fk"));
+        // One matcher per element: the row array is spread over the varargs
+        when(jdbcOperations.update(anyString(), any(), any(), any(), any()))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("fk"));
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(Collections.emptyList());
+
+        intakeServices.flush();
+
+        verify(jdbcOperations, times(2)).update(anyString(), any(), any(), any(), any());
+        assertEquals(0, intakeServices.getPendingRegistrations());
+        assertEquals(5, capacityLedger.remaining(1L, 12));
+        assertEquals(6, capacityLedger.remaining(1L, 13));
+        verify(revenueAggregates, times(1)).registrationAdded(1L, 12);
+        verify(revenueAggregates, never()).registrationAdded(1L, 13);
+    }
+
+    @Test
+    void testFlush_FailureKeepsRequestsForTheNextBatch() throws IOException {
+        intakeServices.submitRegistration(1L, 1L, 12);
+        when(jdbcOperations.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        intakeServices.flush();
+        intakeServices.flush();
+
+        assertEquals(1, intakeServices.getPendingRegistrations());
+        assertEquals(5, capacityLedger.remaining(1L, 12));
+        verifyNoInteractions(revenueAggregates);
+        // The retry reuses the segment sealed by the first attempt
+        assertEquals(2, walSegments());
+    }
+
+    private long walSegments() throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testStart_ReplaysOnlyRequestsNotStoredYet() throws Exception {
+        RegistrationIntakeDTO stored = intakeServices.submitRegistration(1L, 1L, 12);
+        RegistrationIntakeDTO lost = intakeServices.submitRegistration(1L, 1L, 13);
+        // Simulated crash after the first request reached the table: a fresh ledger counts it, not the other
+        when(registrationRepository.countByCourseAndWeek())
+                .thenReturn(Collections.singletonList(new CourseWeekCountDTO(1L, 12, 1L)));
+        when(jdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(Collections.singletonList(stored.getRequestId()));
+        capacityLedger = new CourseCapacityLedger(courseRepository, registrationRepository, 6, 1);
+        capacityLedger.seed();
+        RegistrationIntakeServicesImpl restarted = newService();
+        try {
+            assertEquals(1, restarted.getPendingRegistrations());
+            assertEquals(5, capacityLedger.remaining(1L, 12));
+            assertEquals(5, capacityLedger.remaining(1L, 13));
+            assertEquals(RegistrationIntakeDTO.Status.COMMITTED,
+                    restarted.getRegistrationStatus(stored.getRequestId()).getStatus());
+            assertEquals(RegistrationIntakeDTO.Status.PENDING,
+                    restarted.getRegistrationStatus(lost.getRequestId()).getStatus());
+        } finally {
+            restarted.stop();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Registration;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISkierRepository;
+import tn.esprit.spring.services.CourseCapacityLedger;
+import tn.esprit.spring.services.CourseFullException;
+import tn.esprit.spring.services.RegistrationServicesImpl;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RegistrationServicesImplTest {
+
+    @Mock
+    private IRegistrationRepository registrationRepository;
+
+    @Mock
+    private ISkierRepository skierRepository;
+
+    @Mock
+    private ICourseRepository courseRepository;
+
+    private CourseCapacityLedger capacityLedger;
+
+    private RegistrationServicesImpl registrationServices;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        course = new Course();
+        course.setNumCourse(1L);
+        course.setTypeCourse(TypeCourse.COLLECTIVE_ADULT);
+
+        when(courseRepository.findAll()).thenReturn(Collections.singletonList(course));
+        when(registrationRepository.countByCourseAndWeek())
+                .thenReturn(Arrays.asList(new CourseWeekCountDTO(1L, 10, 5L),
+                        // Week 74 would share the key of course 2 week 10
+                        new CourseWeekCountDTO(1L, 74, 6L)));
+        when(courseRepository.getById(1L)).thenReturn(course);
+        when(skierRepository.findById(1L)).thenReturn(Optional.of(new Skier()));
+        when(registrationRepository.save(any(Registration.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        capacityLedger = new CourseCapacityLedger(courseRepository, registrationRepository, 6, 1);
+        capacityLedger.seed();
+        registrationServices = new RegistrationServicesImpl(registrationRepository, skierRepository, courseRepository, capacityLedger);
+    }
+
+    private static Registration week(int numWeek) {
+        Registration registration = new Registration();
+        registration.setNumWeek(numWeek);
+        return registration;
+    }
+
+    @Test
+    void testAddRegistration_TakesLastSeededSeat() {
+        Registration saved = registrationServices.addRegistrationAndAssignToSkierAndCourse(week(10), 1L, 1L);
+
+        assertSame(course, saved.getCourse());
+        assertEquals(0, registrationServices.getRemainingSeats(1L, 10));
+        assertThrows(CourseFullException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(10), 1L, 1L));
+        verify(registrationRepository, times(1)).save(any(Registration.class));
+    }
+
+    @Test
+    void testAddRegistration_ReleasesSeatWhenSaveFails() {
+        when(registrationRepository.save(any(Registration.class)))
+                .thenThrow(new DataIntegrityViolationException("constraint"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(10), 1L, 1L));
+
+        assertEquals(1, registrationServices.getRemainingSeats(1L, 10));
+    }
+
+    @Test
+    void testAddRegistration_ReleasesSeatForUnknownSkier() {
+        when(skierRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(3), 2L, 1L));
+
+        assertEquals(6, registrationServices.getRemainingSeats(1L, 3));
+        verify(registrationRepository, never()).save(any(Registration.class));
+    }
+
+    @Test
+    void testAddRegistration_TracksCourseCreatedAfterStartup() {
+        Course individual = new Course();
+        individual.setNumCourse(2L);
+        individual.setTypeCourse(TypeCourse.INDIVIDUAL);
+        when(courseRepository.findById(2L)).thenReturn(Optional.of(individual));
+
+        registrationServices.addRegistrationAndAssignToSkierAndCourse(week(1), 1L, 2L);
+
+        assertThrows(CourseFullException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(1), 1L, 2L));
+        verify(courseRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void testAddRegistration_UnknownCourseOrInvalidWeek() {
+        when(courseRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(1), 1L, 3L));
+        assertThrows(IllegalArgumentException.class,
+                () -> registrationServices.addRegistrationAndAssignToSkierAndCourse(week(0), 1L, 1L));
+    }
+
+    @Test
+    void testRemainingSeats_WeeksOutOfRange() {
+        course.setNumCourse(2L);
+        capacityLedger.track(course);
+
+        assertEquals(6, registrationServices.getRemainingSeats(2L, 10));
+        assertThrows(IllegalArgumentException.class, () -> registrationServices.getRemainingSeats(1L, 74));
+        assertThrows(IllegalArgumentException.class, () -> registrationServices.getRemainingSeats(1L, -1));
+        assertThrows(IllegalArgumentException.class, () -> registrationServices.getRemainingSeats(1L, 0));
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOverbook() throws InterruptedException {
+        int threads = 16;
+        int attemptsPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        for (int numWeek : Arrays.asList(20, 21)) {
+                            if (capacityLedger.tryReserve(1L, numWeek)) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(12, accepted.get());
+        assertEquals(0, capacityLedger.remaining(1L, 20));
+        assertEquals(0, capacityLedger.remaining(1L, 21));
+    }
+}
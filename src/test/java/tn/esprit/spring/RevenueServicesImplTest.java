@@ -0,0 +1,169 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import tn.esprit.spring.dto.CourseWeekCountDTO;
+import tn.esprit.spring.dto.RevenueCellDTO;
+import tn.esprit.spring.dto.RevenueCheckDTO;
+import tn.esprit.spring.dto.SubscriptionPriceCountDTO;
+import tn.esprit.spring.dto.SubscriptionRevenueDTO;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.IRegistrationRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.RevenueAggregates;
+import tn.esprit.spring.services.RevenueServicesImpl;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RevenueServicesImplTest {
+
+    @Mock
+    private ICourseRepository courseRepository;
+
+    @Mock
+    private IRegistrationRepository registrationRepository;
+
+    @Mock
+    private ISubscriptionRepository subscriptionRepository;
+
+    private RevenueAggregates revenueAggregates;
+
+    private RevenueServicesImpl revenueServices;
+
+    private Course skiCourse;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        skiCourse = new Course(1L, 1, TypeCourse.COLLECTIVE_ADULT, Support.SKI, 50.5f, 1, null);
+        Course snowboardCourse = new Course(2L, 1, TypeCourse.INDIVIDUAL, Support.SNOWBOARD, 120f, 2, null);
+
+        when(courseRepository.findAll()).thenReturn(Arrays.asList(skiCourse, snowboardCourse));
+        when(registrationRepository.countByCourseAndWeek()).thenReturn(Arrays.asList(
+                new CourseWeekCountDTO(1L, 3, 4L),
+                new CourseWeekCountDTO(2L, 3, 1L)));
+        when(subscriptionRepository.countByTypeAndPrice()).thenReturn(Arrays.asList(
+                new SubscriptionPriceCountDTO(TypeSubscription.ANNUAL, 900f, 2L),
+                new SubscriptionPriceCountDTO(TypeSubscription.MONTHLY, 99.9f, 3L)));
+
+        revenueAggregates = new RevenueAggregates(courseRepository, registrationRepository, subscriptionRepository);
+        revenueAggregates.rebuild();
+        revenueServices = new RevenueServicesImpl(revenueAggregates);
+    }
+
+    private RevenueCellDTO skiCell(int numWeek) {
+        List<RevenueCellDTO> cells = revenueServices.getRegistrationRevenue(numWeek, TypeCourse.COLLECTIVE_ADULT, Support.SKI);
+        return cells.isEmpty() ? null : cells.get(0);
+    }
+
+    @Test
+    void testRebuild_AggregatesByWeekTypeAndSupport() {
+        assertEquals(2, revenueServices.getRegistrationRevenue(3, null, null).size());
+        assertEquals(4, skiCell(3).getRegistrations());
+        assertEquals(new BigDecimal("202.00"), skiCell(3).getRevenue());
+
+        List<SubscriptionRevenueDTO> subscriptions = revenueServices.getSubscriptionRevenue();
+        assertEquals(2, subscriptions.size());
+        assertEquals(new BigDecimal("299.70"), subscriptions.stream()
+                .filter(s -> s.getTypeSub() == TypeSubscription.MONTHLY).findFirst().get().getRevenue());
+    }
+
+    @Test
+    void testIncrementalChanges_ShowInTheNextSnapshot() {
+        revenueAggregates.registrationAdded(1L, 3);
+        revenueAggregates.registrationAdded(1L, 4);
+        revenueAggregates.registrationRemoved(2L, 3);
+        revenueAggregates.subscriptionAdded(TypeSubscription.SEMESTRIEL, 450f);
+
+        assertEquals(4, skiCell(3).getRegistrations()); // snapshot not taken yet
+        revenueAggregates.publishSnapshot();
+
+        assertEquals(5, skiCell(3).getRegistrations());
+        assertEquals(new BigDecimal("50.50"), skiCell(4).getRevenue());
+        assertTrue(revenueServices.getRegistrationRevenue(3, TypeCourse.INDIVIDUAL, null).isEmpty());
+        assertEquals(3, revenueServices.getSubscriptionRevenue().size());
+        verify(registrationRepository, times(1)).countByCourseAndWeek();
+    }
+
+    @Test
+    void testCourseChange_MovesItsRevenue() {
+        skiCourse.setPrice(60f);
+        skiCourse.setSupport(Support.SNOWBOARD);
+
+        revenueAggregates.courseChanged(skiCourse);
+        revenueAggregates.publishSnapshot();
+
+        assertNull(skiCell(3));
+        RevenueCellDTO moved = revenueServices.getRegistrationRevenue(3, TypeCourse.COLLECTIVE_ADULT, Support.SNOWBOARD).get(0);
+        assertEquals(4, moved.getRegistrations());
+        assertEquals(new BigDecimal("240.00"), moved.getRevenue());
+    }
+
+    @Test
+    void testCheck_RepairsDrift() {
+        revenueAggregates.registrationAdded(1L, 3); // never committed, say
+
+        RevenueCheckDTO report = revenueServices.checkRevenue(false);
+        assertEquals(1, report.getMismatchedCells());
+        assertFalse(report.isRepaired());
+
+        RevenueCheckDTO repaired = revenueServices.checkRevenue(true);
+        assertTrue(repaired.isRepaired());
+        assertEquals(0, revenueServices.checkRevenue(false).getMismatchedCells());
+        assertEquals(4, skiCell(3).getRegistrations());
+    }
+
+    @Test
+    void testUnknownCourse_MarksTheStoreStale() {
+        revenueAggregates.registrationAdded(99L, 3);
+
+        assertTrue(revenueAggregates.isStale());
+        assertTrue(revenueServices.checkRevenue(true).isRepaired());
+        assertFalse(revenueAggregates.isStale());
+        assertEquals(Collections.emptyList(), revenueServices.getRegistrationRevenue(3, TypeCourse.COLLECTIVE_CHILDREN, null));
+    }
+
+    @Test
+    void testChangeDuringRebuild_MarksTheStoreStale() {
+        List<CourseWeekCountDTO> counts = Arrays.asList(new CourseWeekCountDTO(1L, 3, 4L), new CourseWeekCountDTO(2L, 3, 1L));
+        when(registrationRepository.countByCourseAndWeek())
+                .thenAnswer(invocation -> {
+                    // Commits while the rebuild reads: lands in the store about to be replaced
+                    revenueAggregates.registrationAdded(1L, 3);
+                    return counts;
+                })
+                .thenReturn(counts);
+
+        revenueAggregates.rebuild();
+
+        assertTrue(revenueAggregates.isStale());
+        assertTrue(revenueServices.checkRevenue(true).isRepaired());
+        assertFalse(revenueAggregates.isStale());
+    }
+
+    @Test
+    void testChangeDuringCheck_KeepsTheRepairedStoreStale() {
+        revenueAggregates.registrationAdded(1L, 3); // never committed, say
+        when(subscriptionRepository.countByTypeAndPrice()).thenAnswer(invocation -> {
+            revenueAggregates.subscriptionAdded(TypeSubscription.ANNUAL, 900f);
+            return Collections.emptyList();
+        });
+
+        assertTrue(revenueServices.checkRevenue(true).isRepaired());
+
+        assertTrue(revenueAggregates.isStale());
+    }
+}
@@ -0,0 +1,129 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprit.spring.dto.InstructorDTO;
+import tn.esprit.spring.dto.InstructorPatchDTO;
+import tn.esprit.spring.entities.Instructor;
+import tn.esprit.spring.entities.Seniority;
+import tn.esprit.spring.repositories.IInstructorRepository;
+import tn.esprit.spring.services.SeniorityLeaderboard;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeniorityLeaderboardTest {
+
+    private final LocalDate initialToday = Seniority.today();
+
+    private SeniorityLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        IInstructorRepository instructorRepository = mock(IInstructorRepository.class);
+        when(instructorRepository.findAllDTOs()).thenReturn(Arrays.asList(
+                new InstructorDTO(1L, "Ann", "Recent", LocalDate.of(2020, 3, 1), 0L),
+                new InstructorDTO(2L, "Bob", "Unknown", null, 0L),
+                new InstructorDTO(3L, "Cid", "Senior", LocalDate.of(1995, 6, 1), 0L),
+                new InstructorDTO(4L, "Dan", "Middle", LocalDate.of(2008, 9, 1), 0L),
+                new InstructorDTO(5L, "Eve", "Middle", LocalDate.of(2008, 9, 1), 0L)));
+        leaderboard = new SeniorityLeaderboard(instructorRepository);
+        leaderboard.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Seniority.advanceTo(initialToday);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<Long> topIds(int k) {
+        return leaderboard.top(k).stream().map(InstructorDTO::getNumInstructor).collect(Collectors.toList());
+    }
+
+    @Test
+    void testTop_MostSeniorFirstNoHireDateLast() {
+        assertEquals(Arrays.asList(3L, 4L, 5L), topIds(3));
+        assertEquals(Arrays.asList(3L, 4L, 5L, 1L, 2L), topIds(100));
+    }
+
+    @Test
+    void testTop_ReturnsCopies() {
+        leaderboard.top(1).get(0).setFirstName("Changed");
+
+        assertEquals("Cid", leaderboard.top(1).get(0).getFirstName());
+    }
+
+    @Test
+    void testPut_AddsAndMovesInstructors() {
+        leaderboard.put(new InstructorDTO(6L, "Fay", "Founder", LocalDate.of(1990, 1, 1), 0L));
+        leaderboard.put(new InstructorDTO(3L, "Cid", "Senior", LocalDate.of(2021, 1, 1), 1L));
+
+        assertEquals(Arrays.asList(6L, 4L, 5L, 1L, 3L, 2L), topIds(10));
+        assertEquals(6, leaderboard.size());
+    }
+
+    @Test
+    void testPatch_KeepsFieldsNotSent() {
+        leaderboard.patch(1L, new InstructorPatchDTO(null, "Veteran", LocalDate.of(1980, 1, 1), 0L), 1L);
+
+        InstructorDTO top = leaderboard.top(1).get(0);
+        assertEquals(1L, top.getNumInstructor());
+        assertEquals("Ann", top.getFirstName());
+        assertEquals("Veteran", top.getLastName());
+        assertEquals(1L, top.getVersion());
+    }
+
+    @Test
+    void testRemove() {
+        leaderboard.remove(3L);
+        leaderboard.removeAll(Arrays.asList(4L, 42L));
+
+        assertEquals(Arrays.asList(5L, 1L, 2L), topIds(10));
+    }
+
+    @Test
+    void testRemoveHiredBetween_InclusiveKeepsNoHireDate() {
+        leaderboard.removeHiredBetween(LocalDate.of(2008, 9, 1), null);
+
+        assertEquals(Arrays.asList(3L, 2L), topIds(10));
+    }
+
+    @Test
+    void testWritesInTransaction_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        leaderboard.remove(3L);
+
+        assertEquals(3L, topIds(1).get(0));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(4L, topIds(1).get(0));
+    }
+
+    @Test
+    void testYearsOfService_SameRuleForEntityAndDTO() {
+        Seniority.advanceTo(LocalDate.of(2024, 2, 28));
+        LocalDate dateOfHire = LocalDate.of(2016, 2, 29);
+        Instructor instructor = new Instructor();
+        instructor.setDateOfHire(dateOfHire);
+
+        // Eight calendar years apart, but the eighth anniversary is tomorrow
+        assertEquals(7, instructor.getYearsOfService());
+        assertEquals(7, new InstructorDTO(1L, "Ann", "Recent", dateOfHire).getYearsOfService());
+
+        Seniority.advanceTo(LocalDate.of(2024, 2, 29));
+        assertEquals(8, instructor.getYearsOfService());
+        assertEquals(8, new InstructorDTO(1L, "Ann", "Recent", dateOfHire).getYearsOfService());
+    }
+}
@@ -0,0 +1,117 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.spring.controllers.SkierRestController;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.services.ISkierServices;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+class SkierControllerTest {
+
+    @Mock
+    private ISkierServices skierServices;
+
+    @InjectMocks
+    private SkierRestController skierRestController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = standaloneSetup(skierRestController).build();
+    }
+
+    private static Skier skier(Long numSkier, String firstName, String lastName) {
+        Skier skier = new Skier();
+        skier.setNumSkier(numSkier);
+        skier.setFirstName(firstName);
+        skier.setLastName(lastName);
+        skier.setCity("Tunis");
+        return skier;
+    }
+
+    @Test
+    void testSearchSkiers() throws Exception {
+        when(skierServices.searchSkiers("zoe mar", 10)).thenReturn(Arrays.asList(
+                new NameMatchDTO(1L, "Zoé", "Martin"), new NameMatchDTO(2L, "Zoe", "Marchand")));
+
+        mockMvc.perform(get("/skier/search").param("q", "zoe mar"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"lastName\":\"Martin\"},{\"id\":2,\"lastName\":\"Marchand\"}]"));
+        mockMvc.perform(get("/skier/search").param("q", "zoe").param("limit", "1000"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/skier/search").param("q", "zoe").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(skierServices, times(1)).searchSkiers("zoe", 50);
+        verify(skierServices, times(2)).searchSkiers(anyString(), anyInt());
+    }
+
+    @Test
+    void testAddSkier_IdIgnored() throws Exception {
+        when(skierServices.addSkier(any(Skier.class))).thenReturn(skier(7L, "Zoe", "Martin"));
+
+        mockMvc.perform(post("/skier/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSkier\":3,\"firstName\":\"Zoé\",\"lastName\":\"Martin\",\"dateOfBirth\":\"1990-05-04\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"numSkier\":7,\"firstName\":\"Zoe\",\"city\":\"Tunis\"}"));
+        mockMvc.perform(post("/skier/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Zoé\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(skierServices, times(1)).addSkier(argThat(skier -> skier.getNumSkier() == null));
+    }
+
+    @Test
+    void testUpdateSkier() throws Exception {
+        when(skierServices.updateSkier(any(Skier.class))).thenReturn(skier(1L, "Zoe", "Blanc"));
+        when(skierServices.updateSkier(argThat(skier -> skier.getNumSkier() == 9L)))
+                .thenThrow(new EntityNotFoundException("Skier with ID 9 not found"));
+
+        mockMvc.perform(put("/skier/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSkier\":1,\"firstName\":\"Zoe\",\"lastName\":\"Blanc\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Blanc"));
+        mockMvc.perform(put("/skier/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSkier\":9,\"firstName\":\"Zoe\",\"lastName\":\"Blanc\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/skier/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Zoe\",\"lastName\":\"Blanc\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetSkier() throws Exception {
+        when(skierServices.retrieveSkier(1L)).thenReturn(skier(1L, "Zoé", "Martin"));
+
+        mockMvc.perform(get("/skier/get/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Martin"));
+        mockMvc.perform(get("/skier/get/2"))
+                .andExpect(status().isNotFound());
+    }
+}
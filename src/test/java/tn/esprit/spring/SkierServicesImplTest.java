@@ -0,0 +1,94 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import tn.esprit.spring.dto.NameMatchDTO;
+import tn.esprit.spring.entities.Skier;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.repositories.ISkierRepository;
+import tn.esprit.spring.services.SkierNameIndex;
+import tn.esprit.spring.services.SkierServicesImpl;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SkierServicesImplTest {
+
+    @Mock
+    private ISkierRepository skierRepository;
+
+    @Mock
+    private SkierNameIndex nameIndex;
+
+    @InjectMocks
+    private SkierServicesImpl skierServices;
+
+    private Skier skier;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        skier = new Skier();
+        skier.setNumSkier(1L);
+        skier.setFirstName("Zoé");
+        skier.setLastName("Martin");
+        skier.setCity("Tunis");
+    }
+
+    @Test
+    void testAddSkier_Indexed() {
+        when(skierRepository.save(skier)).thenReturn(skier);
+
+        assertEquals(skier, skierServices.addSkier(skier));
+        verify(nameIndex, times(1)).put(1L, "Zoé", "Martin");
+    }
+
+    @Test
+    void testUpdateSkier_OnlyPersonalDetails() {
+        Subscription subscription = new Subscription();
+        skier.setSubscription(subscription);
+        when(skierRepository.findById(1L)).thenReturn(Optional.of(skier));
+        Skier changes = new Skier();
+        changes.setNumSkier(1L);
+        changes.setFirstName("Zoe");
+        changes.setLastName("Blanc");
+        changes.setDateOfBirth(LocalDate.of(1990, 5, 4));
+
+        Skier updated = skierServices.updateSkier(changes);
+
+        assertEquals("Blanc", updated.getLastName());
+        assertEquals(LocalDate.of(1990, 5, 4), updated.getDateOfBirth());
+        assertNull(updated.getCity());
+        assertSame(subscription, updated.getSubscription());
+        verify(skierRepository, never()).save(any());
+        verify(nameIndex, times(1)).put(1L, "Zoe", "Blanc");
+    }
+
+    @Test
+    void testUpdateSkier_NotFound() {
+        when(skierRepository.findById(2L)).thenReturn(Optional.empty());
+        Skier missing = new Skier();
+        missing.setNumSkier(2L);
+
+        assertThrows(EntityNotFoundException.class, () -> skierServices.updateSkier(missing));
+        verifyNoInteractions(nameIndex);
+    }
+
+    @Test
+    void testSearchSkiers_FromTheIndex() {
+        List<NameMatchDTO> matches = Collections.singletonList(new NameMatchDTO(1L, "Zoé", "Martin"));
+        when(nameIndex.search("zoe", 10)).thenReturn(matches);
+
+        assertEquals(matches, skierServices.searchSkiers("zoe", 10));
+        verifyNoInteractions(skierRepository);
+    }
+}
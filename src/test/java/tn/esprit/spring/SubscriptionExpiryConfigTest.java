@@ -0,0 +1,76 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.spring.configs.RevenueConfig;
+import tn.esprit.spring.configs.SubscriptionExpiryConfig;
+import tn.esprit.spring.entities.Course;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.Support;
+import tn.esprit.spring.entities.TypeCourse;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.ICourseRepository;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.RevenueAggregates;
+import tn.esprit.spring.services.SubscriptionExpiryIndex;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+// Revenue listens to courses too: Hibernate then sends course events to every post-commit listener
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({SubscriptionExpiryConfig.class, RevenueConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SubscriptionExpiryConfigTest {
+
+    @MockBean
+    private SubscriptionExpiryIndex expiryIndex;
+
+    @MockBean
+    private RevenueAggregates revenueAggregates;
+
+    @Autowired
+    private ICourseRepository courseRepository;
+
+    @Autowired
+    private ISubscriptionRepository subscriptionRepository;
+
+    @AfterEach
+    void tearDown() {
+        courseRepository.deleteAll();
+        subscriptionRepository.deleteAll();
+    }
+
+    @Test
+    void testCourseWrites_IgnoredByTheExpiryIndex() {
+        Course course = courseRepository.save(new Course(null, 1, TypeCourse.INDIVIDUAL, Support.SKI, 90f, 2, null));
+        course.setPrice(95f);
+        courseRepository.save(course);
+        courseRepository.delete(course);
+
+        verify(expiryIndex, never()).schedule(any(), any());
+        verify(expiryIndex, never()).unschedule(anyLong());
+        verify(revenueAggregates, times(2)).courseChanged(any(Course.class));
+        verify(revenueAggregates, times(1)).courseRemoved(course.getNumCourse());
+    }
+
+    @Test
+    void testSubscriptionWrites_Scheduled() {
+        LocalDate endDate = LocalDate.of(2030, 1, 31);
+        Subscription subscription = subscriptionRepository.save(
+                new Subscription(null, LocalDate.of(2030, 1, 1), endDate, 300f, TypeSubscription.MONTHLY));
+        subscriptionRepository.delete(subscription);
+
+        verify(expiryIndex, times(1)).schedule(subscription.getNumSub(), endDate);
+        verify(expiryIndex, times(1)).unschedule(subscription.getNumSub());
+    }
+}
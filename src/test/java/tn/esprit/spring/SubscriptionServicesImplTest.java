@@ -0,0 +1,150 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import tn.esprit.spring.dto.SubscriptionEndDTO;
+import tn.esprit.spring.dto.SubscriptionExpiryRunDTO;
+import tn.esprit.spring.entities.Subscription;
+import tn.esprit.spring.entities.TypeSubscription;
+import tn.esprit.spring.repositories.ISubscriptionRepository;
+import tn.esprit.spring.services.SubscriptionExpiryHandler;
+import tn.esprit.spring.services.SubscriptionExpiryIndex;
+import tn.esprit.spring.services.SubscriptionServicesImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class SubscriptionServicesImplTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 10);
+
+    @Mock
+    private ISubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private SubscriptionExpiryHandler handler;
+
+    private SubscriptionExpiryIndex expiryIndex;
+
+    private SubscriptionServicesImpl subscriptionServices;
+
+    private final Map<Long, Subscription> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        store(1L, TODAY.minusDays(1));  // ended yesterday, expires today
+        store(2L, TODAY.plusDays(7));   // reminder due today
+        store(3L, TODAY.plusDays(400)); // far beyond the first wheel level
+
+        when(subscriptionRepository.findEndingFrom(TODAY.minusDays(1))).thenReturn(stored.values().stream()
+                .map(s -> new SubscriptionEndDTO(s.getNumSub(), s.getEndDate()))
+                .collect(Collectors.toList()));
+        when(subscriptionRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Subscription> found = new ArrayList<>();
+            for (Long id : ids) {
+                if (stored.containsKey(id)) {
+                    found.add(stored.get(id));
+                }
+            }
+            return found;
+        });
+
+        expiryIndex = new SubscriptionExpiryIndex(subscriptionRepository, 7, "0 5 0 * * *");
+        expiryIndex.rebuild(TODAY);
+        subscriptionServices = new SubscriptionServicesImpl(subscriptionRepository, expiryIndex,
+                Collections.singletonList(handler), 500);
+    }
+
+    private void store(Long numSub, LocalDate endDate) {
+        stored.put(numSub, new Subscription(numSub, endDate.minusYears(1), endDate, 100f, TypeSubscription.ANNUAL));
+    }
+
+    @Test
+    void testProcessExpiries_OnlyReadsDueSubscriptions() {
+        SubscriptionExpiryRunDTO run = subscriptionServices.processExpiries(TODAY);
+
+        assertEquals(1, run.getExpired());
+        assertEquals(1, run.getReminded());
+        verify(handler).onExpired(Collections.singletonList(stored.get(1L)));
+        verify(handler).onRenewalReminder(Collections.singletonList(stored.get(2L)));
+        verify(subscriptionRepository).findAllById(Collections.singletonList(1L));
+        verify(subscriptionRepository).findAllById(Collections.singletonList(2L));
+        verify(subscriptionRepository, never()).findAll();
+    }
+
+    @Test
+    void testProcessExpiries_DaysAreProcessedOnce() {
+        subscriptionServices.processExpiries(TODAY);
+        SubscriptionExpiryRunDTO again = subscriptionServices.processExpiries(TODAY);
+
+        assertEquals(0, again.getExpired());
+        assertEquals(0, again.getReminded());
+        verify(handler, times(1)).onExpired(anyList());
+    }
+
+    @Test
+    void testProcessExpiries_CatchesUpFarAhead() {
+        SubscriptionExpiryRunDTO run = subscriptionServices.processExpiries(TODAY.plusDays(401));
+
+        assertEquals(3, run.getExpired());
+        assertEquals(0, run.getReminded()); // both subscriptions have ended by then, no late reminder
+        assertEquals(0, expiryIndex.size());
+    }
+
+    @Test
+    void testRebuild_AfterTodaysRunSkipsWhatItHandled() {
+        assertEquals(TODAY, expiryIndex.firstPendingDay(TODAY.atTime(0, 1)));
+        LocalDate firstPending = expiryIndex.firstPendingDay(TODAY.atTime(10, 0));
+        assertEquals(TODAY.plusDays(1), firstPending);
+
+        when(subscriptionRepository.findEndingFrom(TODAY)).thenReturn(stored.values().stream()
+                .filter(s -> !s.getEndDate().isBefore(TODAY))
+                .map(s -> new SubscriptionEndDTO(s.getNumSub(), s.getEndDate()))
+                .collect(Collectors.toList()));
+        expiryIndex.rebuild(firstPending);
+
+        SubscriptionExpiryRunDTO run = subscriptionServices.processExpiries(TODAY.plusDays(1));
+
+        assertEquals(0, run.getExpired());  // subscription 1 expired in this morning's run
+        assertEquals(0, run.getReminded()); // and subscription 2 was reminded then
+        verifyNoInteractions(handler);
+    }
+
+    @Test
+    void testSchedule_RenewalMovesTheExpiry() {
+        store(2L, TODAY.plusDays(30));
+        expiryIndex.schedule(2L, TODAY.plusDays(30));
+
+        SubscriptionExpiryRunDTO run = subscriptionServices.processExpiries(TODAY.plusDays(8));
+
+        assertEquals(1, run.getExpired()); // subscription 1 only
+        assertEquals(0, run.getReminded());
+        assertEquals(1, subscriptionServices.processExpiries(TODAY.plusDays(23)).getReminded());
+        assertEquals(1, subscriptionServices.processExpiries(TODAY.plusDays(31)).getExpired());
+    }
+
+    @Test
+    void testUnschedule_DeletedSubscriptionNeverFires() {
+        stored.remove(1L);
+        expiryIndex.unschedule(1L);
+
+        SubscriptionExpiryRunDTO run = subscriptionServices.processExpiries(TODAY);
+
+        assertEquals(0, run.getExpired());
+        verify(handler, never()).onExpired(anyList());
+    }
+}
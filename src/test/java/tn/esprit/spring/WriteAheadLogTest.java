@@ -0,0 +1,78 @@
+package tn.esprit.spring;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tn.esprit.spring.services.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    // Two longs and the CRC
+    private static final int RECORD_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    private Path writeThreeRecords() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, "test", 2)) {
+            wal.append(Arrays.asList(new long[]{1, 10}, new long[]{2, 20}, new long[]{3, 30}));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList()).get(0);
+        }
+    }
+
+    private List<long[]> replay() throws IOException {
+        List<long[]> records = new ArrayList<>();
+        try (WriteAheadLog wal = new WriteAheadLog(directory, "test", 2)) {
+            wal.replay(records::add);
+        }
+        return records;
+    }
+
+    @Test
+    void testReplay_ReturnsTheRecordsInOrder() throws IOException {
+        writeThreeRecords();
+
+        List<long[]> records = replay();
+
+        assertEquals(3, records.size());
+        assertArrayEquals(new long[]{3, 30}, records.get(2));
+    }
+
+    @Test
+    void testReplay_StopsAtACorruptRecord() throws IOException {
+        Path segment = writeThreeRecords();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), RECORD_BYTES + 3);
+        }
+
+        List<long[]> records = replay();
+
+        assertEquals(1, records.size());
+        assertArrayEquals(new long[]{1, 10}, records.get(0));
+    }
+
+    @Test
+    void testReplay_IgnoresAPartialLastRecord() throws IOException {
+        Path segment = writeThreeRecords();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(3L * RECORD_BYTES - 5);
+        }
+
+        assertEquals(2, replay().size());
+    }
+}